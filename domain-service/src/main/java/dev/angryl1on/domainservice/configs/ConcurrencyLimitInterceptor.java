@@ -0,0 +1,85 @@
+package dev.angryl1on.domainservice.configs;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * gRPC server interceptor bounding the number of calls processed concurrently.
+ *
+ * <p>When the server runs its handlers on virtual threads, nothing else limits how
+ * many calls are in progress at once, and an unbounded number of calls would all hit
+ * MongoDB and RabbitMQ together. Every call takes a permit when it starts and gives it
+ * back when it completes or is cancelled. A call arriving while no permit is left is
+ * rejected immediately with {@code RESOURCE_EXHAUSTED}, so clients can back off instead
+ * of queueing on the server.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConcurrencyLimitInterceptor implements ServerInterceptor {
+
+    /**
+     * Permits for the calls in progress.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Constructs the {@code ConcurrencyLimitInterceptor}.
+     *
+     * @param maxConcurrentCalls The maximum number of calls processed at once.
+     */
+    public ConcurrencyLimitInterceptor(int maxConcurrentCalls) {
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!permits.tryAcquire()) {
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Too many concurrent calls"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+
+        try {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+                @Override
+                public void onComplete() {
+                    try {
+                        super.onComplete();
+                    } finally {
+                        release.run();
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    try {
+                        super.onCancel();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+}
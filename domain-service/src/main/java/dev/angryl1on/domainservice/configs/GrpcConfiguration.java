@@ -1,12 +1,21 @@
 package dev.angryl1on.domainservice.configs;
 
 import dev.angryl1on.domainservice.services.TransactionServiceImpl;
+import dev.angryl1on.grpc.DomainServiceGrpc;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.protobuf.services.HealthStatusManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Configuration class for setting up a gRPC server in the application.
  * This class implements {@link CommandLineRunner}, enabling it to execute
@@ -15,6 +24,19 @@ import org.springframework.stereotype.Component;
  * <p>The gRPC server is configured to listen on port 8080 and to register
  * the {@link TransactionServiceImpl} as its service.</p>
  *
+ * <p>With {@code execution.mode=virtual}, every call is handled on its own virtual
+ * thread instead of the default cached thread pool, so thousands of calls blocked on
+ * MongoDB or RabbitMQ do not tie up platform threads. The number of calls in progress
+ * is then bounded by {@code execution.max-concurrent-calls} through a
+ * {@link ConcurrencyLimitInterceptor}.</p>
+ *
+ * <p>The server also exposes the standard {@code grpc.health.v1.Health} service, which
+ * clients use to route calls only to replicas reporting {@code SERVING}. It accepts
+ * client keepalive pings down to {@code grpc.server.permit-keepalive-time-ms} and
+ * closes connections after {@code grpc.server.max-connection-age-ms}, so that clients
+ * re-resolve their targets and spread load over newly started replicas. On shutdown the
+ * health status switches to {@code NOT_SERVING} before in-flight calls are drained.</p>
+ *
  * <p>Upon startup, the server begins listening for incoming requests
  * and blocks the application from exiting until termination.</p>
  *
@@ -28,8 +50,49 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class GrpcConfiguration implements CommandLineRunner {
+
+    /**
+     * Execution mode selecting virtual-thread call handling.
+     */
+    public static final String VIRTUAL_EXECUTION_MODE = "virtual";
+
+    /**
+     * Logger for logging the server lifecycle.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(GrpcConfiguration.class);
+
     private final TransactionServiceImpl transactionService;
 
+    /**
+     * Thread model of the call handlers: {@code platform} or {@code virtual}.
+     */
+    @Value("${execution.mode:platform}")
+    private String executionMode;
+
+    /**
+     * Maximum number of calls processed at once in virtual-thread mode.
+     */
+    @Value("${execution.max-concurrent-calls:2000}")
+    private int maxConcurrentCalls;
+
+    /**
+     * Minimum interval in milliseconds between keepalive pings accepted from a client.
+     */
+    @Value("${grpc.server.permit-keepalive-time-ms:10000}")
+    private long permitKeepAliveTimeMs;
+
+    /**
+     * Maximum lifetime in milliseconds of a client connection.
+     */
+    @Value("${grpc.server.max-connection-age-ms:300000}")
+    private long maxConnectionAgeMs;
+
+    /**
+     * Maximum time in milliseconds granted to in-flight calls on shutdown.
+     */
+    @Value("${grpc.server.shutdown-grace-period-ms:10000}")
+    private long shutdownGracePeriodMs;
+
     /**
      * Constructor for injecting the {@link TransactionServiceImpl}.
      *
@@ -44,20 +107,43 @@ public class GrpcConfiguration implements CommandLineRunner {
      * Starts the gRPC server when the application begins running.
      *
      * <p>The server is configured to listen on port 8080 and register the provided
-     * {@link TransactionServiceImpl}. Once started, the server blocks the main
-     * thread and continues to handle incoming gRPC requests until termination.</p>
+     * {@link TransactionServiceImpl} and the health service, using the configured
+     * execution mode. Once started, the server blocks the main thread and continues to handle incoming gRPC requests until termination.</p>
      *
      * @param args Command-line arguments passed to the application (not used).
      * @throws Exception If an error occurs during server startup or execution.
      */
     @Override
     public void run(String... args) throws Exception {
-        Server server = ServerBuilder.forPort(8080)
+        HealthStatusManager health = new HealthStatusManager();
+
+        ServerBuilder<?> builder = ServerBuilder.forPort(8080)
+                .permitKeepAliveTime(permitKeepAliveTimeMs, TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                .maxConnectionAge(maxConnectionAgeMs, TimeUnit.MILLISECONDS)
+                .maxConnectionAgeGrace(shutdownGracePeriodMs, TimeUnit.MILLISECONDS);
+        if (VIRTUAL_EXECUTION_MODE.equalsIgnoreCase(executionMode)) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .intercept(new ConcurrencyLimitInterceptor(maxConcurrentCalls));
+        }
+        Server server = builder
                 .addService(transactionService)
+                .addService(health.getHealthService())
                 .build();
 
         server.start();
-        System.out.println("Server started, listening on " + server.getPort());
+        health.setStatus(DomainServiceGrpc.SERVICE_NAME, HealthCheckResponse.ServingStatus.SERVING);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            health.enterTerminalState();
+            server.shutdown();
+            try {
+                server.awaitTermination(shutdownGracePeriodMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            server.shutdownNow();
+        }));
+        logger.info("Server started, listening on {} ({} threads)", server.getPort(), executionMode);
         server.awaitTermination();
     }
 }
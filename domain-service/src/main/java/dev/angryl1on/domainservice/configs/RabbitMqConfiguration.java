@@ -1,21 +1,45 @@
 package dev.angryl1on.domainservice.configs;
 
+import dev.angryl1on.domainservice.converters.TransactionCommandMessageConverter;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration class for setting up RabbitMQ in the application.
  *
- * <p>This configuration defines the queue, exchange, routing key, and
- * necessary beans for RabbitMQ integration, including a JSON message
- * converter and a pre-configured {@link RabbitTemplate}.</p>
+ * <p>This configuration defines the exchange, the partition queues and their
+ * routing keys (see {@link TransactionPartitions}), the legacy single queue, the
+ * retry tiers and parking queue of failed commands (see {@link TransactionRetryTiers}),
+ * the exchange of committed transaction changes and, when an in-memory view needs them,
+ * the queue through which this instance receives them, and
+ * necessary beans for RabbitMQ integration, including a protobuf message
+ * converter (with JSON fallback) and a pre-configured {@link RabbitTemplate}.</p>
+ *
+ * <p>It also provides a batch listener container factory, used when
+ * {@code transaction.listener.batch.enabled} is {@code true}, which hands
+ * up to {@code transaction.listener.batch.size} messages at once to the
+ * listener. A batch is released early when no further message arrives within
+ * {@code transaction.listener.batch.linger-ms} milliseconds.</p>
  *
  * <p>Usage of this class assumes that RabbitMQ is properly configured
  * and running in the environment where the application is deployed.</p>
@@ -28,7 +52,8 @@ import org.springframework.context.annotation.Configuration;
 public class RabbitMqConfiguration {
 
     /**
-     * The name of the RabbitMQ queue for transactions.
+     * The name of the legacy single transaction queue, still consumed so that commands
+     * published before partitioning are applied.
      */
     public static final String TRANSACTION_QUEUE = "transaction.queue";
 
@@ -38,12 +63,53 @@ public class RabbitMqConfiguration {
     public static final String TRANSACTION_EXCHANGE = "transaction.exchange";
 
     /**
-     * The routing key for binding the queue to the exchange.
+     * The routing key binding the legacy single queue to the exchange.
      */
     public static final String TRANSACTION_ROUTING_KEY = "transaction.key";
 
     /**
-     * Defines a durable RabbitMQ queue.
+     * The name of the fanout exchange carrying committed transaction changes.
+     */
+    public static final String TRANSACTION_EVENTS_EXCHANGE = "transaction.events";
+
+    /**
+     * Condition under which the in-memory read model is enabled.
+     */
+    public static final String READ_MODEL_ENABLED = "${transaction.events.enabled:true}"
+            + " and ${transaction.read-model.enabled:false}";
+
+    /**
+     * Condition under which the in-memory analytics snapshot is enabled.
+     */
+    public static final String ANALYTICS_ENABLED = "${transaction.events.enabled:true}"
+            + " and ${transaction.analytics.enabled:false}";
+
+    /**
+     * Condition under which an in-memory view is enabled and this instance consumes the
+     * transaction events exchange.
+     */
+    public static final String LOCAL_VIEWS_ENABLED = "${transaction.events.enabled:true}"
+            + " and (${transaction.read-model.enabled:false} or ${transaction.analytics.enabled:false})";
+
+    /**
+     * The bean name of the listener container factory delivering messages in batches.
+     */
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchListenerContainerFactory";
+
+    /**
+     * Maximum number of messages delivered to the batch listener at once.
+     */
+    @Value("${transaction.listener.batch.size:500}")
+    private int batchSize;
+
+    /**
+     * Maximum time in milliseconds to wait for the next message before releasing a partial batch.
+     */
+    @Value("${transaction.listener.batch.linger-ms:50}")
+    private long batchLingerMs;
+
+    /**
+     * Defines the legacy durable transaction queue.
      *
      * @return A new {@link Queue} object.
      */
@@ -75,27 +141,158 @@ public class RabbitMqConfiguration {
     }
 
     /**
-     * Configures a message converter for RabbitMQ to use JSON serialization and deserialization.
+     * Declares the partition queues and binds each one to the exchange with its routing key.
+     *
+     * <p>Each queue is durable and has a single active consumer, so that commands of a
+     * partition are applied in order even when several instances consume it.</p>
+     *
+     * @param partitions The partitioning of the transaction commands.
+     * @param exchange   The exchange to bind the queues to.
+     * @return The queues and their bindings.
+     */
+    @Bean
+    public Declarables partitionQueues(TransactionPartitions partitions, DirectExchange exchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < partitions.getCount(); partition++) {
+            Queue queue = QueueBuilder.durable(TransactionPartitions.queueName(partition))
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(TransactionPartitions.routingKey(partition)));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Declares the retry tiers and the parking queue of failed commands.
+     *
+     * <p>Each tier is a fanout exchange and a durable queue whose messages expire after
+     * the tier's delay and are then dead-lettered to the transaction exchange, keeping
+     * their routing key. The parking queue has no TTL and no consumer.</p>
+     *
+     * @param retryTiers The delay tiers of the retry pipeline.
+     * @return The exchanges, queues and bindings.
+     */
+    @Bean
+    public Declarables retryQueues(TransactionRetryTiers retryTiers) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int tier = 0; tier < retryTiers.getTiers(); tier++) {
+            String name = TransactionRetryTiers.tierName(tier);
+            FanoutExchange tierExchange = ExchangeBuilder.fanoutExchange(name).durable(true).build();
+            Queue tierQueue = QueueBuilder.durable(name)
+                    .ttl((int) retryTiers.delayMs(tier))
+                    .deadLetterExchange(TRANSACTION_EXCHANGE)
+                    .build();
+            declarables.add(tierExchange);
+            declarables.add(tierQueue);
+            declarables.add(BindingBuilder.bind(tierQueue).to(tierExchange));
+        }
+
+        FanoutExchange parkingExchange = ExchangeBuilder.fanoutExchange(TransactionRetryTiers.PARKING_EXCHANGE)
+                .durable(true)
+                .build();
+        Queue parkingQueue = QueueBuilder.durable(TransactionRetryTiers.PARKING_QUEUE).build();
+        declarables.add(parkingExchange);
+        declarables.add(parkingQueue);
+        declarables.add(BindingBuilder.bind(parkingQueue).to(parkingExchange));
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Defines the fanout exchange on which committed transaction changes are published.
+     *
+     * <p>Consumers such as gateway instances bind their own queues to it, so every one
+     * of them receives every change.</p>
+     *
+     * @return A new {@link FanoutExchange} object.
+     */
+    @Bean
+    public FanoutExchange eventsExchange() {
+        return new FanoutExchange(TRANSACTION_EVENTS_EXCHANGE);
+    }
+
+    /**
+     * Defines the queue through which this instance receives committed transaction changes.
+     *
+     * <p>The queue is exclusive to this instance and deleted when it disconnects.</p>
+     *
+     * @return A new {@link AnonymousQueue}.
+     */
+    @Bean
+    @ConditionalOnExpression(LOCAL_VIEWS_ENABLED)
+    public Queue transactionEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Binds the queue of this instance to the transaction events exchange.
+     *
+     * @param transactionEventsQueue The queue of this instance.
+     * @param eventsExchange         The transaction events exchange.
+     * @return A new {@link Binding} object.
+     */
+    @Bean
+    @ConditionalOnExpression(LOCAL_VIEWS_ENABLED)
+    public Binding eventsBinding(Queue transactionEventsQueue, FanoutExchange eventsExchange) {
+        return BindingBuilder.bind(transactionEventsQueue).to(eventsExchange);
+    }
+
+    /**
+     * Configures the message converter used by the template and all listener containers.
+     *
+     * <p>Transaction commands are exchanged as binary protobuf; JSON messages are still
+     * accepted through content-type negotiation.</p>
      *
-     * @return A {@link Jackson2JsonMessageConverter} for converting messages to and from JSON.
+     * @return A {@link TransactionCommandMessageConverter}.
      */
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter() {
+        return new TransactionCommandMessageConverter();
     }
 
     /**
-     * Configures a {@link RabbitTemplate} with a JSON message converter.
+     * Configures a {@link RabbitTemplate} with the transaction command message converter.
+     *
+     * <p>Messages are published as mandatory, so that a message the broker cannot route
+     * is returned and reported as a failed publish together with the publisher confirm
+     * (enabled through {@code spring.rabbitmq.publisher-confirm-type: correlated}).</p>
      *
      * @param connectionFactory The connection factory for RabbitMQ.
-     * @param messageConverter  The message converter for converting messages to and from JSON.
+     * @param messageConverter  The message converter for converting messages to and from AMQP bodies.
      * @return A configured {@link RabbitTemplate}.
      */
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter messageConverter) {
+                                         MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    /**
+     * Configures a listener container factory that delivers messages in batches.
+     *
+     * <p>The container collects up to {@code transaction.listener.batch.size} messages
+     * (or fewer, if the queue stays idle for {@code transaction.listener.batch.linger-ms})
+     * and acknowledges the whole batch at once after the listener returns. The prefetch
+     * count is raised to the batch size so that a full batch can be buffered.</p>
+     *
+     * @param configurer        The Spring Boot configurer applying the {@code spring.rabbitmq.listener} settings.
+     * @param connectionFactory The connection factory for RabbitMQ.
+     * @return A configured batch {@link SimpleRabbitListenerContainerFactory}.
+     */
+    @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchLingerMs);
+        factory.setPrefetchCount(batchSize);
+        return factory;
+    }
 }
@@ -0,0 +1,136 @@
+package dev.angryl1on.domainservice.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Partitioning of the transaction commands over several queues.
+ *
+ * <p>Commands are routed by transaction ID to one of {@code transaction.partitions.count}
+ * durable queues, {@code transaction.queue.<p>}, bound to the transaction exchange with
+ * the routing key {@code transaction.key.<p>}. Every command of a given ID lands in the
+ * same queue, and every queue is consumed by a single consumer, so commands on the same
+ * transaction are applied in the order they were published while different partitions
+ * are consumed in parallel.</p>
+ *
+ * <p>The partition queues are declared as single-active-consumer queues: when several
+ * instances consume the same partition, the broker delivers to only one of them at a
+ * time and fails over to another if it disconnects. Instances can instead be given
+ * disjoint sets of partitions with {@code transaction.partitions.consume} (e.g.
+ * {@code 0-3} and {@code 4-7}) to spread the partitions across them.</p>
+ *
+ * <p>The partition of an ID is {@code floorMod(id.hashCode(), count)}; {@link String#hashCode()}
+ * is specified by the language, so every instance computes the same partition. Changing
+ * the partition count moves IDs to other queues, so the queues should be drained first.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionPartitions {
+
+    /**
+     * Prefix of the names of the partition queues.
+     */
+    public static final String QUEUE_PREFIX = "transaction.queue.";
+
+    /**
+     * Prefix of the routing keys of the partition queues.
+     */
+    public static final String ROUTING_KEY_PREFIX = "transaction.key.";
+
+    /**
+     * Number of partitions.
+     */
+    @Value("${transaction.partitions.count:8}")
+    private int count;
+
+    /**
+     * Partitions consumed by this instance, as a comma-separated list of numbers and
+     * ranges; empty for all partitions.
+     */
+    @Value("${transaction.partitions.consume:}")
+    private String consume;
+
+    /**
+     * Returns the number of partitions.
+     *
+     * @return The partition count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Computes the partition of a transaction.
+     *
+     * @param id The transaction ID.
+     * @return The partition, between 0 and the partition count exclusive.
+     */
+    public int partitionOf(String id) {
+        return Math.floorMod(id.hashCode(), count);
+    }
+
+    /**
+     * Returns the name of the queue of a partition.
+     *
+     * @param partition The partition.
+     * @return The queue name.
+     */
+    public static String queueName(int partition) {
+        return QUEUE_PREFIX + partition;
+    }
+
+    /**
+     * Returns the routing key of a partition.
+     *
+     * @param partition The partition.
+     * @return The routing key.
+     */
+    public static String routingKey(int partition) {
+        return ROUTING_KEY_PREFIX + partition;
+    }
+
+    /**
+     * Returns the names of the partition queues consumed by this instance.
+     *
+     * @return The queue names, in partition order.
+     * @throws IllegalStateException If {@code transaction.partitions.consume} is malformed
+     *                               or names a partition out of range.
+     */
+    public List<String> consumedQueueNames() {
+        TreeSet<Integer> partitions = new TreeSet<>();
+        if (consume == null || consume.isBlank()) {
+            for (int partition = 0; partition < count; partition++) {
+                partitions.add(partition);
+            }
+        } else {
+            for (String part : consume.split(",")) {
+                String[] range = part.trim().split("-", 2);
+                try {
+                    int first = Integer.parseInt(range[0].trim());
+                    int last = range.length == 2 ? Integer.parseInt(range[1].trim()) : first;
+                    for (int partition = first; partition <= last; partition++) {
+                        partitions.add(partition);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException("Malformed transaction.partitions.consume: " + consume, e);
+                }
+            }
+            if (partitions.first() < 0 || partitions.last() >= count) {
+                throw new IllegalStateException("transaction.partitions.consume must stay between 0 and " + (count - 1));
+            }
+        }
+
+        List<String> queueNames = new ArrayList<>(partitions.size());
+        for (int partition : partitions) {
+            queueNames.add(queueName(partition));
+        }
+        return queueNames;
+    }
+}
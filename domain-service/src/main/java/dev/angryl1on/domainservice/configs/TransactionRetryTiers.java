@@ -0,0 +1,93 @@
+package dev.angryl1on.domainservice.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delay tiers of the retry pipeline for transaction commands that failed to apply.
+ *
+ * <p>Tier <i>n</i> (from 0) is a fanout exchange {@code transaction.retry.<n>} feeding a
+ * durable queue of the same name without consumers. Messages wait in it for
+ * {@code initial-delay-ms * multiplier^n} milliseconds (the queue's message TTL), then
+ * are dead-lettered back to the transaction exchange with their original routing key,
+ * so they return to the queue of their partition. A message failing after the last tier
+ * is moved to the parking queue {@value #PARKING_QUEUE}, where it stays until it is
+ * inspected and replayed or discarded by hand.</p>
+ *
+ * <p>Because every tier has its own queue, all messages of a queue share the same TTL
+ * and expire in order; no message waits behind a longer delay.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionRetryTiers {
+
+    /**
+     * Prefix of the names of the retry exchanges and queues.
+     */
+    public static final String RETRY_PREFIX = "transaction.retry.";
+
+    /**
+     * The name of the fanout exchange of the parking queue.
+     */
+    public static final String PARKING_EXCHANGE = "transaction.parking";
+
+    /**
+     * The name of the parking queue.
+     */
+    public static final String PARKING_QUEUE = "transaction.parking";
+
+    /**
+     * Header counting the retries of a message.
+     */
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    /**
+     * Number of retry tiers.
+     */
+    @Value("${transaction.retry.tiers:3}")
+    private int tiers;
+
+    /**
+     * Delay in milliseconds of the first tier.
+     */
+    @Value("${transaction.retry.initial-delay-ms:1000}")
+    private long initialDelayMs;
+
+    /**
+     * Factor between the delays of two consecutive tiers.
+     */
+    @Value("${transaction.retry.multiplier:5}")
+    private double multiplier;
+
+    /**
+     * Returns the number of retry tiers.
+     *
+     * @return The tier count.
+     */
+    public int getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Returns the delay of a tier.
+     *
+     * @param tier The tier, from 0.
+     * @return The delay in milliseconds.
+     */
+    public long delayMs(int tier) {
+        return Math.round(initialDelayMs * Math.pow(multiplier, tier));
+    }
+
+    /**
+     * Returns the name of the exchange and queue of a tier.
+     *
+     * @param tier The tier, from 0.
+     * @return The exchange and queue name.
+     */
+    public static String tierName(int tier) {
+        return RETRY_PREFIX + tier;
+    }
+}
@@ -0,0 +1,145 @@
+package dev.angryl1on.domainservice.converters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionCommandBatch;
+import dev.angryl1on.domainservice.models.commands.TransactionOperation;
+import dev.angryl1on.domainservice.models.dtos.TransactionDTO;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+
+/**
+ * AMQP {@link MessageConverter} for transaction commands.
+ *
+ * <p>Outgoing {@link TransactionCommand} and {@link TransactionCommandBatch} objects,
+ * like any other protobuf message (e.g., transaction change events), are written as
+ * binary protobuf with the {@value #PROTOBUF_CONTENT_TYPE} content type
+ * and the protobuf message name in the {@value #MESSAGE_TYPE_HEADER} header, avoiding
+ * reflection-based JSON serialization on the write path. Any other object is delegated
+ * to a {@link Jackson2JsonMessageConverter}.</p>
+ *
+ * <p>Incoming messages are decoded according to their content type: protobuf bodies
+ * are parsed into a command or a command batch according to the message type header,
+ * while JSON bodies (messages published before the switch to protobuf, which carry
+ * a {@link TransactionDTO} serialized as a JSON string) are translated into an
+ * equivalent {@link TransactionCommand}. Listeners therefore only ever deal with
+ * commands, whatever the format on the wire.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionCommandMessageConverter implements MessageConverter {
+
+    /**
+     * Content type of protobuf-encoded command messages.
+     */
+    public static final String PROTOBUF_CONTENT_TYPE = "application/x-protobuf";
+
+    /**
+     * Header naming the protobuf message type of the body.
+     */
+    public static final String MESSAGE_TYPE_HEADER = "x-protobuf-message";
+
+    /**
+     * Object mapper used to read legacy JSON messages.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Converter for objects that are not transaction commands.
+     */
+    private final Jackson2JsonMessageConverter jsonConverter = new Jackson2JsonMessageConverter();
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        if (object instanceof com.google.protobuf.Message protobuf) {
+            byte[] body = protobuf.toByteArray();
+            messageProperties.setContentType(PROTOBUF_CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            messageProperties.setHeader(MESSAGE_TYPE_HEADER, protobuf.getDescriptorForType().getFullName());
+            return new Message(body, messageProperties);
+        }
+        return jsonConverter.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        String contentType = message.getMessageProperties().getContentType();
+        if (contentType != null && contentType.startsWith(PROTOBUF_CONTENT_TYPE)) {
+            try {
+                Object messageType = message.getMessageProperties().getHeader(MESSAGE_TYPE_HEADER);
+                if (TransactionCommandBatch.getDescriptor().getFullName().equals(String.valueOf(messageType))) {
+                    return TransactionCommandBatch.parseFrom(message.getBody());
+                }
+                return TransactionCommand.parseFrom(message.getBody());
+            } catch (InvalidProtocolBufferException e) {
+                throw new MessageConversionException("Malformed protobuf transaction command", e);
+            }
+        }
+        return fromJson(message.getBody());
+    }
+
+    /**
+     * Translates a legacy JSON message into a transaction command.
+     *
+     * <p>Legacy publishers serialized the {@link TransactionDTO} to a JSON string and
+     * sent that string through a JSON converter, so the body is usually a JSON string
+     * literal wrapping the actual document. Plain JSON documents are accepted too.</p>
+     *
+     * @param body The raw message body.
+     * @return The equivalent {@link TransactionCommand}.
+     * @throws MessageConversionException If the body is not a valid transaction document.
+     */
+    private TransactionCommand fromJson(byte[] body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            if (node.isTextual()) {
+                node = objectMapper.readTree(node.asText());
+            }
+            TransactionDTO dto = objectMapper.treeToValue(node, TransactionDTO.class);
+
+            TransactionCommand.Builder command = TransactionCommand.newBuilder()
+                    .setOperation(toOperation(dto.getOperation()));
+            if (dto.getId() != null) {
+                command.setId(dto.getId());
+            }
+            if (dto.getAmount() != null) {
+                command.setAmount(dto.getAmount());
+            }
+            if (dto.getDate() != null) {
+                command.setDate(dto.getDate());
+            }
+            if (dto.getType() != null) {
+                command.setType(dto.getType());
+            }
+            return command.build();
+        } catch (IOException e) {
+            throw new MessageConversionException("Malformed JSON transaction message", e);
+        }
+    }
+
+    /**
+     * Maps a legacy operation name to its enum constant.
+     *
+     * @param operation The operation name (e.g., "CREATE").
+     * @return The matching {@link TransactionOperation}, or {@code OPERATION_UNSPECIFIED} if unknown.
+     */
+    private static TransactionOperation toOperation(String operation) {
+        if (operation == null) {
+            return TransactionOperation.OPERATION_UNSPECIFIED;
+        }
+        try {
+            return TransactionOperation.valueOf(operation);
+        } catch (IllegalArgumentException e) {
+            return TransactionOperation.OPERATION_UNSPECIFIED;
+        }
+    }
+}
@@ -8,6 +8,10 @@ package dev.angryl1on.domainservice.models.dtos;
  * It includes additional fields such as {@code operation} to extend the
  * information provided about a transaction.</p>
  *
+ * <p>Commands on the message queue are now exchanged as protobuf; this class
+ * remains the schema of the legacy JSON message format, which is still accepted
+ * by {@code TransactionCommandMessageConverter}.</p>
+ *
  * <p>The class includes constructors for flexibility in initialization and
  * getter and setter methods for field access and modification.</p>
  *
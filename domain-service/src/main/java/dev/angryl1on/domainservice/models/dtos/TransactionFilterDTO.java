@@ -0,0 +1,125 @@
+package dev.angryl1on.domainservice.models.dtos;
+
+/**
+ * Data Transfer Object (DTO) describing which transactions to read.
+ *
+ * <p>The {@code TransactionFilterDTO} class carries optional server-side filters
+ * (date range, type and amount range) together with a keyset cursor. Results are
+ * always ordered by date and then by ID, so the cursor is simply the date and ID of
+ * the last transaction of the previous page.</p>
+ *
+ * <p>Every field is optional; a {@code null} value means the corresponding filter
+ * is not applied.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionFilterDTO {
+
+    /**
+     * Inclusive lower bound of the transaction date ("YYYY-MM-DD").
+     */
+    private String dateFrom;
+
+    /**
+     * Inclusive upper bound of the transaction date ("YYYY-MM-DD").
+     */
+    private String dateTo;
+
+    /**
+     * The exact transaction type to match (e.g., "credit", "debit").
+     */
+    private String type;
+
+    /**
+     * Inclusive lower bound of the transaction amount.
+     */
+    private Double amountMin;
+
+    /**
+     * Inclusive upper bound of the transaction amount.
+     */
+    private Double amountMax;
+
+    /**
+     * Date of the last transaction of the previous page.
+     */
+    private String afterDate;
+
+    /**
+     * ID of the last transaction of the previous page.
+     */
+    private String afterId;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionFilterDTO() {
+    }
+
+    /**
+     * Checks whether a keyset cursor has been set.
+     *
+     * @return {@code true} if results should start after a previous page.
+     */
+    public boolean hasCursor() {
+        return afterDate != null && afterId != null;
+    }
+
+    public String getDateFrom() {
+        return dateFrom;
+    }
+
+    public void setDateFrom(String dateFrom) {
+        this.dateFrom = dateFrom;
+    }
+
+    public String getDateTo() {
+        return dateTo;
+    }
+
+    public void setDateTo(String dateTo) {
+        this.dateTo = dateTo;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Double getAmountMin() {
+        return amountMin;
+    }
+
+    public void setAmountMin(Double amountMin) {
+        this.amountMin = amountMin;
+    }
+
+    public Double getAmountMax() {
+        return amountMax;
+    }
+
+    public void setAmountMax(Double amountMax) {
+        this.amountMax = amountMax;
+    }
+
+    public String getAfterDate() {
+        return afterDate;
+    }
+
+    public void setAfterDate(String afterDate) {
+        this.afterDate = afterDate;
+    }
+
+    public String getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(String afterId) {
+        this.afterId = afterId;
+    }
+}
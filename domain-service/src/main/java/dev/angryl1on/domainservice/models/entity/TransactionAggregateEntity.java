@@ -0,0 +1,122 @@
+package dev.angryl1on.domainservice.models.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Represents the rollup of the transactions of one type on one day, stored in the
+ * "transaction_aggregates" collection in MongoDB.
+ *
+ * <p>Each document holds the number and the total amount of the stored transactions
+ * with the given {@code date} and {@code type}. Documents are kept up to date
+ * incrementally by every committed write, so that sums and counts can be read without
+ * scanning the transaction collection. The document ID is {@code "<date>|<type>"}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Document(collection = "transaction_aggregates")
+@CompoundIndex(name = "date_type_idx", def = "{'date': 1, 'type': 1}")
+public class TransactionAggregateEntity {
+
+    /**
+     * The document ID, {@code "<date>|<type>"}.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The date of the aggregated transactions (e.g., "YYYY-MM-DD").
+     */
+    private String date;
+
+    /**
+     * The type of the aggregated transactions.
+     */
+    private String type;
+
+    /**
+     * The number of aggregated transactions.
+     */
+    private long count;
+
+    /**
+     * The sum of the amounts of the aggregated transactions.
+     */
+    private double total;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionAggregateEntity() {
+    }
+
+    /**
+     * Constructor for initializing all fields of the aggregate.
+     *
+     * @param date  The date of the aggregated transactions.
+     * @param type  The type of the aggregated transactions.
+     * @param count The number of aggregated transactions.
+     * @param total The sum of their amounts.
+     */
+    public TransactionAggregateEntity(String date, String type, long count, double total) {
+        this.id = idOf(date, type);
+        this.date = date;
+        this.type = type;
+        this.count = count;
+        this.total = total;
+    }
+
+    /**
+     * Builds the document ID of a date and type.
+     *
+     * @param date The date.
+     * @param type The type.
+     * @return The document ID.
+     */
+    public static String idOf(String date, String type) {
+        return date + "|" + type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,55 @@
+package dev.angryl1on.domainservice.models.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Represents a date whose rollups may be out of date, stored in the
+ * "transaction_dirty_dates" collection in MongoDB.
+ *
+ * <p>Every bulk write marks the dates of the transactions it changes, before and after
+ * the change, before it is executed, so that a delta lost after the write can still be
+ * found: the reconciliation of the rollups only compares the marked dates with the
+ * transactions. Each mark increments {@code version}; a date is unmarked once it has
+ * been reconciled and not marked again. The document ID is the date.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Document(collection = "transaction_dirty_dates")
+public class TransactionDirtyDateEntity {
+
+    /**
+     * The date (e.g., "YYYY-MM-DD").
+     */
+    @Id
+    private String id;
+
+    /**
+     * The number of times the date was marked.
+     */
+    private long version;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionDirtyDateEntity() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -1,6 +1,8 @@
 package dev.angryl1on.domainservice.models.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -9,7 +11,12 @@ import org.springframework.data.mongodb.core.mapping.Document;
  *
  * <p>This class is annotated with {@link org.springframework.data.mongodb.core.mapping.Document}
  * to indicate its mapping to a MongoDB document. Each instance represents a single
- * transaction record, with fields for transaction ID, amount, date, and type.</p>
+ * transaction record, with fields for transaction ID, amount, date, type, and the
+ * version incremented by every write.</p>
+ *
+ * <p>The compound indexes back the keyset-paginated list queries, which are always
+ * ordered by {@code date} and then by {@code _id}: one serves unfiltered and
+ * date-range reads, the other serves reads filtered by {@code type}.</p>
  *
  * <p>The class includes constructors for initialization, as well as
  * getter and setter methods for field access and modification.</p>
@@ -19,6 +26,10 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * @since 1.0
  */
 @Document(collection = "transactions")
+@CompoundIndexes({
+        @CompoundIndex(name = "date_id_idx", def = "{'date': 1, '_id': 1}"),
+        @CompoundIndex(name = "type_date_id_idx", def = "{'type': 1, 'date': 1, '_id': 1}")
+})
 public class TransactionEntity {
 
     /**
@@ -45,6 +56,19 @@ public class TransactionEntity {
      */
     private String type;
 
+    /**
+     * Number of committed writes of the transaction, starting at 1 on creation.
+     * Documents written before versioning was introduced have no version.
+     */
+    private Long version;
+
+    /**
+     * Sequence of the last command written to the transaction, assigned by the command
+     * publisher from the transaction's counter. Older or replayed commands are not applied over it. Documents written
+     * before sequencing was introduced have none.
+     */
+    private Long lastSequence;
+
     /**
      * Default no-argument constructor.
      */
@@ -111,4 +135,20 @@ public class TransactionEntity {
     public void setType(String type) {
         this.type = type;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(Long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
 }
@@ -0,0 +1,83 @@
+package dev.angryl1on.domainservice.models.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Represents a lease on a periodic task, stored in the "transaction_locks" collection
+ * in MongoDB.
+ *
+ * <p>A task that must only run on one instance at a time, such as the reconciliation of
+ * the rollups, is run by the instance holding its lease. An instance takes the lease
+ * when it is free or has expired, and renews it at every run; if the holder stops, the
+ * lease expires and another instance takes over. The document also records when the
+ * task last completed. The document ID is the name of the task.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Document(collection = "transaction_locks")
+public class TransactionLockEntity {
+
+    /**
+     * The name of the task.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the instance holding the lease.
+     */
+    private String owner;
+
+    /**
+     * The time at which the lease expires unless renewed.
+     */
+    private Date expiresAt;
+
+    /**
+     * The time at which the task last completed, or {@code null} if it never did.
+     */
+    private Date completedAt;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionLockEntity() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+}
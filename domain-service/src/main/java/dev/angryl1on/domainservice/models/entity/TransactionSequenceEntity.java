@@ -0,0 +1,55 @@
+package dev.angryl1on.domainservice.models.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Represents the command counter of one transaction, stored in the
+ * "transaction_sequences" collection in MongoDB.
+ *
+ * <p>The command publisher increments the counter of a transaction for every UPDATE,
+ * PATCH and DELETE it publishes on it, and derives the command's {@code sequence} from
+ * the new value. The increment is atomic on the MongoDB server, so the sequences of a
+ * transaction increase in publication order whichever instance publishes the commands.
+ * The document ID is the transaction ID.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Document(collection = "transaction_sequences")
+public class TransactionSequenceEntity {
+
+    /**
+     * The ID of the transaction.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The number of sequenced commands published on the transaction.
+     */
+    private long value;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionSequenceEntity() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.angryl1on.domainservice.models.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Represents the record of a deleted transaction, stored in the
+ * "transaction_tombstones" collection in MongoDB.
+ *
+ * <p>A DELETE removes the transaction document, so nothing in the transaction collection
+ * remembers it. The tombstone keeps the sequence of the DELETE, and a CREATE of the same
+ * ID that is not newer, such as one redelivered from a retry tier or the parking queue,
+ * is then skipped instead of bringing the transaction back. Tombstones expire 30 days
+ * after the delete. The document ID is the transaction ID.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Document(collection = "transaction_tombstones")
+public class TransactionTombstoneEntity {
+
+    /**
+     * The ID of the deleted transaction.
+     */
+    @Id
+    private String id;
+
+    /**
+     * Sequence of the last DELETE applied to the transaction, or {@code 0} for a legacy
+     * command without one.
+     */
+    private long lastSequence;
+
+    /**
+     * The time of the last delete, from which the tombstone expires.
+     */
+    @Indexed(name = "deleted_at_ttl_idx", expireAfter = "30d")
+    private Date deletedAt;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionTombstoneEntity() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -19,7 +19,8 @@ import org.springframework.stereotype.Repository;
  *   <li>{@code findAll} - Retrieve all entities.</li>
  *   <li>{@code deleteById} - Delete an entity by its ID.</li>
  * </ul>
- * Additional custom query methods can be added as needed.</p>
+ * Filtered, keyset-paginated and streaming queries are provided by the
+ * {@link TransactionRepositoryCustom} fragment.</p>
  *
  * <p>Usage of this repository assumes a properly configured MongoDB connection
  * in the application.</p>
@@ -29,5 +30,5 @@ import org.springframework.stereotype.Repository;
  * @since 1.0
  */
 @Repository
-public interface TransactionRepository extends MongoRepository<TransactionEntity, String> {
+public interface TransactionRepository extends MongoRepository<TransactionEntity, String>, TransactionRepositoryCustom {
 }
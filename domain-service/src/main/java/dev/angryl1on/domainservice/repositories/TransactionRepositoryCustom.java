@@ -0,0 +1,42 @@
+package dev.angryl1on.domainservice.repositories;
+
+import dev.angryl1on.domainservice.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Custom query fragment of {@link TransactionRepository}.
+ *
+ * <p>These queries combine optional filters with keyset pagination and therefore
+ * cannot be expressed as derived query methods. All results are ordered by
+ * {@code date} and then by {@code _id}, matching the compound indexes declared on
+ * {@link TransactionEntity}, so a page fetch only touches the documents it returns.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Retrieves one page of transactions matching the filter.
+     *
+     * @param filter The filters and keyset cursor to apply.
+     * @param limit  The maximum number of transactions to return.
+     * @return Up to {@code limit} transactions ordered by date and ID.
+     */
+    List<TransactionEntity> findPage(TransactionFilterDTO filter, int limit);
+
+    /**
+     * Opens a cursor over all transactions matching the filter.
+     *
+     * <p>Documents are pulled from the server in chunks while the stream is consumed.
+     * The returned stream holds an open cursor and must be closed by the caller.</p>
+     *
+     * @param filter The filters to apply.
+     * @return A lazily populated {@link Stream} of transactions ordered by date and ID.
+     */
+    Stream<TransactionEntity> streamMatching(TransactionFilterDTO filter);
+}
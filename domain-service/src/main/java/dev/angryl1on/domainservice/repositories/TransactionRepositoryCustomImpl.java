@@ -0,0 +1,114 @@
+package dev.angryl1on.domainservice.repositories;
+
+import dev.angryl1on.domainservice.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link MongoTemplate}-based implementation of {@link TransactionRepositoryCustom}.
+ *
+ * <p>Keyset pagination is implemented as a range condition on the
+ * {@code (date, _id)} sort key instead of a skip offset, so fetching a deep page
+ * costs the same as fetching the first one.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    /**
+     * Number of documents fetched from MongoDB per cursor round trip when streaming.
+     */
+    private static final int STREAM_CURSOR_BATCH_SIZE = 500;
+
+    /**
+     * Sort order shared by all queries; must stay aligned with the indexes on {@link TransactionEntity}.
+     */
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.ASC, "date", "id");
+
+    /**
+     * Template used to execute the criteria queries.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs the fragment with the provided template.
+     *
+     * @param mongoTemplate The template to use for database operations.
+     */
+    @Autowired
+    public TransactionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<TransactionEntity> findPage(TransactionFilterDTO filter, int limit) {
+        Query query = new Query(toCriteria(filter, true))
+                .with(KEYSET_SORT)
+                .limit(limit);
+        return mongoTemplate.find(query, TransactionEntity.class);
+    }
+
+    @Override
+    public Stream<TransactionEntity> streamMatching(TransactionFilterDTO filter) {
+        Query query = new Query(toCriteria(filter, false))
+                .with(KEYSET_SORT)
+                .cursorBatchSize(STREAM_CURSOR_BATCH_SIZE);
+        return mongoTemplate.stream(query, TransactionEntity.class);
+    }
+
+    /**
+     * Translates the filter into MongoDB criteria.
+     *
+     * @param filter      The filters to apply.
+     * @param applyCursor Whether the keyset cursor of the filter should be applied.
+     * @return The combined {@link Criteria}.
+     */
+    private Criteria toCriteria(TransactionFilterDTO filter, boolean applyCursor) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (filter.getType() != null) {
+            criteria.add(Criteria.where("type").is(filter.getType()));
+        }
+        if (filter.getDateFrom() != null || filter.getDateTo() != null) {
+            Criteria date = Criteria.where("date");
+            if (filter.getDateFrom() != null) {
+                date = date.gte(filter.getDateFrom());
+            }
+            if (filter.getDateTo() != null) {
+                date = date.lte(filter.getDateTo());
+            }
+            criteria.add(date);
+        }
+        if (filter.getAmountMin() != null || filter.getAmountMax() != null) {
+            Criteria amount = Criteria.where("amount");
+            if (filter.getAmountMin() != null) {
+                amount = amount.gte(filter.getAmountMin());
+            }
+            if (filter.getAmountMax() != null) {
+                amount = amount.lte(filter.getAmountMax());
+            }
+            criteria.add(amount);
+        }
+        if (applyCursor && filter.hasCursor()) {
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("date").gt(filter.getAfterDate()),
+                    new Criteria().andOperator(
+                            Criteria.where("date").is(filter.getAfterDate()),
+                            Criteria.where("id").gt(filter.getAfterId())
+                    )
+            ));
+        }
+
+        return criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria);
+    }
+}
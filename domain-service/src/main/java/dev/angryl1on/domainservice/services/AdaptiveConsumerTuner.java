@@ -0,0 +1,404 @@
+package dev.angryl1on.domainservice.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically resizes the prefetch window of the transaction command consumers.
+ *
+ * <p>Every {@code transaction.consumer.adaptive.interval-ms}, the tuner measures, for
+ * each queue consumer registered by the listeners, the queue depth, the mean consumer
+ * lag of the messages delivered since the last round, and the mean MongoDB bulk write
+ * time of the round. It then decides:
+ * <ul>
+ *   <li><b>down</b>, halving the prefetch, when writes are slower than
+ *       {@code max-write-latency-ms}: MongoDB is saturated and larger windows would only
+ *       queue more work in memory;</li>
+ *   <li><b>up</b>, doubling the prefetch, when the queue holds more than
+ *       {@code backlog-windows} prefetch windows or the lag exceeds
+ *       {@code target-lag-ms}: larger windows mean larger bulk writes and fewer round
+ *       trips;</li>
+ *   <li><b>down</b> when the queue is empty and the lag is well under target, to give
+ *       the buffered memory back;</li>
+ *   <li><b>hold</b> otherwise.</li>
+ * </ul>
+ * The prefetch stays between {@code min-prefetch} and {@code max-prefetch}. With batch
+ * listeners, the batch size follows the prefetch. A container is restarted to apply a
+ * new window; unacknowledged messages return to the head of its queue.</p>
+ *
+ * <p>Since every restart redelivers the unacknowledged window, a change is applied
+ * only when it is worth one:
+ * <ul>
+ *   <li>the same direction must be decided in {@code stable-rounds} consecutive rounds,
+ *       so that a single burst or quiet round does not resize the window; a saturated
+ *       MongoDB lowers it at once;</li>
+ *   <li>at least {@code min-restart-interval-ms} must have passed since the previous
+ *       restart of the container;</li>
+ *   <li>the window must change by at least {@code min-change-ratio} of its size, which
+ *       skips the small steps left when a bound is reached.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>The number of consumers per queue is not tuned: partition queues have exactly one
+ * consumer, which is what keeps the commands of a transaction in order, and throughput
+ * scales with the partition count instead.</p>
+ *
+ * <p>Metrics, tagged by queue: {@code transaction.consumer.prefetch} and
+ * {@code transaction.consumer.queue.depth} gauges, and the
+ * {@code transaction.consumer.tuning.decisions} counter, additionally tagged with the
+ * decision ({@code up}, {@code down}, {@code hold}).</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.consumer.adaptive.enabled", havingValue = "true")
+public class AdaptiveConsumerTuner {
+
+    /**
+     * Logger for logging tuning decisions.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConsumerTuner.class);
+
+    /**
+     * Prefix of the IDs of the listener containers consuming transaction commands.
+     */
+    private static final String CONTAINER_ID_PREFIX = "transaction-";
+
+    /**
+     * Registry of the listener containers.
+     */
+    private final RabbitListenerEndpointRegistry containerRegistry;
+
+    /**
+     * Admin used to read queue depths.
+     */
+    private final AmqpAdmin amqpAdmin;
+
+    /**
+     * Measurements of the consumers.
+     */
+    private final TransactionConsumerMetrics consumerMetrics;
+
+    /**
+     * Registry of the tuning metrics.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Time in milliseconds between two tuning rounds.
+     */
+    @Value("${transaction.consumer.adaptive.interval-ms:10000}")
+    private long intervalMs;
+
+    /**
+     * Smallest prefetch window.
+     */
+    @Value("${transaction.consumer.adaptive.min-prefetch:50}")
+    private int minPrefetch;
+
+    /**
+     * Largest prefetch window.
+     */
+    @Value("${transaction.consumer.adaptive.max-prefetch:2000}")
+    private int maxPrefetch;
+
+    /**
+     * Number of prefetch windows of backlog that triggers a larger window.
+     */
+    @Value("${transaction.consumer.adaptive.backlog-windows:2}")
+    private int backlogWindows;
+
+    /**
+     * Consumer lag in milliseconds above which the window is enlarged.
+     */
+    @Value("${transaction.consumer.adaptive.target-lag-ms:1000}")
+    private double targetLagMs;
+
+    /**
+     * Mean bulk write time in milliseconds above which the window is reduced.
+     */
+    @Value("${transaction.consumer.adaptive.max-write-latency-ms:500}")
+    private double maxWriteLatencyMs;
+
+    /**
+     * Number of consecutive rounds that must decide the same direction before it is applied.
+     */
+    @Value("${transaction.consumer.adaptive.stable-rounds:2}")
+    private int stableRounds;
+
+    /**
+     * Minimum time in milliseconds between two restarts of a container.
+     */
+    @Value("${transaction.consumer.adaptive.min-restart-interval-ms:60000}")
+    private long minRestartIntervalMs;
+
+    /**
+     * Smallest relative change of the window worth a restart.
+     */
+    @Value("${transaction.consumer.adaptive.min-change-ratio:0.25}")
+    private double minChangeRatio;
+
+    /**
+     * Initial prefetch window of the batch listener containers.
+     */
+    @Value("${transaction.listener.batch.size:500}")
+    private int batchSize;
+
+    /**
+     * Initial prefetch window of the per-message listener containers.
+     */
+    @Value("${spring.rabbitmq.listener.simple.prefetch:250}")
+    private int simplePrefetch;
+
+    /**
+     * Whether the containers deliver messages in batches.
+     */
+    @Value("${transaction.listener.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    /**
+     * Tuning state of every container, by container ID.
+     */
+    private final Map<String, ConsumerState> states = new LinkedHashMap<>();
+
+    /**
+     * Number of bulk writes recorded at the previous round.
+     */
+    private long lastWriteCount;
+
+    /**
+     * Total bulk write time in milliseconds recorded at the previous round.
+     */
+    private double lastWriteTotalMs;
+
+    /**
+     * Timer running the tuning rounds.
+     */
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-consumer-tuner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs the {@code AdaptiveConsumerTuner}.
+     *
+     * @param containerRegistry The registry of the listener containers.
+     * @param amqpAdmin         The admin used to read queue depths.
+     * @param consumerMetrics   The measurements of the consumers.
+     * @param meterRegistry     The registry of the tuning metrics.
+     */
+    @Autowired
+    public AdaptiveConsumerTuner(RabbitListenerEndpointRegistry containerRegistry,
+                                 AmqpAdmin amqpAdmin,
+                                 TransactionConsumerMetrics consumerMetrics,
+                                 MeterRegistry meterRegistry) {
+        this.containerRegistry = containerRegistry;
+        this.amqpAdmin = amqpAdmin;
+        this.consumerMetrics = consumerMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts the tuning rounds once the listener containers are running.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::tuneSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the tuning rounds.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs a tuning round, logging its failures so that the next round still runs.
+     */
+    private void tuneSafely() {
+        try {
+            tune();
+        } catch (RuntimeException e) {
+            logger.warn("Consumer tuning round failed", e);
+        }
+    }
+
+    /**
+     * Measures every consumer and applies the decisions.
+     */
+    private void tune() {
+        Timer writes = consumerMetrics.getWriteDuration();
+        long writeCount = writes.count();
+        double writeTotalMs = writes.totalTime(TimeUnit.MILLISECONDS);
+        double writeLatencyMs = writeCount > lastWriteCount
+                ? (writeTotalMs - lastWriteTotalMs) / (writeCount - lastWriteCount)
+                : 0;
+        lastWriteCount = writeCount;
+        lastWriteTotalMs = writeTotalMs;
+
+        for (String id : containerRegistry.getListenerContainerIds()) {
+            MessageListenerContainer listenerContainer = containerRegistry.getListenerContainer(id);
+            if (!id.startsWith(CONTAINER_ID_PREFIX)
+                    || !(listenerContainer instanceof SimpleMessageListenerContainer container)
+                    || !container.isRunning()) {
+                continue;
+            }
+            ConsumerState state = states.computeIfAbsent(id, ignored -> register(container));
+
+            QueueInformation queue = amqpAdmin.getQueueInfo(state.queue);
+            long depth = queue != null ? queue.getMessageCount() : 0;
+            state.depth.set(depth);
+
+            Timer lagTimer = consumerMetrics.getConsumerLag(state.queue);
+            long lagCount = lagTimer.count();
+            double lagTotalMs = lagTimer.totalTime(TimeUnit.MILLISECONDS);
+            double lagMs = lagCount > state.lastLagCount
+                    ? (lagTotalMs - state.lastLagTotalMs) / (lagCount - state.lastLagCount)
+                    : 0;
+            state.lastLagCount = lagCount;
+            state.lastLagTotalMs = lagTotalMs;
+
+            int current = state.prefetch.get();
+            int next = decide(current, depth, lagMs, writeLatencyMs);
+            int direction = Integer.signum(next - current);
+            state.streak = direction != 0 && direction == state.direction ? state.streak + 1 : 1;
+            state.direction = direction;
+
+            boolean saturated = writeLatencyMs > maxWriteLatencyMs;
+            long now = System.nanoTime();
+            boolean apply = direction != 0
+                    && (saturated || state.streak >= stableRounds)
+                    && now - state.lastRestartNanos >= TimeUnit.MILLISECONDS.toNanos(minRestartIntervalMs)
+                    && Math.abs(next - current) >= current * minChangeRatio;
+            String decision = !apply ? "hold" : direction > 0 ? "up" : "down";
+            meterRegistry.counter("transaction.consumer.tuning.decisions", "queue", state.queue, "decision", decision)
+                    .increment();
+            if (apply) {
+                logger.info("Consumer of {}: prefetch {} -> {} (depth={}, lag={} ms, write={} ms)",
+                        state.queue, current, next, depth, Math.round(lagMs), Math.round(writeLatencyMs));
+                apply(container, next);
+                state.prefetch.set(next);
+                state.lastRestartNanos = now;
+                state.streak = 0;
+            }
+        }
+    }
+
+    /**
+     * Computes the next prefetch window of a consumer.
+     *
+     * @param current        The current window.
+     * @param depth          The number of messages ready in the queue.
+     * @param lagMs          The mean consumer lag of the round.
+     * @param writeLatencyMs The mean bulk write time of the round.
+     * @return The next window, within the configured bounds.
+     */
+    private int decide(int current, long depth, double lagMs, double writeLatencyMs) {
+        int next = current;
+        if (writeLatencyMs > maxWriteLatencyMs) {
+            next = current / 2;
+        } else if (depth > (long) current * backlogWindows || lagMs > targetLagMs) {
+            next = current * 2;
+        } else if (depth == 0 && lagMs < targetLagMs / 4) {
+            next = current / 2;
+        }
+        return Math.max(minPrefetch, Math.min(maxPrefetch, next));
+    }
+
+    /**
+     * Applies a prefetch window to a container and restarts it.
+     */
+    private void apply(SimpleMessageListenerContainer container, int prefetch) {
+        container.setPrefetchCount(prefetch);
+        if (batchEnabled) {
+            container.setBatchSize(prefetch);
+        }
+        container.stop();
+        container.start();
+    }
+
+    /**
+     * Starts tracking a container, bringing its window within bounds, and registers its gauges.
+     */
+    private ConsumerState register(SimpleMessageListenerContainer container) {
+        int initial = Math.max(minPrefetch, Math.min(maxPrefetch, batchEnabled ? batchSize : simplePrefetch));
+        ConsumerState state = new ConsumerState(container.getQueueNames()[0], initial);
+        Gauge.builder("transaction.consumer.prefetch", state.prefetch, AtomicInteger::get)
+                .description("Current prefetch window of the transaction command consumer")
+                .tag("queue", state.queue)
+                .register(meterRegistry);
+        Gauge.builder("transaction.consumer.queue.depth", state.depth, AtomicLong::get)
+                .description("Messages ready in the transaction command queue")
+                .tag("queue", state.queue)
+                .register(meterRegistry);
+        if (initial != (batchEnabled ? batchSize : simplePrefetch)) {
+            apply(container, initial);
+        }
+        return state;
+    }
+
+    /**
+     * Tuning state of one container.
+     */
+    private static final class ConsumerState {
+
+        private final String queue;
+
+        private final AtomicInteger prefetch;
+
+        private final AtomicLong depth = new AtomicLong();
+
+        private long lastLagCount;
+
+        private double lastLagTotalMs;
+
+        /**
+         * Direction decided by the previous round: -1, 0 or 1.
+         */
+        private int direction;
+
+        /**
+         * Number of consecutive rounds that decided {@link #direction}.
+         */
+        private int streak;
+
+        /**
+         * {@link System#nanoTime()} of the last restart of the container.
+         */
+        private long lastRestartNanos;
+
+        private ConsumerState(String queue, int prefetch) {
+            this.queue = queue;
+            this.prefetch = new AtomicInteger(prefetch);
+            this.lastRestartNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package dev.angryl1on.domainservice.services;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import dev.angryl1on.domainservice.configs.TransactionRetryTiers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves transaction command messages that failed to apply out of their queue.
+ *
+ * <p>Failures are classified:
+ * <ul>
+ *   <li>{@code malformed}: the message could not be decoded. It can never succeed and
+ *       is parked at once.</li>
+ *   <li>{@code transient}: MongoDB was unreachable, timed out or reported a transient
+ *       error. The message is republished to the next retry tier (see
+ *       {@link TransactionRetryTiers}), which returns it to its queue after the tier's
+ *       delay; once all tiers are used up, it is parked.</li>
+ *   <li>{@code permanent}: any other error. Retrying would fail the same way, so the
+ *       message is parked.</li>
+ * </ul>
+ * Either way the message leaves the hot queue immediately and the consumer moves on,
+ * so a failing message never blocks the messages behind it. Parked messages carry the
+ * failure class and error in headers. The failed messages of a delivery are moved
+ * together: the listener acknowledges them only after the broker has confirmed every
+ * copy; otherwise the error is rethrown so that they are all requeued rather than lost.</p>
+ *
+ * <p>A retried command returns to its queue after newer commands on the same
+ * transaction may have been applied. The publisher's sequence, checked by the
+ * {@link TransactionWriteService}, keeps it from overwriting them.</p>
+ *
+ * <p>Every handled failure increments {@code transaction.consumer.failures}, tagged with
+ * the failure class and the outcome ({@code retried} or {@code parked}).</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class FailedCommandHandler {
+
+    /**
+     * Logger for logging failed messages.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FailedCommandHandler.class);
+
+    /**
+     * Header carrying the failure class of a parked message.
+     */
+    public static final String FAILURE_CLASS_HEADER = "x-failure-class";
+
+    /**
+     * Header carrying the error of a parked message.
+     */
+    public static final String FAILURE_REASON_HEADER = "x-failure-reason";
+
+    /**
+     * Maximum length of the error stored in a parked message.
+     */
+    private static final int MAX_REASON_LENGTH = 1000;
+
+    /**
+     * RabbitMQ template used to republish the messages.
+     */
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * The delay tiers of the retry pipeline.
+     */
+    private final TransactionRetryTiers retryTiers;
+
+    /**
+     * Registry of the failure counters.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Maximum time in milliseconds to wait for the confirm of a republished message.
+     */
+    @Value("${transaction.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    /**
+     * Constructs the {@code FailedCommandHandler}.
+     *
+     * @param rabbitTemplate The RabbitMQ template used to republish the messages.
+     * @param retryTiers     The delay tiers of the retry pipeline.
+     * @param meterRegistry  The registry of the failure counters.
+     */
+    @Autowired
+    public FailedCommandHandler(RabbitTemplate rabbitTemplate,
+                                TransactionRetryTiers retryTiers,
+                                MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryTiers = retryTiers;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Parks a message that could not be decoded.
+     *
+     * @param message The message.
+     * @param error   The decoding error.
+     * @throws AmqpException If the message could not be moved; it must then be requeued.
+     */
+    public void malformed(Message message, Exception error) {
+        moveAll(List.of(parking(message, "malformed", error)), error);
+    }
+
+    /**
+     * Retries or parks messages whose commands failed to apply.
+     *
+     * <p>All messages are published to their destination first, and the method returns
+     * only once the broker has confirmed every one of them. If any is not confirmed, it
+     * throws and the listener requeues the whole set: copies already confirmed are then
+     * delivered a second time, and the sequence guard of the {@link TransactionWriteService}
+     * turns them into no-ops.</p>
+     *
+     * @param messages The messages of the failed write.
+     * @param error    The error of the write.
+     * @throws AmqpException If a message could not be moved; they must then be requeued.
+     */
+    public void failed(List<Message> messages, Exception error) {
+        boolean transientError = isTransient(error);
+        List<Move> moves = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            int retries = retryCount(message);
+            if (!transientError) {
+                moves.add(parking(message, "permanent", error));
+            } else if (retries >= retryTiers.getTiers()) {
+                moves.add(parking(message, "transient", error));
+            } else {
+                message.getMessageProperties().setHeader(TransactionRetryTiers.RETRY_COUNT_HEADER, retries + 1);
+                moves.add(new Move(message, TransactionRetryTiers.tierName(retries), "transient", "retried"));
+            }
+        }
+        moveAll(moves, error);
+    }
+
+    /**
+     * Tells whether an error may go away on retry.
+     *
+     * @param error The error.
+     * @return {@code true} for connectivity, timeout and transient MongoDB errors.
+     */
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof MongoSocketException
+                    || cause instanceof MongoTimeoutException
+                    || (cause instanceof MongoException mongoError
+                    && (mongoError.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)
+                    || mongoError.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prepares the move of a message to the parking queue, tagging it with the failure.
+     */
+    private static Move parking(Message message, String failureClass, Exception error) {
+        MessageProperties properties = message.getMessageProperties();
+        String reason = String.valueOf(error);
+        properties.setHeader(FAILURE_CLASS_HEADER, failureClass);
+        properties.setHeader(FAILURE_REASON_HEADER,
+                reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason);
+        return new Move(message, TransactionRetryTiers.PARKING_EXCHANGE, failureClass, "parked");
+    }
+
+    /**
+     * Publishes copies of messages to their fanout exchanges, keeping their routing keys,
+     * and waits for the broker to confirm all of them before counting and logging the moves.
+     *
+     * @throws AmqpException If any message is not confirmed in time.
+     */
+    private void moveAll(List<Move> moves, Exception error) {
+        List<CorrelationData> correlations = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+            rabbitTemplate.send(move.exchange(), move.message().getMessageProperties().getReceivedRoutingKey(),
+                    move.message(), correlation);
+            correlations.add(correlation);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        try {
+            for (int index = 0; index < moves.size(); index++) {
+                CorrelationData correlation = correlations.get(index);
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+                if (!confirm.isAck() || correlation.getReturned() != null) {
+                    throw new AmqpException("Failed to move message to " + moves.get(index).exchange());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while moving " + moves.size() + " messages", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("Failed to move " + moves.size() + " messages", e);
+        }
+
+        for (Move move : moves) {
+            meterRegistry.counter("transaction.consumer.failures",
+                    "class", move.failureClass(), "outcome", move.outcome()).increment();
+            String queue = move.message().getMessageProperties().getConsumerQueue();
+            if ("parked".equals(move.outcome())) {
+                logger.error("Parked {} message from {}", move.failureClass(), queue, error);
+            } else {
+                logger.warn("Retrying message from {} through {}: {}", queue, move.exchange(), error.toString());
+            }
+        }
+    }
+
+    /**
+     * Reads the number of retries of a message.
+     */
+    private static int retryCount(Message message) {
+        Object count = message.getMessageProperties().getHeader(TransactionRetryTiers.RETRY_COUNT_HEADER);
+        return count instanceof Number number ? number.intValue() : 0;
+    }
+
+    /**
+     * A message to publish to a retry tier or to the parking queue.
+     *
+     * @param message      The message.
+     * @param exchange     The exchange of the destination.
+     * @param failureClass The failure class of the message.
+     * @param outcome      {@code retried} or {@code parked}.
+     */
+    private record Move(Message message, String exchange, String failureClass, String outcome) {
+    }
+}
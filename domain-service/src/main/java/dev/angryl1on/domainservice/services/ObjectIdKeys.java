@@ -0,0 +1,69 @@
+package dev.angryl1on.domainservice.services;
+
+import java.util.HexFormat;
+
+/**
+ * Helpers keying in-memory tables by the 12 bytes of a transaction's ObjectId, held as
+ * three {@code int}s, rather than by its 24-character hexadecimal string.
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+final class ObjectIdKeys {
+
+    private ObjectIdKeys() {
+    }
+
+    /**
+     * Tells whether an ID is the hexadecimal form of an ObjectId.
+     *
+     * @param id The ID.
+     * @return {@code true} for 24 lowercase hexadecimal digits.
+     */
+    static boolean isObjectId(String id) {
+        if (id == null || id.length() != 24) {
+            return false;
+        }
+        for (int i = 0; i < 24; i++) {
+            char c = id.charAt(i);
+            if (c > 'f' || Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads one of the three key words of an ObjectId.
+     *
+     * @param id   The ObjectId, in hexadecimal.
+     * @param word The index of the word, from 0 to 2.
+     * @return The word.
+     */
+    static int word(String id, int word) {
+        return Integer.parseUnsignedInt(id, word * 8, word * 8 + 8, 16);
+    }
+
+    /**
+     * Formats key words back into the hexadecimal ObjectId.
+     */
+    static String toHex(int k0, int k1, int k2) {
+        HexFormat hex = HexFormat.of();
+        return hex.toHexDigits(k0) + hex.toHexDigits(k1) + hex.toHexDigits(k2);
+    }
+
+    /**
+     * Hashes key words for an open-addressing table.
+     */
+    static int hash(int k0, int k1, int k2) {
+        int hash = (k0 * 31 + k1) * 31 + k2;
+        // The counter bytes of an ObjectId are in k2, so mixing spreads sequential IDs
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
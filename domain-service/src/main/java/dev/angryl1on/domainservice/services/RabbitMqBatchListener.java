@@ -0,0 +1,174 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
+import dev.angryl1on.domainservice.configs.TransactionPartitions;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionCommandBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RabbitMQ Listener consuming the transaction queue in batches.
+ *
+ * <p>This listener is active when {@code transaction.listener.batch.enabled} is
+ * {@code true} and replaces {@link RabbitMqListener}. The container configured by
+ * {@link RabbitMqConfiguration#batchListenerContainerFactory} delivers up to
+ * {@code transaction.listener.batch.size} messages at once; they are decoded into
+ * {@link TransactionCommand}s and handed to {@link TransactionWriteService} as a
+ * single batch, which writes them with unordered MongoDB bulk operations while
+ * preserving the order of operations on the same transaction ID. All messages of a batch are acknowledged together once the
+ * listener returns.</p>
+ *
+ * <p>Every consumed partition queue (see {@link TransactionPartitions}), and the legacy
+ * queue {@link RabbitMqConfiguration#TRANSACTION_QUEUE}, gets its own single-consumer
+ * batch container, so the batches of a partition are applied one after another while
+ * the partitions are applied in parallel.</p>
+ *
+ * <p>Failed messages are handed to the {@link FailedCommandHandler}: a message that
+ * cannot be decoded is parked on its own, and when the batch fails to apply, every
+ * message of the batch is moved to a retry tier or to the parking queue. Replaying the
+ * commands of the batch that did apply leaves the same state: CREATE only inserts an
+ * absent ID, DELETE is idempotent, and UPDATE and PATCH are skipped once their
+ * transaction holds their sequence (see {@link TransactionWriteService}), so a PATCH
+ * amount adjustment is never added twice.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.listener.batch.enabled", havingValue = "true")
+public class RabbitMqBatchListener implements RabbitListenerConfigurer {
+
+    /**
+     * Logger for logging batch processing details.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RabbitMqBatchListener.class);
+
+    /**
+     * Converter decoding message bodies into transaction commands.
+     */
+    private final MessageConverter messageConverter;
+
+    /**
+     * Service applying write operations to the database.
+     */
+    private final TransactionWriteService transactionWriteService;
+
+    /**
+     * Partitioning of the commands over the transaction queues.
+     */
+    private final TransactionPartitions partitions;
+
+    /**
+     * Factory of the batch listener containers.
+     */
+    private final SimpleRabbitListenerContainerFactory containerFactory;
+
+    /**
+     * Measurements of the command consumers, recording the consumer lag.
+     */
+    private final TransactionConsumerMetrics consumerMetrics;
+
+    /**
+     * Handler retrying or parking the messages that failed.
+     */
+    private final FailedCommandHandler failedCommandHandler;
+
+    /**
+     * Constructs a new {@code RabbitMqBatchListener} with the provided dependencies.
+     *
+     * @param transactionWriteService The service to use for database operations.
+     * @param messageConverter        The converter decoding message bodies.
+     * @param partitions              The partitioning of the commands over the transaction queues.
+     * @param containerFactory        The factory of the batch listener containers.
+     * @param consumerMetrics         The measurements recording the consumer lag.
+     * @param failedCommandHandler    The handler retrying or parking the messages that failed.
+     */
+    @Autowired
+    public RabbitMqBatchListener(TransactionWriteService transactionWriteService,
+                                 MessageConverter messageConverter,
+                                 TransactionPartitions partitions,
+                                 @Qualifier(RabbitMqConfiguration.BATCH_LISTENER_CONTAINER_FACTORY)
+                                 SimpleRabbitListenerContainerFactory containerFactory,
+                                 TransactionConsumerMetrics consumerMetrics,
+                                 FailedCommandHandler failedCommandHandler) {
+        this.transactionWriteService = transactionWriteService;
+        this.messageConverter = messageConverter;
+        this.partitions = partitions;
+        this.containerFactory = containerFactory;
+        this.consumerMetrics = consumerMetrics;
+        this.failedCommandHandler = failedCommandHandler;
+    }
+
+    /**
+     * Registers one single-consumer batch container per consumed queue.
+     *
+     * @param registrar The registrar of the listener endpoints.
+     */
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        List<String> queueNames = new ArrayList<>(partitions.consumedQueueNames());
+        queueNames.add(RabbitMqConfiguration.TRANSACTION_QUEUE);
+        for (String queueName : queueNames) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("transaction-batch-listener-" + queueName);
+            endpoint.setQueueNames(queueName);
+            endpoint.setConcurrency("1");
+            endpoint.setBatchListener(true);
+            endpoint.setMessageListener((BatchMessageListener) this::handleMessages);
+            registrar.registerEndpoint(endpoint, containerFactory);
+        }
+    }
+
+    /**
+     * Handles a batch of messages from a transaction queue.
+     *
+     * <p>Messages are decoded one by one so that a message that cannot be decoded is
+     * parked on its own instead of failing the whole batch. Messages carrying a
+     * {@link TransactionCommandBatch} contribute all of their commands. The commands
+     * are applied in the order they were received.</p>
+     *
+     * @param messages The raw messages received from the queue.
+     */
+    public void handleMessages(List<Message> messages) {
+        consumerMetrics.recordDeliveries(messages);
+        List<TransactionCommand> commands = new ArrayList<>(messages.size());
+        List<Message> decoded = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                Object payload = messageConverter.fromMessage(message);
+                if (payload instanceof TransactionCommandBatch batch) {
+                    commands.addAll(batch.getCommandsList());
+                } else {
+                    commands.add((TransactionCommand) payload);
+                }
+                decoded.add(message);
+            } catch (Exception e) {
+                failedCommandHandler.malformed(message, e);
+            }
+        }
+
+        try {
+            transactionWriteService.applyBatch(commands);
+            logger.info("Batch of {} messages ({} commands) processed", messages.size(), commands.size());
+        } catch (Exception e) {
+            logger.error("Failed to apply batch of {} messages", decoded.size(), e);
+            failedCommandHandler.failed(decoded, e);
+        }
+    }
+}
@@ -1,110 +1,193 @@
 package dev.angryl1on.domainservice.services;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
-import dev.angryl1on.domainservice.models.dtos.TransactionDTO;
+import dev.angryl1on.domainservice.configs.TransactionPartitions;
+import dev.angryl1on.domainservice.converters.TransactionCommandMessageConverter;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionCommandBatch;
 import dev.angryl1on.domainservice.models.entity.TransactionEntity;
-import dev.angryl1on.domainservice.repositories.TransactionRepository;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * RabbitMQ Listener for handling messages from the transaction queue.
+ * RabbitMQ Listener for handling messages from the transaction queues.
  *
- * <p>This class listens for messages on the queue defined in
- * {@link RabbitMqConfiguration#TRANSACTION_QUEUE} and processes them
- * based on the specified operation in the message.</p>
+ * <p>This class listens for messages on the partition queues consumed by this
+ * instance (see {@link TransactionPartitions}) and on the legacy queue defined in
+ * {@link RabbitMqConfiguration#TRANSACTION_QUEUE}, and processes them based on the
+ * specified operation in the message. Every queue gets its own single-consumer
+ * listener container, so the messages of a partition are handled one after another
+ * while the partitions are handled in parallel.</p>
  *
- * <p>The listener expects messages in JSON format representing a
- * {@link TransactionDTO}, which it deserializes and processes to
- * perform create, update, or delete operations on {@link TransactionEntity}
- * in the MongoDB database.</p>
+ * <p>Messages are decoded by the {@link TransactionCommandMessageConverter}
+ * into a {@link TransactionCommand} (protobuf bodies, or legacy JSON bodies
+ * negotiated by content type) or a {@link TransactionCommandBatch}, and the
+ * matching handler processes it to perform create, update, or delete operations
+ * on {@link TransactionEntity} in the MongoDB database.</p>
+ *
+ * <p>This listener processes one message at a time and is active when
+ * {@code transaction.listener.batch.enabled} is {@code false}; otherwise
+ * {@link RabbitMqBatchListener} consumes the queue.</p>
+ *
+ * <p>A message that cannot be decoded, or whose commands fail to apply, is handed to
+ * the {@link FailedCommandHandler}, which moves it to a retry tier or to the parking
+ * queue, and the listener moves on to the next message.</p>
  *
  * <p>Usage of this class assumes a properly configured RabbitMQ setup
- * and a functional {@link TransactionRepository} for database operations.</p>
+ * and a functional {@link TransactionWriteService} for database operations.</p>
  *
  * @author AngryL1on
  * @version 1.0
  * @since 1.0
  */
 @Component
-public class RabbitMqListener {
+@ConditionalOnProperty(name = "transaction.listener.batch.enabled", havingValue = "false", matchIfMissing = true)
+public class RabbitMqListener implements RabbitListenerConfigurer {
+
+    /**
+     * Logger for logging received messages.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RabbitMqListener.class);
+
+    /**
+     * Service applying write operations to the database.
+     */
+    private final TransactionWriteService transactionWriteService;
+
+    /**
+     * Converter decoding message bodies into transaction commands.
+     */
+    private final MessageConverter messageConverter;
+
+    /**
+     * Partitioning of the commands over the transaction queues.
+     */
+    private final TransactionPartitions partitions;
+
+    /**
+     * Measurements of the command consumers, recording the consumer lag.
+     */
+    private final TransactionConsumerMetrics consumerMetrics;
 
     /**
-     * Repository for performing CRUD operations on transactions.
+     * Handler retrying or parking the messages that failed.
      */
-    private final TransactionRepository transactionRepository;
+    private final FailedCommandHandler failedCommandHandler;
 
     /**
-     * Constructs a new {@code RabbitMqListener} with the provided repository.
+     * Constructs a new {@code RabbitMqListener} with the provided dependencies.
      *
-     * @param transactionRepository The repository to use for database operations.
+     * @param transactionWriteService The service to use for database operations.
+     * @param messageConverter        The converter decoding message bodies.
+     * @param partitions              The partitioning of the commands over the transaction queues.
+     * @param consumerMetrics         The measurements recording the consumer lag.
+     * @param failedCommandHandler    The handler retrying or parking the messages that failed.
      */
     @Autowired
-    public RabbitMqListener(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
+    public RabbitMqListener(TransactionWriteService transactionWriteService,
+                            MessageConverter messageConverter,
+                            TransactionPartitions partitions,
+                            TransactionConsumerMetrics consumerMetrics,
+                            FailedCommandHandler failedCommandHandler) {
+        this.transactionWriteService = transactionWriteService;
+        this.messageConverter = messageConverter;
+        this.partitions = partitions;
+        this.consumerMetrics = consumerMetrics;
+        this.failedCommandHandler = failedCommandHandler;
+    }
+
+    /**
+     * Registers one single-consumer listener container per consumed queue.
+     *
+     * @param registrar The registrar of the listener endpoints.
+     */
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        List<String> queueNames = new ArrayList<>(partitions.consumedQueueNames());
+        queueNames.add(RabbitMqConfiguration.TRANSACTION_QUEUE);
+        for (String queueName : queueNames) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("transaction-listener-" + queueName);
+            endpoint.setQueueNames(queueName);
+            endpoint.setConcurrency("1");
+            endpoint.setMessageListener(this::onMessage);
+            registrar.registerEndpoint(endpoint);
+        }
+    }
+
+    /**
+     * Decodes a message and hands it to the matching handler.
+     *
+     * @param message The message received from a transaction queue.
+     */
+    private void onMessage(Message message) {
+        consumerMetrics.recordDeliveries(List.of(message));
+        Object payload;
+        try {
+            payload = messageConverter.fromMessage(message);
+        } catch (Exception e) {
+            failedCommandHandler.malformed(message, e);
+            return;
+        }
+        try {
+            if (payload instanceof TransactionCommandBatch batch) {
+                handleBatch(batch);
+            } else if (payload instanceof TransactionCommand command) {
+                handleMessage(command);
+            } else {
+                failedCommandHandler.malformed(message,
+                        new IllegalArgumentException("Unsupported message payload: " + payload.getClass().getName()));
+            }
+        } catch (Exception e) {
+            failedCommandHandler.failed(List.of(message), e);
+        }
     }
 
     /**
      * Handles incoming messages from the transaction queue.
      *
-     * <p>This method listens to the queue defined in {@link RabbitMqConfiguration#TRANSACTION_QUEUE}.
-     * Messages are expected to be in JSON format and represent a {@link TransactionDTO}.
-     * Based on the {@code operation} field in the message, this method performs the following:
+     * <p>Based on the {@code operation} field of the decoded command, this method performs the following:
      * <ul>
      *   <li>Create: Creates a new transaction and saves it to the database.</li>
      *   <li>Update: Updates an existing transaction if it exists in the database.</li>
+     *   <li>Patch: Writes only the named fields of an existing transaction, or adjusts its amount.</li>
      *   <li>Delete: Deletes a transaction by its ID.</li>
      *   <li>Unknown: Logs an error message for unsupported operations.</li>
      * </ul>
      * </p>
      *
-     * @param message The message received from the queue, expected to be in JSON format.
+     * @param command The command decoded from the message received from the queue.
+     * @throws org.springframework.dao.DataAccessException If the command could not be applied.
      */
-    @RabbitListener(queues = RabbitMqConfiguration.TRANSACTION_QUEUE)
-    public void handleMessage(String message) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            TransactionDTO transactionDTO = objectMapper.readValue(message, TransactionDTO.class);
-
-            System.out.println("Message received: " + transactionDTO);
-
-            switch (transactionDTO.getOperation()) {
-                case "CREATE" -> {
-                    TransactionEntity transaction = new TransactionEntity(
-                            transactionDTO.getAmount(),
-                            transactionDTO.getDate(),
-                            transactionDTO.getType()
-                    );
-                    transactionRepository.save(transaction);
-                    System.out.println("Transaction created: " + transaction);
-                }
-                case "UPDATE" -> {
-                    Optional<TransactionEntity> transactionOpt = transactionRepository.findById(transactionDTO.getId());
-                    if (transactionOpt.isPresent()) {
-                        TransactionEntity transaction = transactionOpt.get();
-                        transaction.setAmount(transactionDTO.getAmount());
-                        transaction.setDate(transactionDTO.getDate());
-                        transaction.setType(transactionDTO.getType());
-                        transactionRepository.save(transaction);
-                        System.out.println("Transaction updated: " + transaction);
-                    } else {
-                        System.out.println("Transaction with ID " + transactionDTO.getId() + " not found for update");
-                    }
-                }
-                case "DELETE" -> {
-                    transactionRepository.deleteById(transactionDTO.getId());
-                    System.out.println("Transaction deleted with ID: " + transactionDTO.getId());
-                }
-                default -> {
-                    System.out.println("Unknown operation: " + transactionDTO.getOperation());
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void handleMessage(TransactionCommand command) {
+        logger.debug("Message received: {} {}", command.getOperation(), command.getId());
+
+        transactionWriteService.applyBatch(List.of(command));
+    }
+
+    /**
+     * Handles incoming messages carrying several commands, such as those published
+     * by bulk ingestion.
+     *
+     * <p>The commands are applied in order as a single batch.</p>
+     *
+     * @param batch The command batch decoded from the message received from the queue.
+     * @throws org.springframework.dao.DataAccessException If the commands could not be applied.
+     */
+    public void handleBatch(TransactionCommandBatch batch) {
+        logger.debug("Batch message received: {} commands", batch.getCommandsCount());
+
+        transactionWriteService.applyBatch(batch.getCommandsList());
     }
 }
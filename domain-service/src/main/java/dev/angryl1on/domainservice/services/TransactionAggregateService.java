@@ -0,0 +1,526 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.models.entity.TransactionAggregateEntity;
+import dev.angryl1on.domainservice.models.entity.TransactionDirtyDateEntity;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import dev.angryl1on.domainservice.models.entity.TransactionLockEntity;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains and serves the per-date, per-type rollups of the transactions.
+ *
+ * <p>As a {@link TransactionChangeListener}, this service turns every committed change
+ * into count and amount deltas on the rollup documents
+ * ({@link TransactionAggregateEntity}): a creation adds the new state, a deletion
+ * subtracts the previous state, and an update subtracts the previous state and adds the
+ * new one, so that changes of amount, date or type move the transaction between rollups.
+ * Since the changes come with the state read before the write, redelivered commands
+ * that had no effect produce no delta. The deltas of a bulk write are merged and applied
+ * with one bulk {@code $inc} upsert.</p>
+ *
+ * <p>Reads only touch the rollups of the requested range, one document per date and
+ * type, whatever the size of the transaction collection.</p>
+ *
+ * <p>Deltas can be lost: a failed {@code $inc}, a crash between a bulk write and its
+ * listeners, or transactions written before the rollups existed. Before every bulk
+ * write, the dates it changes are therefore marked as dirty
+ * ({@link TransactionDirtyDateEntity}). Every
+ * {@code transaction.aggregates.reconcile-interval-ms}, the rollups of the dirty dates
+ * are compared with an aggregation over the transactions of those dates, and corrected
+ * with a bulk of conditional {@code $set} upserts. The comparison runs concurrently with
+ * the listeners of every replica, so a rollup is only corrected when it is wrong in two
+ * consecutive passes without having changed in between, and the upsert only matches the
+ * exact count and total that were read. A delta landing meanwhile makes the correction
+ * a no-op, to be retried at the next passes. A date is unmarked once a pass finds it
+ * marked as in the previous pass, so that it is compared at least once after its last
+ * write has landed.</p>
+ *
+ * <p>Passes run on a single replica: the one holding the reconciliation lease
+ * ({@link TransactionLockEntity}), which it renews for two intervals at every pass.
+ * If that replica stops, another one takes over once the lease has expired. The very
+ * first pass, as on the first start of this version, compares all dates instead, so
+ * that an empty rollup collection is filled within two intervals.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class TransactionAggregateService implements TransactionChangeListener {
+
+    /**
+     * Logger for logging rollup maintenance.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAggregateService.class);
+
+    /**
+     * Name of the lease of the reconciliation passes.
+     */
+    private static final String RECONCILE_LOCK = "transaction-aggregates-reconciliation";
+
+    /**
+     * ID of this instance as the holder of the reconciliation lease.
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Template used to read and update the rollups.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Time in milliseconds between two reconciliation passes; {@code 0} disables them.
+     */
+    @Value("${transaction.aggregates.reconcile-interval-ms:300000}")
+    private long reconcileIntervalMs;
+
+    /**
+     * Rollups found wrong by the previous pass, as they were stored then, by ID. Only
+     * used by the reconciliation thread.
+     */
+    private Map<String, Rollup> suspects = new HashMap<>();
+
+    /**
+     * Dirty dates read by the previous pass, with their mark count. Only used by the
+     * reconciliation thread.
+     */
+    private Map<String, Long> previousDirtyDates = new HashMap<>();
+
+    /**
+     * Timer running the reconciliation passes.
+     */
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-aggregates-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs the {@code TransactionAggregateService}.
+     *
+     * @param mongoTemplate The template used to read and update the rollups.
+     */
+    @Autowired
+    public TransactionAggregateService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Marks the dates of the changes of a bulk write as dirty before it is executed.
+     *
+     * @param changes The expected changes, in command order.
+     */
+    @Override
+    public void beforeChanges(List<TransactionChange> changes) {
+        Set<String> dates = new LinkedHashSet<>();
+        for (TransactionChange change : changes) {
+            if (change.before() != null) {
+                dates.add(change.before().getDate());
+            }
+            if (change.after() != null) {
+                dates.add(change.after().getDate());
+            }
+        }
+        if (dates.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionDirtyDateEntity.class);
+        for (String date : dates) {
+            bulk.upsert(Query.query(Criteria.where("id").is(date)), new Update().inc("version", 1L));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Applies the deltas of committed changes to the rollups.
+     *
+     * @param changes The applied changes, in command order.
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (TransactionChange change : changes) {
+            if (change.before() != null) {
+                add(deltas, change.before(), -1);
+            }
+            if (change.after() != null) {
+                add(deltas, change.after(), 1);
+            }
+        }
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionAggregateEntity.class);
+        for (Delta delta : deltas.values()) {
+            bulk.upsert(Query.query(Criteria.where("id").is(TransactionAggregateEntity.idOf(delta.date, delta.type))),
+                    new Update()
+                            .setOnInsert("date", delta.date)
+                            .setOnInsert("type", delta.type)
+                            .inc("count", delta.count)
+                            .inc("total", delta.total));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Reads the rollups of a date range and type.
+     *
+     * @param dateFrom The first date, inclusive, or {@code null} for unbounded.
+     * @param dateTo   The last date, inclusive, or {@code null} for unbounded.
+     * @param type     The transaction type, or {@code null} for any type.
+     * @return The non-empty rollups, ordered by date and type.
+     */
+    public List<TransactionAggregateEntity> findRollups(String dateFrom, String dateTo, String type) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("count").gt(0));
+        if (dateFrom != null || dateTo != null) {
+            Criteria date = Criteria.where("date");
+            if (dateFrom != null) {
+                date = date.gte(dateFrom);
+            }
+            if (dateTo != null) {
+                date = date.lte(dateTo);
+            }
+            criteria.add(date);
+        }
+        if (type != null) {
+            criteria.add(Criteria.where("type").is(type));
+        }
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .with(Sort.by("date", "type"));
+        return mongoTemplate.find(query, TransactionAggregateEntity.class);
+    }
+
+    /**
+     * Starts the reconciliation passes.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void startReconciliation() {
+        if (reconcileIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::reconcileSafely, 0, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the reconciliation passes and releases the lease, so that another replica
+     * takes over at its next pass.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (reconcileIntervalMs > 0) {
+            try {
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("id").is(RECONCILE_LOCK).and("owner").is(instanceId)),
+                        new Update().set("expiresAt", new Date()),
+                        TransactionLockEntity.class);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to release the transaction rollup reconciliation lease", e);
+            }
+        }
+    }
+
+    /**
+     * Runs a reconciliation pass, logging its failures so that the next pass still runs.
+     */
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.warn("Transaction rollup reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Compares the rollups of the dirty dates with the transactions and corrects those
+     * found wrong twice in a row, if this instance holds the lease.
+     *
+     * <p>The rollups are read before and after the aggregation; a rollup that changed in
+     * between is being updated by a listener and is left for the next pass. The dates of
+     * the rollups found wrong are compared again by the next pass, dirty or not.</p>
+     */
+    void reconcile() {
+        TransactionLockEntity lease = acquireLease();
+        if (lease == null) {
+            // Another replica reconciles; its suspects are unknown here
+            suspects = new HashMap<>();
+            previousDirtyDates = new HashMap<>();
+            return;
+        }
+
+        Map<String, Long> dirtyDates = readDirtyDates();
+        Set<String> dates = null;
+        if (lease.getCompletedAt() != null) {
+            dates = new LinkedHashSet<>(dirtyDates.keySet());
+            for (Rollup suspect : suspects.values()) {
+                dates.add(suspect.date());
+            }
+        }
+
+        if (dates == null || !dates.isEmpty()) {
+            correct(dates);
+        }
+        clearDirtyDates(dirtyDates);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(RECONCILE_LOCK).and("owner").is(instanceId)),
+                new Update().set("completedAt", new Date()),
+                TransactionLockEntity.class);
+    }
+
+    /**
+     * Takes or renews the reconciliation lease, held for two intervals.
+     *
+     * @return The lease, or {@code null} if another instance holds it.
+     */
+    private TransactionLockEntity acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("id").is(RECONCILE_LOCK).orOperator(
+                Criteria.where("owner").is(instanceId),
+                Criteria.where("expiresAt").lt(now)));
+        try {
+            return mongoTemplate.findAndModify(query,
+                    new Update()
+                            .set("owner", instanceId)
+                            .set("expiresAt", new Date(now.getTime() + 2 * reconcileIntervalMs)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    TransactionLockEntity.class);
+        } catch (DuplicateKeyException e) {
+            // The lease exists and is held by another instance, so the upsert tried to insert it again
+            return null;
+        }
+    }
+
+    /**
+     * Reads the dirty dates.
+     *
+     * @return The mark count of every dirty date, by date.
+     */
+    private Map<String, Long> readDirtyDates() {
+        Map<String, Long> dates = new HashMap<>();
+        for (TransactionDirtyDateEntity entity : mongoTemplate.findAll(TransactionDirtyDateEntity.class)) {
+            dates.put(entity.getId(), entity.getVersion());
+        }
+        return dates;
+    }
+
+    /**
+     * Unmarks the dirty dates that were not marked again since the previous pass.
+     *
+     * <p>Such a date was compared by this pass at least one interval after its last
+     * mark, and so after the write that marked it landed. The removal only matches the
+     * mark count that was read, so a date marked meanwhile stays dirty.</p>
+     *
+     * @param dirtyDates The dirty dates read by this pass, with their mark count.
+     */
+    private void clearDirtyDates(Map<String, Long> dirtyDates) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionDirtyDateEntity.class);
+        int removals = 0;
+        for (Map.Entry<String, Long> date : dirtyDates.entrySet()) {
+            if (date.getValue().equals(previousDirtyDates.get(date.getKey()))) {
+                bulk.remove(Query.query(Criteria.where("id").is(date.getKey()).and("version").is(date.getValue())));
+                removals++;
+            }
+        }
+        if (removals > 0) {
+            bulk.execute();
+        }
+        previousDirtyDates = dirtyDates;
+    }
+
+    /**
+     * Compares the rollups of some dates with the transactions and corrects those found
+     * wrong twice in a row.
+     *
+     * @param dates The dates to compare, or {@code null} for all dates.
+     */
+    private void correct(Set<String> dates) {
+        Map<String, Rollup> storedBefore = readRollups(dates);
+        Map<String, Rollup> actual = aggregate(dates);
+        Map<String, Rollup> stored = readRollups(dates);
+
+        Set<String> ids = new LinkedHashSet<>(actual.keySet());
+        ids.addAll(stored.keySet());
+        Map<String, Rollup> nextSuspects = new HashMap<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionAggregateEntity.class);
+        int corrections = 0;
+        for (String id : ids) {
+            Rollup current = stored.get(id);
+            Rollup expected = actual.get(id);
+            if (current == null) {
+                current = Rollup.absent(expected.date(), expected.type());
+            }
+            if (expected == null) {
+                expected = new Rollup(current.date(), current.type(), 0, 0, true);
+            }
+            if (current.matches(expected) || !Objects.equals(storedBefore.get(id), stored.get(id))) {
+                continue;
+            }
+            if (!current.equals(suspects.get(id))) {
+                nextSuspects.put(id, current);
+                continue;
+            }
+
+            Query query = Query.query(Criteria.where("id").is(id));
+            if (current.stored()) {
+                query.addCriteria(Criteria.where("count").is(current.count()).and("total").is(current.total()));
+            } else {
+                query.addCriteria(Criteria.where("count").exists(false));
+            }
+            bulk.upsert(query, new Update()
+                    .set("date", expected.date())
+                    .set("type", expected.type())
+                    .set("count", expected.count())
+                    .set("total", expected.total()));
+            corrections++;
+            logger.warn("Correcting transaction rollup {}: count {} -> {}, total {} -> {}",
+                    id, current.count(), expected.count(), current.total(), expected.total());
+        }
+        suspects = nextSuspects;
+
+        if (corrections > 0) {
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                // A listener created the rollup meanwhile; it is checked again by the next passes
+                logger.info("{} of {} rollup corrections skipped", e.getErrors().size(), corrections);
+            }
+        }
+    }
+
+    /**
+     * Reads the stored rollups of some dates.
+     *
+     * @param dates The dates, or {@code null} for all dates.
+     * @return The rollups, by ID.
+     */
+    private Map<String, Rollup> readRollups(Set<String> dates) {
+        Query query = dates == null ? new Query() : Query.query(Criteria.where("date").in(dates));
+        Map<String, Rollup> rollups = new HashMap<>();
+        for (TransactionAggregateEntity entity : mongoTemplate.find(query, TransactionAggregateEntity.class)) {
+            rollups.put(entity.getId(), new Rollup(entity.getDate(), entity.getType(),
+                    entity.getCount(), entity.getTotal(), true));
+        }
+        return rollups;
+    }
+
+    /**
+     * Computes the rollups of some dates from the transaction collection with a single
+     * aggregation.
+     *
+     * @param dates The dates, or {@code null} for all dates.
+     * @return The rollups, by ID.
+     */
+    private Map<String, Rollup> aggregate(Set<String> dates) {
+        GroupOperation group = Aggregation.group("date", "type")
+                .count().as("count")
+                .sum("amount").as("total");
+        Aggregation aggregation = dates == null
+                ? Aggregation.newAggregation(group)
+                : Aggregation.newAggregation(Aggregation.match(Criteria.where("date").in(dates)), group);
+        List<Document> groups = mongoTemplate.aggregate(aggregation, TransactionEntity.class, Document.class)
+                .getMappedResults();
+
+        Map<String, Rollup> rollups = new HashMap<>();
+        for (Document group : groups) {
+            Document key = group.get("_id", Document.class);
+            String date = key.getString("date");
+            String type = key.getString("type");
+            rollups.put(TransactionAggregateEntity.idOf(date, type), new Rollup(date, type,
+                    ((Number) group.get("count")).longValue(),
+                    ((Number) group.get("total")).doubleValue(),
+                    true));
+        }
+        return rollups;
+    }
+
+    private static void add(Map<String, Delta> deltas, TransactionEntity state, int sign) {
+        Delta delta = deltas.computeIfAbsent(TransactionAggregateEntity.idOf(state.getDate(), state.getType()),
+                ignored -> new Delta(state.getDate(), state.getType()));
+        delta.count += sign;
+        delta.total += sign * state.getAmount();
+    }
+
+    /**
+     * Change of one rollup accumulated over a bulk write.
+     */
+    private static final class Delta {
+
+        private final String date;
+
+        private final String type;
+
+        private long count;
+
+        private double total;
+
+        private Delta(String date, String type) {
+            this.date = date;
+            this.type = type;
+        }
+
+        private boolean isZero() {
+            return count == 0 && total == 0;
+        }
+    }
+
+    /**
+     * Count and total of one rollup.
+     *
+     * @param date   The date of the rollup.
+     * @param type   The type of the rollup.
+     * @param count  The number of transactions.
+     * @param total  The sum of their amounts.
+     * @param stored Whether the rollup document exists.
+     */
+    private record Rollup(String date, String type, long count, double total, boolean stored) {
+
+        static Rollup absent(String date, String type) {
+            return new Rollup(date, type, 0, 0, false);
+        }
+
+        /**
+         * Tells whether two rollups agree, allowing for the rounding of the sums, which
+         * are accumulated in a different order.
+         */
+        boolean matches(Rollup other) {
+            return count == other.count
+                    && Math.abs(total - other.total) <= 1e-6 * Math.max(1, Math.abs(total));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import dev.angryl1on.domainservice.models.events.ChangeOperation;
+
+/**
+ * A write committed to the transaction collection.
+ *
+ * @param id        The ID of the changed transaction.
+ * @param operation The kind of change.
+ * @param version   The version of the transaction after the write.
+ * @param before    The transaction before the write, or {@code null} for a creation.
+ * @param after     The transaction after the write, or {@code null} for a deletion.
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public record TransactionChange(String id,
+                                ChangeOperation operation,
+                                long version,
+                                TransactionEntity before,
+                                TransactionEntity after) {
+}
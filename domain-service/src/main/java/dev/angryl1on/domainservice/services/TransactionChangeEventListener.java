@@ -0,0 +1,159 @@
+package dev.angryl1on.domainservice.services;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import dev.angryl1on.domainservice.models.events.TransactionChangeEvent;
+import dev.angryl1on.domainservice.models.events.TransactionChangeEventBatch;
+import dev.angryl1on.domainservice.models.events.TransactionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Listener feeding the {@link TransactionChangeSubscriber}s of this instance from the
+ * transaction events exchange.
+ *
+ * <p>Each instance consumes the exchange through its own anonymous queue (see
+ * {@link RabbitMqConfiguration#transactionEventsQueue()}), so every instance receives
+ * the changes committed by all of them, its own included, and in-memory views stay
+ * current whichever instance consumed a partition. The queue is only declared when such
+ * a view is enabled. Changes are handed over on a single consumer thread, in the order
+ * they were published.</p>
+ *
+ * <p>Failures are logged and not retried, as for the gateway caches.</p>
+ *
+ * <p>The queue is deleted when the consumer's connection drops, and declared again when
+ * it recovers, so the changes published in between are lost. Every time the consumer
+ * starts again after its first start, the subscribers are therefore asked to resync.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnExpression(RabbitMqConfiguration.LOCAL_VIEWS_ENABLED)
+public class TransactionChangeEventListener {
+
+    /**
+     * Logger for logging malformed messages and subscriber failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionChangeEventListener.class);
+
+    /**
+     * ID of the listener container consuming the queue of this instance.
+     */
+    private static final String LISTENER_ID = "transactionEventsListener";
+
+    /**
+     * The subscribers notified of the changes.
+     */
+    private final List<TransactionChangeSubscriber> subscribers;
+
+    /**
+     * Registry of the listener containers, used to recognize the one of this listener.
+     */
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+
+    /**
+     * Whether the consumer has started once already.
+     */
+    private final AtomicBoolean consumerStarted = new AtomicBoolean();
+
+    /**
+     * Constructs the {@code TransactionChangeEventListener}.
+     *
+     * @param subscribers      The subscribers notified of the changes.
+     * @param listenerRegistry The registry of the listener containers.
+     */
+    @Autowired
+    public TransactionChangeEventListener(ObjectProvider<TransactionChangeSubscriber> subscribers,
+                                          RabbitListenerEndpointRegistry listenerRegistry) {
+        this.subscribers = subscribers.orderedStream().toList();
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    /**
+     * Asks the subscribers to resync when the consumer starts again.
+     *
+     * @param event The start of a consumer of any listener container.
+     */
+    @EventListener
+    public void onConsumerStarted(AsyncConsumerStartedEvent event) {
+        if (event.getSource() != listenerRegistry.getListenerContainer(LISTENER_ID)
+                || !consumerStarted.getAndSet(true)) {
+            return;
+        }
+        logger.warn("Transaction change consumer restarted; changes may have been missed, resyncing");
+        for (TransactionChangeSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onResync();
+            } catch (RuntimeException e) {
+                logger.warn("Transaction change subscriber {} failed to resync",
+                        subscriber.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Handles a batch of change events.
+     *
+     * @param message The AMQP message carrying a protobuf {@link TransactionChangeEventBatch}.
+     */
+    @RabbitListener(id = LISTENER_ID, queues = "#{transactionEventsQueue.name}", concurrency = "1")
+    public void handleMessage(Message message) {
+        List<TransactionChangeEvent> events;
+        try {
+            events = TransactionChangeEventBatch.parseFrom(message.getBody()).getEventsList();
+        } catch (InvalidProtocolBufferException e) {
+            logger.warn("Skipping malformed transaction change message: {}", e.getMessage());
+            return;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<TransactionChange> changes = new ArrayList<>(events.size());
+        for (TransactionChangeEvent event : events) {
+            changes.add(new TransactionChange(event.getId(), event.getOperation(), event.getVersion(),
+                    event.hasBefore() ? toEntity(event.getId(), event.getBefore(), null) : null,
+                    event.hasAfter() ? toEntity(event.getId(), event.getAfter(), event.getVersion()) : null));
+        }
+        for (TransactionChangeSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onChanges(changes);
+            } catch (RuntimeException e) {
+                logger.warn("Transaction change subscriber {} failed on {} changes",
+                        subscriber.getClass().getSimpleName(), changes.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Converts the state carried by an event into a transaction.
+     *
+     * @param id      The transaction ID.
+     * @param state   The state.
+     * @param version The version of the state, or {@code null} if unknown.
+     * @return The corresponding {@link TransactionEntity}.
+     */
+    private static TransactionEntity toEntity(String id, TransactionState state, Long version) {
+        TransactionEntity entity = new TransactionEntity(id, state.getAmount(),
+                state.getDate().isEmpty() ? null : state.getDate(),
+                state.getType().isEmpty() ? null : state.getType());
+        entity.setVersion(version);
+        return entity;
+    }
+}
@@ -0,0 +1,38 @@
+package dev.angryl1on.domainservice.services;
+
+import java.util.List;
+
+/**
+ * Callback notified of the writes committed by {@link TransactionWriteService}.
+ *
+ * <p>Every bean implementing this interface is called once per bulk write, after
+ * MongoDB has acknowledged it, with the changes it actually applied; commands that
+ * matched no document are not reported. Listeners run on the consuming thread and
+ * must not throw: the write is already committed and cannot be rolled back.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public interface TransactionChangeListener {
+
+    /**
+     * Prepares for the changes of one bulk write about to be executed.
+     *
+     * <p>Called before the write with the changes it is expected to apply, so that a
+     * listener keeping derived state can record what it needs to repair that state
+     * should the write be committed without {@link #onChanges} being called, e.g. on a
+     * crash. Unlike {@link #onChanges}, a failure here fails the write, which is retried.</p>
+     *
+     * @param changes The expected changes, in command order.
+     */
+    default void beforeChanges(List<TransactionChange> changes) {
+    }
+
+    /**
+     * Handles the changes of one committed bulk write.
+     *
+     * @param changes The applied changes, in command order.
+     */
+    void onChanges(List<TransactionChange> changes);
+}
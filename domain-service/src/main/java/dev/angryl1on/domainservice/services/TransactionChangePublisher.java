@@ -0,0 +1,98 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import dev.angryl1on.domainservice.models.events.TransactionChangeEvent;
+import dev.angryl1on.domainservice.models.events.TransactionChangeEventBatch;
+import dev.angryl1on.domainservice.models.events.TransactionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publisher of committed transaction changes to the transaction events exchange.
+ *
+ * <p>The changes of every bulk write are sent as one protobuf
+ * {@link TransactionChangeEventBatch} message once MongoDB has acknowledged the write,
+ * so consumers (e.g., gateway caches) never learn about a change before it can be
+ * read. Each event carries the transaction ID, the operation, the new version and the
+ * state before and after the write.</p>
+ *
+ * <p>Publishing is best effort: a failure is logged and does not affect the write,
+ * which is already committed. Consumers are expected to bound staleness with cache
+ * TTLs.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.events.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionChangePublisher implements TransactionChangeListener {
+
+    /**
+     * Logger for logging publishing failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionChangePublisher.class);
+
+    /**
+     * RabbitMQ template for sending messages to RabbitMQ exchanges.
+     */
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * Constructs the {@code TransactionChangePublisher} with the provided template.
+     *
+     * @param rabbitTemplate The RabbitMQ template for sending messages.
+     */
+    @Autowired
+    public TransactionChangePublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        TransactionChangeEventBatch.Builder batch = TransactionChangeEventBatch.newBuilder();
+        for (TransactionChange change : changes) {
+            TransactionChangeEvent.Builder event = batch.addEventsBuilder()
+                    .setId(change.id())
+                    .setOperation(change.operation())
+                    .setVersion(change.version());
+            if (change.before() != null) {
+                event.setBefore(toState(change.before()));
+            }
+            if (change.after() != null) {
+                event.setAfter(toState(change.after()));
+            }
+        }
+
+        try {
+            rabbitTemplate.convertAndSend(RabbitMqConfiguration.TRANSACTION_EVENTS_EXCHANGE, "", batch.build());
+        } catch (AmqpException e) {
+            logger.warn("Failed to publish {} transaction change events: {}", changes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Converts a stored transaction into its event representation.
+     *
+     * @param entity The stored transaction.
+     * @return The corresponding {@link TransactionState}.
+     */
+    private static TransactionState toState(TransactionEntity entity) {
+        TransactionState.Builder state = TransactionState.newBuilder().setAmount(entity.getAmount());
+        if (entity.getDate() != null) {
+            state.setDate(entity.getDate());
+        }
+        if (entity.getType() != null) {
+            state.setType(entity.getType());
+        }
+        return state.build();
+    }
+}
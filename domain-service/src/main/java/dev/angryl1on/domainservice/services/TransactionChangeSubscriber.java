@@ -0,0 +1,35 @@
+package dev.angryl1on.domainservice.services;
+
+import java.util.List;
+
+/**
+ * Callback notified of the writes committed by every instance of the Domain Service.
+ *
+ * <p>Unlike a {@link TransactionChangeListener}, which only sees the writes of its own
+ * instance, a subscriber receives the changes published on the transaction events
+ * exchange, through a queue of its instance (see {@link TransactionChangeEventListener}).
+ * It is meant for in-memory views that must agree with MongoDB whichever instance
+ * applied a command. Delivery is at most once and may lag the write slightly; changes
+ * of a transaction may arrive out of order across instances, so subscribers compare
+ * versions.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public interface TransactionChangeSubscriber {
+
+    /**
+     * Handles the changes of one committed bulk write.
+     *
+     * @param changes The applied changes, in command order.
+     */
+    void onChanges(List<TransactionChange> changes);
+
+    /**
+     * Rebuilds the view from MongoDB after changes may have been missed, when the event
+     * consumer of this instance has been restarted.
+     */
+    default void onResync() {
+    }
+}
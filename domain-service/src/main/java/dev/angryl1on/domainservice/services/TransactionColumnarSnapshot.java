@@ -0,0 +1,784 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import dev.angryl1on.grpc.AnalyticsGroup;
+import dev.angryl1on.grpc.AnalyticsGrouping;
+import dev.angryl1on.grpc.AnalyticsRequest;
+import dev.angryl1on.grpc.AnalyticsResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory columnar copy of the transaction collection for ad-hoc analytics.
+ *
+ * <p>Transactions are held as parallel primitive columns: amounts in a {@code double[]},
+ * dates as epoch days and epoch months in {@code int[]}s, and types as codes into a
+ * dictionary of the distinct type names. A query filters, groups and aggregates the
+ * rows with a fork-join scan: the row range is split into chunks of
+ * {@code transaction.analytics.scan-chunk-rows} rows, each chunk is aggregated into its
+ * own groups on a worker of a dedicated pool, and the partial groups are merged pairwise.
+ * Scans read nothing but the primitive arrays, so a full-table query takes milliseconds
+ * for millions of transactions.</p>
+ *
+ * <p>The snapshot is loaded from MongoDB in the background at startup and kept current
+ * as a {@link TransactionChangeSubscriber}, from the changes committed by every
+ * instance. Writes replace a row only with a newer version of the transaction, and
+ * deletions received while the initial load runs are remembered, so the load cannot
+ * bring back a stale or deleted transaction. Deleted rows are filled with the last row,
+ * keeping the columns dense. Queries share a read lock and changes take the write lock,
+ * so a query always sees a consistent snapshot.</p>
+ *
+ * <p>Change events published while the event consumer of this instance was down are
+ * lost with its queue, so on a resync the snapshot is emptied and loaded again, queries
+ * being refused meanwhile. Each load belongs to a generation; one overtaken by a newer
+ * load stops.</p>
+ *
+ * <p>Rows are found by ID through an open-addressing index of row numbers, probed with
+ * the 12 bytes of the ObjectId, which are stored as three {@code int}s per row like in
+ * the {@link TransactionReadModel}. An ID thus costs 12 bytes of key and two index
+ * slots instead of a {@code String} and a map entry. The rare IDs that are not
+ * ObjectIds are kept in a map on the side.</p>
+ *
+ * <p>Disabled by default: each instance holds a full copy of the collection. Requires
+ * {@code transaction.events.enabled}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@ConditionalOnExpression(RabbitMqConfiguration.ANALYTICS_ENABLED)
+public class TransactionColumnarSnapshot implements TransactionChangeSubscriber {
+
+    /**
+     * Logger for logging snapshot loading.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionColumnarSnapshot.class);
+
+    /**
+     * Epoch day and month of a transaction whose date cannot be parsed.
+     */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * Initial number of rows of the columns.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Number of documents fetched from MongoDB per cursor round trip when loading.
+     */
+    private static final int LOAD_CURSOR_BATCH_SIZE = 5000;
+
+    /**
+     * Template used to load the snapshot.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Number of rows below which a scan is not split further.
+     */
+    @Value("${transaction.analytics.scan-chunk-rows:65536}")
+    private int scanChunkRows;
+
+    /**
+     * Number of scan workers; 0 uses one per available processor.
+     */
+    @Value("${transaction.analytics.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Pool running the scans, created with the first query.
+     */
+    private volatile ForkJoinPool scanPool;
+
+    /**
+     * Guards the columns: queries read under the read lock, changes write under the write lock.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * ObjectId of the transaction of every row, as three words per row.
+     */
+    private int[] keys = new int[INITIAL_CAPACITY * 3];
+
+    /**
+     * Version of the transaction of every row.
+     */
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    /**
+     * Amount of every row.
+     */
+    private double[] amounts = new double[INITIAL_CAPACITY];
+
+    /**
+     * Date of every row, as days since 1970-01-01.
+     */
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+
+    /**
+     * Month of every row, as months since 1970-01.
+     */
+    private int[] epochMonths = new int[INITIAL_CAPACITY];
+
+    /**
+     * Type of every row, as an index into {@link #typeNames}.
+     */
+    private int[] typeCodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of rows in use.
+     */
+    private int size;
+
+    /**
+     * Index of the rows keyed by ObjectId: each slot holds a row number plus one, or
+     * {@code 0} when free. It has twice as many slots as the columns have rows.
+     */
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * Row of every transaction whose ID is not an ObjectId, by ID.
+     */
+    private final Map<String, Integer> rowsByOtherId = new HashMap<>();
+
+    /**
+     * ID of every row whose transaction ID is not an ObjectId, by row.
+     */
+    private final Map<Integer, String> otherIdsByRow = new HashMap<>();
+
+    /**
+     * Dictionary of the type names, by code.
+     */
+    private final List<String> typeNames = new ArrayList<>();
+
+    /**
+     * Dictionary of the type codes, by name.
+     */
+    private final Map<String, Integer> typeCodesByName = new HashMap<>();
+
+    /**
+     * IDs deleted while the initial load runs, or {@code null} once it has completed.
+     */
+    private Set<String> deletedWhileLoading = new HashSet<>();
+
+    /**
+     * Whether the initial load has completed.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Generation of the current load, incremented by every resync.
+     */
+    private int generation;
+
+    /**
+     * Constructs the {@code TransactionColumnarSnapshot}.
+     *
+     * @param mongoTemplate The template used to load the snapshot.
+     */
+    @Autowired
+    public TransactionColumnarSnapshot(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Starts loading the snapshot in the background.
+     *
+     * <p>Changes are already applied while the load runs; queries are refused until it
+     * has completed.</p>
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void startLoading() {
+        startLoader(0);
+    }
+
+    /**
+     * Empties the snapshot and loads it again, as changes may have been missed.
+     */
+    @Override
+    public void onResync() {
+        int loading;
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            size = 0;
+            Arrays.fill(index, 0);
+            rowsByOtherId.clear();
+            otherIdsByRow.clear();
+            deletedWhileLoading = new HashSet<>();
+            loading = ++generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loading the analytics snapshot again after missed changes");
+        startLoader(loading);
+    }
+
+    /**
+     * Tells whether the snapshot can be queried.
+     *
+     * @return {@code true} once the initial load has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Applies the changes committed by any instance to the snapshot.
+     *
+     * @param changes The applied changes, in command order.
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        lock.writeLock().lock();
+        try {
+            for (TransactionChange change : changes) {
+                if (change.after() == null) {
+                    remove(change.id());
+                    if (deletedWhileLoading != null) {
+                        deletedWhileLoading.add(change.id());
+                    }
+                } else {
+                    upsert(change.after());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an analytics query.
+     *
+     * @param request The filters, grouping and percentiles to compute.
+     * @return The groups, ordered by key.
+     * @throws IllegalArgumentException If the request is invalid.
+     * @throws IllegalStateException    If the snapshot is still loading.
+     */
+    public AnalyticsResponse query(AnalyticsRequest request) {
+        if (!ready) {
+            throw new IllegalStateException("Analytics snapshot is still loading");
+        }
+        AnalyticsGrouping grouping = request.getGroupBy();
+        if (grouping == AnalyticsGrouping.ANALYTICS_GROUP_BY_AMOUNT_BUCKET
+                && !(request.getBucketWidth() > 0 && Double.isFinite(request.getBucketWidth()))) {
+            throw new IllegalArgumentException("Bucket width must be a positive number");
+        }
+        for (double percentile : request.getPercentilesList()) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100");
+            }
+        }
+        // Without a lower bound, transactions with an unreadable date are included too
+        int dayFrom = request.getDateFrom().isEmpty() ? Integer.MIN_VALUE : toEpochDay(request.getDateFrom());
+        int dayTo = request.getDateTo().isEmpty() ? Integer.MAX_VALUE : toEpochDay(request.getDateTo());
+        if ((!request.getDateFrom().isEmpty() && dayFrom == NO_DATE) || (!request.getDateTo().isEmpty() && dayTo == NO_DATE)) {
+            throw new IllegalArgumentException("Dates must be in YYYY-MM-DD format");
+        }
+
+        lock.readLock().lock();
+        try {
+            boolean[] typeMask = null;
+            if (request.getTypesCount() > 0) {
+                typeMask = new boolean[typeNames.size()];
+                for (String type : request.getTypesList()) {
+                    Integer code = typeCodesByName.get(type);
+                    if (code != null) {
+                        typeMask[code] = true;
+                    }
+                }
+            }
+
+            ScanTask scan = new ScanTask(new Scan(
+                    amounts, epochDays, epochMonths, typeCodes,
+                    dayFrom, dayTo,
+                    request.hasAmountMin() ? request.getAmountMin() : Double.NEGATIVE_INFINITY,
+                    request.hasAmountMax() ? request.getAmountMax() : Double.POSITIVE_INFINITY,
+                    typeMask, grouping, request.getBucketWidth(),
+                    request.getPercentilesCount() > 0, Math.max(1, scanChunkRows)), 0, size);
+            Map<Long, Group> groups = pool().invoke(scan);
+
+            return toResponse(groups, grouping, request);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the scan workers.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (scanPool != null) {
+            scanPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts a load in the background.
+     *
+     * @param loading The generation of the load.
+     */
+    private void startLoader(int loading) {
+        Thread loader = new Thread(() -> load(loading), "transaction-snapshot-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads all stored transactions into the snapshot, unless a newer load starts.
+     *
+     * @param loading The generation of the load.
+     */
+    private void load(int loading) {
+        long started = System.currentTimeMillis();
+        Query query = new Query().cursorBatchSize(LOAD_CURSOR_BATCH_SIZE);
+        try (Stream<TransactionEntity> transactions = mongoTemplate.stream(query, TransactionEntity.class)) {
+            Iterator<TransactionEntity> cursor = transactions.iterator();
+            while (cursor.hasNext()) {
+                TransactionEntity entity = cursor.next();
+                lock.writeLock().lock();
+                try {
+                    if (generation != loading) {
+                        return;
+                    }
+                    if (!deletedWhileLoading.contains(entity.getId())) {
+                        upsert(entity);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the analytics snapshot", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (generation != loading) {
+                return;
+            }
+            deletedWhileLoading = null;
+            ready = true;
+            logger.info("Loaded {} transactions into the analytics snapshot in {} ms",
+                    size, System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a transaction, or replaces its row if the given version is not older.
+     * Must be called under the write lock.
+     *
+     * @param entity The transaction.
+     */
+    private void upsert(TransactionEntity entity) {
+        String id = entity.getId();
+        long version = entity.getVersion() != null ? entity.getVersion() : 0L;
+        int row = rowOf(id);
+        if (row < 0) {
+            if (size == versions.length) {
+                grow();
+            }
+            row = size++;
+            if (ObjectIdKeys.isObjectId(id)) {
+                int k0 = ObjectIdKeys.word(id, 0);
+                int k1 = ObjectIdKeys.word(id, 1);
+                int k2 = ObjectIdKeys.word(id, 2);
+                keys[row * 3] = k0;
+                keys[row * 3 + 1] = k1;
+                keys[row * 3 + 2] = k2;
+                index[indexSlot(k0, k1, k2)] = row + 1;
+            } else {
+                rowsByOtherId.put(id, row);
+                otherIdsByRow.put(row, id);
+            }
+        } else if (versions[row] > version) {
+            return;
+        }
+
+        int epochDay = toEpochDay(entity.getDate());
+        versions[row] = version;
+        amounts[row] = entity.getAmount();
+        epochDays[row] = epochDay;
+        epochMonths[row] = toEpochMonth(epochDay);
+        typeCodes[row] = typeCodesByName.computeIfAbsent(entity.getType(), type -> {
+            typeNames.add(type);
+            return typeNames.size() - 1;
+        });
+    }
+
+    /**
+     * Removes a transaction, moving the last row into its place.
+     * Must be called under the write lock.
+     *
+     * @param id The transaction ID.
+     */
+    private void remove(String id) {
+        int row;
+        if (ObjectIdKeys.isObjectId(id)) {
+            int slot = indexSlot(ObjectIdKeys.word(id, 0), ObjectIdKeys.word(id, 1), ObjectIdKeys.word(id, 2));
+            row = index[slot] - 1;
+            if (row < 0) {
+                return;
+            }
+            removeSlot(slot);
+        } else {
+            Integer otherRow = rowsByOtherId.remove(id);
+            if (otherRow == null) {
+                return;
+            }
+            row = otherRow;
+            otherIdsByRow.remove(row);
+        }
+
+        int last = --size;
+        if (row != last) {
+            System.arraycopy(keys, last * 3, keys, row * 3, 3);
+            versions[row] = versions[last];
+            amounts[row] = amounts[last];
+            epochDays[row] = epochDays[last];
+            epochMonths[row] = epochMonths[last];
+            typeCodes[row] = typeCodes[last];
+            String otherId = otherIdsByRow.remove(last);
+            if (otherId != null) {
+                otherIdsByRow.put(row, otherId);
+                rowsByOtherId.put(otherId, row);
+            } else {
+                index[indexSlot(keys[row * 3], keys[row * 3 + 1], keys[row * 3 + 2])] = row + 1;
+            }
+        }
+    }
+
+    /**
+     * Finds the row of a transaction.
+     *
+     * @return The row, or -1 if the transaction is absent.
+     */
+    private int rowOf(String id) {
+        if (ObjectIdKeys.isObjectId(id)) {
+            return index[indexSlot(ObjectIdKeys.word(id, 0), ObjectIdKeys.word(id, 1), ObjectIdKeys.word(id, 2))] - 1;
+        }
+        Integer row = rowsByOtherId.get(id);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Finds the index slot of a key: the slot holding its row, or the free slot ending
+     * its probe sequence if it is absent.
+     */
+    private int indexSlot(int k0, int k1, int k2) {
+        int mask = index.length - 1;
+        int slot = ObjectIdKeys.hash(k0, k1, k2) & mask;
+        while (true) {
+            int row = index[slot] - 1;
+            if (row < 0 || (keys[row * 3] == k0 && keys[row * 3 + 1] == k1 && keys[row * 3 + 2] == k2)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Frees an index slot, shifting back the entries that probed past it.
+     */
+    private void removeSlot(int hole) {
+        int mask = index.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int entry = index[slot];
+            if (entry == 0) {
+                break;
+            }
+            int row = entry - 1;
+            int home = ObjectIdKeys.hash(keys[row * 3], keys[row * 3 + 1], keys[row * 3 + 2]) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, slot]
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                index[hole] = entry;
+                hole = slot;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    /**
+     * Doubles the capacity of the columns and rebuilds the index at twice that size.
+     */
+    private void grow() {
+        int capacity = versions.length * 2;
+        keys = Arrays.copyOf(keys, capacity * 3);
+        versions = Arrays.copyOf(versions, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        epochMonths = Arrays.copyOf(epochMonths, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+
+        index = new int[capacity * 2];
+        for (int row = 0; row < size; row++) {
+            if (!otherIdsByRow.containsKey(row)) {
+                index[indexSlot(keys[row * 3], keys[row * 3 + 1], keys[row * 3 + 2])] = row + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the scan pool, creating it on first use.
+     */
+    private ForkJoinPool pool() {
+        ForkJoinPool pool = scanPool;
+        if (pool == null) {
+            synchronized (this) {
+                if (scanPool == null) {
+                    scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+                }
+                pool = scanPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Builds the response from the merged groups. Must be called under the read lock,
+     * since type keys are resolved through the dictionary.
+     */
+    private AnalyticsResponse toResponse(Map<Long, Group> groups, AnalyticsGrouping grouping, AnalyticsRequest request) {
+        List<Map.Entry<Long, Group>> ordered = new ArrayList<>(groups.entrySet());
+        if (grouping == AnalyticsGrouping.ANALYTICS_GROUP_BY_TYPE) {
+            ordered.sort(Comparator.comparing(entry -> typeNames.get(entry.getKey().intValue())));
+        } else {
+            ordered.sort(Map.Entry.comparingByKey());
+        }
+
+        AnalyticsResponse.Builder response = AnalyticsResponse.newBuilder().setSnapshotSize(size);
+        long matched = 0;
+        for (Map.Entry<Long, Group> entry : ordered) {
+            Group group = entry.getValue();
+            matched += group.count;
+            AnalyticsGroup.Builder result = AnalyticsGroup.newBuilder()
+                    .setKey(keyOf(entry.getKey(), grouping, request.getBucketWidth()))
+                    .setCount(group.count)
+                    .setSum(group.sum)
+                    .setMin(group.min)
+                    .setMax(group.max)
+                    .setMean(group.sum / group.count);
+            if (request.getPercentilesCount() > 0) {
+                double[] values = Arrays.copyOf(group.values, group.count);
+                Arrays.sort(values);
+                for (double percentile : request.getPercentilesList()) {
+                    result.addPercentiles(percentile(values, percentile));
+                }
+            }
+            response.addGroups(result);
+        }
+        return response.setMatchedCount(matched).build();
+    }
+
+    /**
+     * Formats a group key.
+     */
+    private String keyOf(long key, AnalyticsGrouping grouping, double bucketWidth) {
+        return switch (grouping) {
+            case ANALYTICS_GROUP_BY_TYPE -> typeNames.get((int) key);
+            case ANALYTICS_GROUP_BY_DATE -> key == NO_DATE ? "" : LocalDate.ofEpochDay(key).toString();
+            case ANALYTICS_GROUP_BY_MONTH -> key == NO_DATE ? ""
+                    : LocalDate.of(1970, 1, 1).plusMonths(key).toString().substring(0, 7);
+            case ANALYTICS_GROUP_BY_AMOUNT_BUCKET -> String.valueOf(key * bucketWidth);
+            default -> "";
+        };
+    }
+
+    /**
+     * Computes a percentile of sorted values, interpolating between the closest ranks.
+     */
+    private static double percentile(double[] sorted, double percentile) {
+        double rank = percentile / 100 * (sorted.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = (int) Math.ceil(rank);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+    }
+
+    /**
+     * Converts a {@code YYYY-MM-DD} date to days since 1970-01-01.
+     *
+     * @return The epoch day, or {@link #NO_DATE} if the date cannot be parsed.
+     */
+    private static int toEpochDay(String date) {
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return NO_DATE;
+        }
+    }
+
+    /**
+     * Converts an epoch day to months since 1970-01.
+     */
+    private static int toEpochMonth(int epochDay) {
+        if (epochDay == NO_DATE) {
+            return NO_DATE;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return (date.getYear() - 1970) * 12 + date.getMonthValue() - 1;
+    }
+
+    /**
+     * The columns and compiled predicates of one query, shared by its scan tasks.
+     */
+    private record Scan(double[] amounts, int[] epochDays, int[] epochMonths, int[] typeCodes,
+                        int dayFrom, int dayTo, double amountMin, double amountMax,
+                        boolean[] typeMask, AnalyticsGrouping grouping, double bucketWidth,
+                        boolean keepValues, int chunkRows) {
+    }
+
+    /**
+     * Aggregates a range of rows, splitting it across the pool while it is larger than a chunk.
+     */
+    private static final class ScanTask extends RecursiveTask<Map<Long, Group>> {
+
+        private final Scan scan;
+
+        private final int from;
+
+        private final int to;
+
+        private ScanTask(Scan scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, Group> compute() {
+            if (to - from > scan.chunkRows()) {
+                int middle = (from + to) >>> 1;
+                ScanTask left = new ScanTask(scan, from, middle);
+                left.fork();
+                Map<Long, Group> right = new ScanTask(scan, middle, to).compute();
+                return merge(left.join(), right);
+            }
+
+            Map<Long, Group> groups = new HashMap<>();
+            double[] amounts = scan.amounts();
+            int[] epochDays = scan.epochDays();
+            int[] typeCodes = scan.typeCodes();
+            boolean[] typeMask = scan.typeMask();
+            Group group = null;
+            long groupKey = 0;
+            for (int row = from; row < to; row++) {
+                int day = epochDays[row];
+                double amount = amounts[row];
+                if (day < scan.dayFrom() || day > scan.dayTo()
+                        || amount < scan.amountMin() || amount > scan.amountMax()) {
+                    continue;
+                }
+                int type = typeCodes[row];
+                if (typeMask != null && !typeMask[type]) {
+                    continue;
+                }
+                long key = switch (scan.grouping()) {
+                    case ANALYTICS_GROUP_BY_TYPE -> type;
+                    case ANALYTICS_GROUP_BY_DATE -> day;
+                    case ANALYTICS_GROUP_BY_MONTH -> scan.epochMonths()[row];
+                    case ANALYTICS_GROUP_BY_AMOUNT_BUCKET -> (long) Math.floor(amount / scan.bucketWidth());
+                    default -> 0L;
+                };
+                // Consecutive rows often share their group, which saves the boxed map lookup
+                if (group == null || key != groupKey) {
+                    group = groups.computeIfAbsent(key, ignored -> new Group(scan.keepValues()));
+                    groupKey = key;
+                }
+                group.add(amount);
+            }
+            return groups;
+        }
+
+        private static Map<Long, Group> merge(Map<Long, Group> target, Map<Long, Group> source) {
+            for (Map.Entry<Long, Group> entry : source.entrySet()) {
+                target.merge(entry.getKey(), entry.getValue(), Group::merge);
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Running aggregate of the amounts of one group.
+     */
+    private static final class Group {
+
+        private int count;
+
+        private double sum;
+
+        private double min = Double.POSITIVE_INFINITY;
+
+        private double max = Double.NEGATIVE_INFINITY;
+
+        /**
+         * The amounts of the group, kept only when percentiles are requested.
+         */
+        private double[] values;
+
+        private Group(boolean keepValues) {
+            this.values = keepValues ? new double[16] : null;
+        }
+
+        private void add(double amount) {
+            if (values != null) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count] = amount;
+            }
+            count++;
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+
+        private Group merge(Group other) {
+            if (values != null) {
+                if (count + other.count > values.length) {
+                    values = Arrays.copyOf(values, count + other.count);
+                }
+                System.arraycopy(other.values, 0, values, count, other.count);
+            }
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package dev.angryl1on.domainservice.services;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead journal of the transaction commands awaiting publication (an outbox).
+ *
+ * <p>When {@code transaction.outbox.enabled} is {@code true}, the
+ * {@link TransactionCommandPublisher} appends commands to this journal instead of
+ * sending them to RabbitMQ, and the write is acknowledged to the caller as soon as the
+ * journal is on disk. A relay thread then sends the journaled commands to the exchange
+ * in batches and waits for their publisher confirms, so a slow or unreachable broker
+ * delays delivery but no longer fails or slows down the write calls.</p>
+ *
+ * <p>The journal is a sequence of memory-mapped segment files of
+ * {@code segment-size-bytes} in {@code directory}. A record is the length and CRC-32C of
+ * a serialized {@link TransactionCommand} followed by its bytes; a length of {@code -1}
+ * marks the end of a full segment and a length of {@code 0} the end of the written data.
+ * Appends are group-committed: a single flusher thread forces the dirty segments to disk
+ * and completes the futures of every append made before the force, so appends arriving
+ * while a force runs share the next one.</p>
+ *
+ * <p>The relay reads only forced records. Once a batch is confirmed, its end position is
+ * written to the {@code cursor} file, and segments wholly before it are deleted. On
+ * startup, the journal is scanned from the cursor and stops at the first torn or
+ * corrupt record, and the relay resumes from the cursor. Delivery is at least once: a
+ * batch confirmed just before a crash is sent again. Commands are relayed in journal
+ * order, so commands on the same transaction keep their order.</p>
+ *
+ * <p>Appends fail once the journal holds {@code max-segments} segments, which bounds the
+ * disk used during a long broker outage.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.outbox.enabled", havingValue = "true")
+public class TransactionCommandJournal {
+
+    /**
+     * Logger for logging journal recovery and relay failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionCommandJournal.class);
+
+    /**
+     * Size in bytes of a record header: the payload length and its checksum.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Record length marking the end of a full segment.
+     */
+    private static final int END_OF_SEGMENT = -1;
+
+    /**
+     * Suffix of the segment file names.
+     */
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * Directory holding the segments and the cursor.
+     */
+    @Value("${transaction.outbox.directory:data/outbox}")
+    private String directory;
+
+    /**
+     * Size in bytes of a segment.
+     */
+    @Value("${transaction.outbox.segment-size-bytes:67108864}")
+    private int segmentSizeBytes;
+
+    /**
+     * Maximum number of segments on disk.
+     */
+    @Value("${transaction.outbox.max-segments:16}")
+    private int maxSegments;
+
+    /**
+     * Maximum number of commands sent by the relay at once.
+     */
+    @Value("${transaction.outbox.relay-batch-size:500}")
+    private int relayBatchSize;
+
+    /**
+     * Time in milliseconds the relay waits before resending a failed batch.
+     */
+    @Value("${transaction.outbox.relay-retry-ms:1000}")
+    private long relayRetryMs;
+
+    /**
+     * Segments on disk, by sequence number. Guarded by {@code this}.
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    /**
+     * Segment being appended to. Guarded by {@code this}.
+     */
+    private Segment head;
+
+    /**
+     * Offset of the next record in the head segment. Guarded by {@code this}.
+     */
+    private int writeOffset;
+
+    /**
+     * Futures of the appends awaiting the next force. Guarded by {@code this}.
+     */
+    private List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+    /**
+     * Segments written since the last force. Guarded by {@code this}.
+     */
+    private final Set<Segment> dirty = new LinkedHashSet<>();
+
+    /**
+     * End of the records forced to disk. Guarded by {@code this}.
+     */
+    private Position committed;
+
+    /**
+     * Position of the next record to relay, as persisted in the cursor file.
+     */
+    private volatile Position relayed;
+
+    /**
+     * Channel of the cursor file.
+     */
+    private FileChannel cursorChannel;
+
+    /**
+     * Whether the journal accepts appends and its threads run. Guarded by {@code this}.
+     */
+    private boolean running;
+
+    /**
+     * Thread forcing the appended records to disk.
+     */
+    private Thread flusher;
+
+    /**
+     * Thread sending the journaled commands to the broker.
+     */
+    private Thread relay;
+
+    /**
+     * Opens the journal, recovering the segments and the cursor left on disk.
+     *
+     * @throws IOException If the journal files cannot be read or created.
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path root = Paths.get(directory);
+        Files.createDirectories(root);
+
+        cursorChannel = FileChannel.open(root.resolve("cursor"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer cursor = ByteBuffer.allocate(12);
+        cursorChannel.read(cursor, 0);
+        relayed = cursor.position() == 12 ? new Position(cursor.getLong(0), cursor.getInt(8)) : new Position(0, 0);
+
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(root)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> sequences.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        sequences.sort(null);
+        for (long sequence : sequences) {
+            if (sequence < relayed.segment()) {
+                Files.deleteIfExists(segmentPath(sequence));
+            } else {
+                segments.put(sequence, Segment.map(segmentPath(sequence), sequence, segmentSizeBytes));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            head = Segment.map(segmentPath(relayed.segment()), relayed.segment(), segmentSizeBytes);
+            segments.put(head.sequence, head);
+            writeOffset = 0;
+        } else {
+            for (Segment segment : segments.values()) {
+                head = segment;
+                writeOffset = recover(segment);
+            }
+        }
+        committed = new Position(head.sequence, writeOffset);
+        running = true;
+
+        flusher = new Thread(this::flushLoop, "transaction-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Transaction journal opened in {}: {} segments, relaying from {}",
+                root.toAbsolutePath(), segments.size(), relayed);
+    }
+
+    /**
+     * Starts relaying the journaled commands.
+     *
+     * @param sink Sends a batch of commands and returns a future completed once the
+     *             broker has confirmed it.
+     */
+    public synchronized void startRelay(Function<List<TransactionCommand>, CompletableFuture<Void>> sink) {
+        if (relay != null) {
+            return;
+        }
+        relay = new Thread(() -> relayLoop(sink), "transaction-journal-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Stops the threads, forcing the records appended so far.
+     */
+    @PreDestroy
+    public void close() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+            if (relay != null) {
+                relay.interrupt();
+                relay.join();
+            }
+            cursorChannel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Failed to close the journal cursor", e);
+        }
+    }
+
+    /**
+     * Appends commands to the journal.
+     *
+     * @param commands The commands, in publication order.
+     * @return A future completed once the commands are on disk, or completed exceptionally
+     * if the journal is closed, full, or cannot be written.
+     */
+    public CompletableFuture<Void> append(List<TransactionCommand> commands) {
+        List<byte[]> records = new ArrayList<>(commands.size());
+        for (TransactionCommand command : commands) {
+            records.add(command.toByteArray());
+        }
+
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (this) {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Transaction journal is closed"));
+            }
+            try {
+                reserve(records);
+                for (byte[] record : records) {
+                    write(record);
+                }
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new UncheckedIOException("Failed to append to the journal", e));
+            } catch (IllegalStateException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            pending.add(durable);
+            notifyAll();
+        }
+        return durable;
+    }
+
+    /**
+     * Checks that records fit in the journal before any of them is written, so that an
+     * append is either journaled whole or rejected.
+     *
+     * @throws IllegalStateException If a record is empty or larger than a segment, or if
+     *                               the records would exceed the segment limit.
+     */
+    private void reserve(List<byte[]> records) {
+        int offset = writeOffset;
+        int capacity = head.buffer.capacity();
+        int newSegments = 0;
+        for (byte[] record : records) {
+            if (record.length == 0 || HEADER_SIZE + record.length > segmentSizeBytes) {
+                throw new IllegalStateException("Cannot journal a command of " + record.length + " bytes");
+            }
+            if (offset + HEADER_SIZE + record.length > capacity) {
+                newSegments++;
+                offset = 0;
+                capacity = segmentSizeBytes;
+            }
+            offset += HEADER_SIZE + record.length;
+        }
+        if (segments.size() + newSegments > maxSegments) {
+            throw new IllegalStateException("Transaction journal is full");
+        }
+    }
+
+    /**
+     * Writes a record to the head segment, rolling to a new segment when it does not fit.
+     */
+    private void write(byte[] record) throws IOException {
+        if (writeOffset + HEADER_SIZE + record.length > head.buffer.capacity()) {
+            if (writeOffset + 4 <= head.buffer.capacity()) {
+                head.buffer.putInt(writeOffset, END_OF_SEGMENT);
+            }
+            dirty.add(head);
+            long sequence = head.sequence + 1;
+            head = Segment.map(segmentPath(sequence), sequence, segmentSizeBytes);
+            segments.put(sequence, head);
+            writeOffset = 0;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        head.buffer.put(writeOffset + HEADER_SIZE, record);
+        head.buffer.putInt(writeOffset + 4, (int) crc.getValue());
+        head.buffer.putInt(writeOffset, record.length);
+        writeOffset += HEADER_SIZE + record.length;
+        dirty.add(head);
+    }
+
+    /**
+     * Forces the appended records to disk and completes their futures, until closed.
+     */
+    private void flushLoop() {
+        while (true) {
+            List<CompletableFuture<Void>> flushed;
+            List<Segment> toForce;
+            Position end;
+            synchronized (this) {
+                while (running && pending.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                flushed = pending;
+                pending = new ArrayList<>();
+                toForce = new ArrayList<>(dirty);
+                dirty.clear();
+                end = new Position(head.sequence, writeOffset);
+            }
+
+            try {
+                for (Segment segment : toForce) {
+                    segment.buffer.force();
+                }
+            } catch (UncheckedIOException e) {
+                logger.error("Failed to force the transaction journal", e);
+                synchronized (this) {
+                    dirty.addAll(toForce);
+                }
+                flushed.forEach(future -> future.completeExceptionally(e));
+                continue;
+            }
+            synchronized (this) {
+                committed = end;
+                notifyAll();
+            }
+            flushed.forEach(future -> future.complete(null));
+        }
+    }
+
+    /**
+     * Sends the forced records to the broker in batches, until closed.
+     */
+    private void relayLoop(Function<List<TransactionCommand>, CompletableFuture<Void>> sink) {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<TransactionCommand> commands = new ArrayList<>();
+            Position next;
+            try {
+                next = readBatch(relayed, commands);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (!commands.isEmpty()) {
+                try {
+                    sink.apply(commands).get();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (ExecutionException | RuntimeException e) {
+                    logger.warn("Failed to relay {} journaled commands, retrying in {} ms",
+                            commands.size(), relayRetryMs, e);
+                    try {
+                        Thread.sleep(relayRetryMs);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            try {
+                acknowledge(next);
+            } catch (IOException e) {
+                logger.error("Failed to persist the journal cursor", e);
+            }
+        }
+    }
+
+    /**
+     * Reads forced records from a position, waiting for some to be available.
+     *
+     * @param from     The position of the first record.
+     * @param commands The list receiving the decoded commands.
+     * @return The position after the last record read.
+     * @throws InterruptedException If the relay is stopped while waiting.
+     */
+    private Position readBatch(Position from, List<TransactionCommand> commands) throws InterruptedException {
+        Position end;
+        synchronized (this) {
+            while (!from.isBefore(committed)) {
+                wait();
+            }
+            end = committed;
+        }
+
+        Position position = from;
+        while (position.isBefore(end) && commands.size() < relayBatchSize) {
+            Segment segment;
+            synchronized (this) {
+                segment = segments.get(position.segment());
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int offset = position.offset();
+            int length = offset + 4 <= buffer.capacity() ? buffer.getInt(offset) : END_OF_SEGMENT;
+            if (length == END_OF_SEGMENT || (position.segment() < end.segment() && length == 0)) {
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+
+            byte[] record = new byte[length];
+            buffer.get(offset + HEADER_SIZE, record);
+            try {
+                commands.add(TransactionCommand.parseFrom(record));
+            } catch (InvalidProtocolBufferException e) {
+                logger.error("Skipping undecodable journal record at {}", position, e);
+            }
+            position = new Position(position.segment(), offset + HEADER_SIZE + length);
+        }
+        return position;
+    }
+
+    /**
+     * Persists the relay position and deletes the segments wholly before it.
+     */
+    private void acknowledge(Position position) throws IOException {
+        ByteBuffer cursor = ByteBuffer.allocate(12).putLong(position.segment()).putInt(position.offset()).flip();
+        cursorChannel.write(cursor, 0);
+        cursorChannel.force(false);
+        relayed = position;
+
+        List<Segment> released = new ArrayList<>();
+        synchronized (this) {
+            while (!segments.isEmpty() && segments.firstKey() < position.segment()) {
+                released.add(segments.pollFirstEntry().getValue());
+            }
+        }
+        for (Segment segment : released) {
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    /**
+     * Scans a segment left on disk for its last valid record, ending it there.
+     *
+     * @param segment The segment.
+     * @return The offset after its last valid record.
+     */
+    private int recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        CRC32C crc = new CRC32C();
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == END_OF_SEGMENT) {
+                return buffer.capacity();
+            }
+            if (length <= 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(offset + HEADER_SIZE, record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+
+        if (offset + 4 <= buffer.capacity() && buffer.getInt(offset) != 0) {
+            logger.warn("Discarding the torn tail of journal segment {} at offset {}", segment.path, offset);
+            if (segment == segments.lastEntry().getValue()) {
+                // New appends start here; clears the tail so that no stale record follows them
+                byte[] zeros = new byte[Math.min(64 * 1024, buffer.capacity() - offset)];
+                for (int index = offset; index < buffer.capacity(); index += zeros.length) {
+                    buffer.put(index, zeros, 0, Math.min(zeros.length, buffer.capacity() - index));
+                }
+            } else {
+                buffer.putInt(offset, END_OF_SEGMENT);
+            }
+            buffer.force();
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the path of a segment file.
+     */
+    private Path segmentPath(long sequence) {
+        return Paths.get(directory).resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Position in the journal: a segment and an offset in it.
+     *
+     * @param segment The sequence number of the segment.
+     * @param offset  The offset in the segment.
+     */
+    private record Position(long segment, int offset) {
+
+        /**
+         * Tells whether this position comes before another one.
+         *
+         * @param other The other position.
+         * @return {@code true} if this position is earlier.
+         */
+        boolean isBefore(Position other) {
+            return segment < other.segment || (segment == other.segment && offset < other.offset);
+        }
+    }
+
+    /**
+     * A memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final long sequence;
+
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Maps a segment file, creating it with the given size if it does not exist.
+         */
+        private static Segment map(Path path, long sequence, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long length = channel.size() > 0 ? channel.size() : size;
+                return new Segment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+            }
+        }
+    }
+}
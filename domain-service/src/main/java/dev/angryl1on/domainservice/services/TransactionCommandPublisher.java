@@ -0,0 +1,260 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
+import dev.angryl1on.domainservice.configs.TransactionPartitions;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionCommandBatch;
+import dev.angryl1on.domainservice.models.commands.TransactionOperation;
+import dev.angryl1on.domainservice.models.entity.TransactionSequenceEntity;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publisher of transaction commands to the RabbitMQ transaction exchange.
+ *
+ * <p>All write paths of the service go through this component, so the routing of
+ * commands to the exchange is defined in a single place. Commands can be published
+ * one per message, or many per message as a {@link TransactionCommandBatch}, which
+ * is how bulk ingestion keeps the number of AMQP messages low.</p>
+ *
+ * <p>Every command is routed to the partition queue of its transaction ID (see
+ * {@link TransactionPartitions}); a batch is split into one message per partition, so
+ * that each command still reaches the queue of its ID.</p>
+ *
+ * <p>Publishing is asynchronous: every message carries a {@link CorrelationData}, and
+ * the returned future completes when the broker confirms the message. A negative
+ * confirm, a message returned as unroutable, or a confirm that does not arrive within
+ * {@code transaction.publisher.confirm-timeout-ms} completes the future exceptionally.
+ * Callers never block on the broker, so many publishes can be in flight at once.</p>
+ *
+ * <p>Every command is stamped with a {@code sequence} that increases with every command
+ * published on its transaction, by any instance. A CREATE, always the first command of
+ * its freshly assigned ID, takes the lowest sequence; every other command increments the
+ * counter of its transaction in MongoDB (see {@link TransactionSequenceEntity}) and is
+ * numbered with the new value above that sequence. The listener skips a command whose sequence is
+ * not above the one last written to its transaction, so a command retried through a
+ * delay tier cannot overwrite a newer one, and a replayed command is not applied twice.
+ * No clock is involved, so commands on the same transaction published by different
+ * instances are never reordered by clock skew. Sequences start at {@link #SEQUENCE_BASE},
+ * above the clock-based sequences of earlier releases still held by stored transactions
+ * and queued commands.</p>
+ *
+ * <p>When the outbox is enabled, commands are appended to the
+ * {@link TransactionCommandJournal} instead, and the returned future completes once
+ * they are on local disk; the journal's relay then sends them through this publisher.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionCommandPublisher {
+
+    /**
+     * Sequence of every CREATE; the other commands are numbered above it. Clock-based
+     * sequences of earlier releases, in microseconds since 1970, all lie below it.
+     */
+    static final long SEQUENCE_BASE = 1L << 52;
+
+    /**
+     * RabbitMQ template for sending messages to RabbitMQ exchanges.
+     */
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * Partitioning of the commands over the transaction queues.
+     */
+    private final TransactionPartitions partitions;
+
+    /**
+     * Local journal the commands are appended to, or {@code null} when the outbox is disabled.
+     */
+    private final TransactionCommandJournal journal;
+
+    /**
+     * Template used to increment the command counters of the transactions.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Maximum time in milliseconds to wait for a publisher confirm.
+     */
+    @Value("${transaction.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    /**
+     * Constructs the {@code TransactionCommandPublisher} with the provided template.
+     *
+     * @param rabbitTemplate The RabbitMQ template for sending messages.
+     * @param partitions     The partitioning of the commands over the transaction queues.
+     * @param mongoTemplate  The template used to increment the command counters.
+     * @param journal        The local journal of the outbox, if enabled.
+     */
+    @Autowired
+    public TransactionCommandPublisher(RabbitTemplate rabbitTemplate,
+                                       TransactionPartitions partitions,
+                                       MongoTemplate mongoTemplate,
+                                       ObjectProvider<TransactionCommandJournal> journal) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.partitions = partitions;
+        this.mongoTemplate = mongoTemplate;
+        this.journal = journal.getIfAvailable();
+    }
+
+    /**
+     * Starts relaying the journaled commands to the broker, if the outbox is enabled.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void startRelay() {
+        if (journal != null) {
+            journal.startRelay(this::sendBatch);
+        }
+    }
+
+    /**
+     * Publishes a single command as one message.
+     *
+     * @param command The command to publish.
+     * @return A future completed once the broker has confirmed the message, or once the
+     * command is journaled when the outbox is enabled.
+     */
+    public CompletableFuture<Void> publish(TransactionCommand command) {
+        TransactionCommand stamped;
+        try {
+            stamped = stamp(command);
+        } catch (DataAccessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (journal != null) {
+            return journal.append(List.of(stamped));
+        }
+        return send(partitions.partitionOf(stamped.getId()), stamped);
+    }
+
+    /**
+     * Publishes several commands as one message.
+     *
+     * <p>The commands are grouped by partition into one message per partition, keeping
+     * their relative order; the listener applies the commands of a message in order.</p>
+     *
+     * @param commands The commands to publish.
+     * @return A future completed once the broker has confirmed every message, or once
+     * the commands are journaled when the outbox is enabled.
+     */
+    public CompletableFuture<Void> publishBatch(List<TransactionCommand> commands) {
+        List<TransactionCommand> stamped = new ArrayList<>(commands.size());
+        try {
+            for (TransactionCommand command : commands) {
+                stamped.add(stamp(command));
+            }
+        } catch (DataAccessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (journal != null && !stamped.isEmpty()) {
+            return journal.append(stamped);
+        }
+        return sendBatch(stamped);
+    }
+
+    /**
+     * Assigns the next sequence of its transaction to a command.
+     *
+     * @param command The command to publish.
+     * @return The command carrying its sequence.
+     * @throws DataAccessException If the counter of the transaction could not be incremented.
+     */
+    private TransactionCommand stamp(TransactionCommand command) {
+        long sequence = SEQUENCE_BASE;
+        if (command.getOperation() != TransactionOperation.CREATE) {
+            TransactionSequenceEntity counter = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("id").is(command.getId())),
+                    new Update().inc("value", 1L),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    TransactionSequenceEntity.class);
+            sequence += counter.getValue();
+        }
+        return command.toBuilder().setSequence(sequence).build();
+    }
+
+    /**
+     * Sends several commands to the broker as one message per partition.
+     *
+     * @param commands The commands to send.
+     * @return A future completed once the broker has confirmed every message.
+     */
+    private CompletableFuture<Void> sendBatch(List<TransactionCommand> commands) {
+        if (commands.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Map<Integer, TransactionCommandBatch.Builder> batches = new LinkedHashMap<>();
+        for (TransactionCommand command : commands) {
+            batches.computeIfAbsent(partitions.partitionOf(command.getId()), ignored -> TransactionCommandBatch.newBuilder())
+                    .addCommands(command);
+        }
+
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(batches.size());
+        for (Map.Entry<Integer, TransactionCommandBatch.Builder> batch : batches.entrySet()) {
+            confirms.add(send(batch.getKey(), batch.getValue().build()));
+        }
+        return CompletableFuture.allOf(confirms.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Sends a message to a partition with a correlation and maps its confirm to a future.
+     *
+     * @param partition The partition of the commands.
+     * @param payload   The command or command batch to send.
+     * @return A future completed once the broker has confirmed the message.
+     */
+    private CompletableFuture<Void> send(int partition, Object payload) {
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMqConfiguration.TRANSACTION_EXCHANGE,
+                    TransactionPartitions.routingKey(partition),
+                    payload,
+                    message -> {
+                        // Lets the consumers measure their lag
+                        message.getMessageProperties().setTimestamp(new Date());
+                        return message;
+                    },
+                    correlation
+            );
+        } catch (AmqpException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return correlation.getFuture()
+                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                .thenAccept(confirm -> {
+                    if (!confirm.isAck()) {
+                        throw new AmqpException("Message rejected by the broker: " + confirm.getReason());
+                    }
+                    if (correlation.getReturned() != null) {
+                        throw new AmqpException("Message could not be routed: " + correlation.getReturned().getReplyText());
+                    }
+                });
+    }
+}
@@ -0,0 +1,158 @@
+package dev.angryl1on.domainservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measurements of the transaction command consumers.
+ *
+ * <p>Records these meters, exported like every Micrometer meter:
+ * <ul>
+ *   <li>{@value #CONSUMER_LAG}: time from publishing a command message (its AMQP
+ *       {@code timestamp} property) to its delivery to a listener, tagged by queue.</li>
+ *   <li>{@value #WRITE_DURATION}: time taken by a MongoDB bulk write of commands.</li>
+ *   <li>{@value #COMMANDS_RECEIVED} and {@value #COMMANDS_COALESCED}: commands handed to
+ *       the {@link TransactionWriteService}, and those of them dropped because a later
+ *       command on the same ID superseded them, i.e. the writes avoided.</li>
+ * </ul>
+ * The {@link AdaptiveConsumerTuner} reads the timers to size the consumers.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionConsumerMetrics {
+
+    /**
+     * Name of the consumer lag timer.
+     */
+    public static final String CONSUMER_LAG = "transaction.consumer.lag";
+
+    /**
+     * Name of the bulk write duration timer.
+     */
+    public static final String WRITE_DURATION = "transaction.write.bulk.duration";
+
+    /**
+     * Name of the counter of commands received for writing.
+     */
+    public static final String COMMANDS_RECEIVED = "transaction.write.commands";
+
+    /**
+     * Name of the counter of commands coalesced away.
+     */
+    public static final String COMMANDS_COALESCED = "transaction.write.coalesced";
+
+    /**
+     * Registry the timers are registered in.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Timers of the consumer lag, by queue.
+     */
+    private final Map<String, Timer> consumerLags = new ConcurrentHashMap<>();
+
+    /**
+     * Timer of the bulk writes.
+     */
+    private final Timer writeDuration;
+
+    /**
+     * Counter of the commands received for writing.
+     */
+    private final Counter commandsReceived;
+
+    /**
+     * Counter of the commands coalesced away.
+     */
+    private final Counter commandsCoalesced;
+
+    /**
+     * Constructs the {@code TransactionConsumerMetrics}.
+     *
+     * @param meterRegistry The registry the timers are registered in.
+     */
+    @Autowired
+    public TransactionConsumerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.writeDuration = Timer.builder(WRITE_DURATION)
+                .description("Duration of the MongoDB bulk writes of transaction commands")
+                .register(meterRegistry);
+        this.commandsReceived = Counter.builder(COMMANDS_RECEIVED)
+                .description("Transaction commands received for writing")
+                .register(meterRegistry);
+        this.commandsCoalesced = Counter.builder(COMMANDS_COALESCED)
+                .description("Transaction commands not written because a later command superseded them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the lag of delivered messages; messages without a timestamp are ignored.
+     *
+     * @param messages The delivered messages.
+     */
+    public void recordDeliveries(List<Message> messages) {
+        long now = System.currentTimeMillis();
+        for (Message message : messages) {
+            Date timestamp = message.getMessageProperties().getTimestamp();
+            String queue = message.getMessageProperties().getConsumerQueue();
+            if (timestamp != null && queue != null) {
+                getConsumerLag(queue).record(Math.max(0, now - timestamp.getTime()), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Records the duration of a bulk write.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void recordWrite(long nanos) {
+        writeDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the commands of a batch and how many of them were coalesced away.
+     *
+     * @param received  The number of commands received.
+     * @param coalesced The number of commands dropped by coalescing.
+     */
+    public void recordCoalescing(int received, int coalesced) {
+        commandsReceived.increment(received);
+        commandsCoalesced.increment(coalesced);
+    }
+
+    /**
+     * Returns the consumer lag timer of a queue.
+     *
+     * @param queue The queue name.
+     * @return The timer.
+     */
+    public Timer getConsumerLag(String queue) {
+        return consumerLags.computeIfAbsent(queue, name -> Timer.builder(CONSUMER_LAG)
+                .description("Time from publishing a transaction command to its delivery")
+                .tag("queue", name)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Returns the bulk write duration timer.
+     *
+     * @return The timer.
+     */
+    public Timer getWriteDuration() {
+        return writeDuration;
+    }
+}
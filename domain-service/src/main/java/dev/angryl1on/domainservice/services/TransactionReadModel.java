@@ -0,0 +1,563 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap read model answering lookups of transactions by ID from memory.
+ *
+ * <p>Transactions are stored in an open-addressing hash table with linear probing,
+ * held in a direct {@link ByteBuffer} outside the Java heap. Every slot is a fixed-size
+ * record keyed by the 12 bytes of the transaction's ObjectId:
+ * <pre>
+ *   0  key (3 x int)    12  used flag (int)    16  amount (double)
+ *   24 version (long)   32  epoch day (int)    36  type code (int)
+ * </pre>
+ * Types are stored as codes into a small on-heap dictionary. Millions of transactions
+ * thus cost 40 bytes of native memory each and no heap objects for the collector to
+ * trace; a lookup only allocates the returned entity. Deletions shift the following
+ * slots of the probe sequence back, so the table needs no tombstones.</p>
+ *
+ * <p>The table is warmed from MongoDB in the background at startup and kept current as
+ * a {@link TransactionChangeSubscriber}, from the changes committed by every instance,
+ * with the same version and deletion checks as the analytics snapshot. Until the
+ * warm-up has completed, lookups go to MongoDB. Afterwards, an ID absent from the table
+ * is still looked up in MongoDB: the transaction may have been created by a change
+ * event not received yet or lost, or be one the table cannot hold (non-ObjectId IDs,
+ * unparseable dates, or a table at {@code transaction.read-model.max-entries}).
+ * Requires {@code transaction.events.enabled}.</p>
+ *
+ * <p>Change events published while the event consumer of this instance was down are
+ * lost with its queue, so on a resync the table is cleared and warmed up again, lookups
+ * going to MongoDB meanwhile. Each warm-up belongs to a generation; one overtaken by a
+ * newer warm-up stops.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@ConditionalOnExpression(RabbitMqConfiguration.READ_MODEL_ENABLED)
+public class TransactionReadModel implements TransactionChangeSubscriber {
+
+    /**
+     * Logger for logging warm-up and capacity problems.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionReadModel.class);
+
+    /**
+     * Size in bytes of a slot.
+     */
+    private static final int SLOT_BYTES = 40;
+
+    /**
+     * Offset of the flag telling whether a slot is used.
+     */
+    private static final int USED_OFFSET = 12;
+
+    /**
+     * Offset of the amount.
+     */
+    private static final int AMOUNT_OFFSET = 16;
+
+    /**
+     * Offset of the version.
+     */
+    private static final int VERSION_OFFSET = 24;
+
+    /**
+     * Offset of the date, as days since 1970-01-01.
+     */
+    private static final int EPOCH_DAY_OFFSET = 32;
+
+    /**
+     * Offset of the type code.
+     */
+    private static final int TYPE_OFFSET = 36;
+
+    /**
+     * Largest number of slots, a power of two fitting in one buffer.
+     */
+    private static final int MAX_SLOTS = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_BYTES);
+
+    /**
+     * Number of documents fetched from MongoDB per cursor round trip when warming up.
+     */
+    private static final int LOAD_CURSOR_BATCH_SIZE = 5000;
+
+    /**
+     * Template used to warm the read model up.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Number of slots allocated at startup, rounded up to a power of two.
+     */
+    @Value("${transaction.read-model.initial-capacity:1048576}")
+    private int initialCapacity;
+
+    /**
+     * Number of transactions above which new ones are no longer held.
+     */
+    @Value("${transaction.read-model.max-entries:25000000}")
+    private int maxEntries;
+
+    /**
+     * Guards the table: lookups read under the read lock, changes write under the write lock.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The slots, allocated outside the heap.
+     */
+    private ByteBuffer table;
+
+    /**
+     * Number of slots minus one; the number of slots is a power of two.
+     */
+    private int mask;
+
+    /**
+     * Number of used slots.
+     */
+    private int size;
+
+    /**
+     * Dictionary of the type names, by code.
+     */
+    private final List<String> typeNames = new ArrayList<>();
+
+    /**
+     * Dictionary of the type codes, by name.
+     */
+    private final Map<String, Integer> typeCodesByName = new HashMap<>();
+
+    /**
+     * Number of transactions the table could not hold.
+     */
+    private int unheld;
+
+    /**
+     * Whether a transaction was not held because the table was full.
+     */
+    private boolean overflowed;
+
+    /**
+     * IDs deleted while the warm-up runs, or {@code null} once it has completed.
+     */
+    private Set<String> deletedWhileLoading = new HashSet<>();
+
+    /**
+     * Whether the warm-up has completed.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Generation of the current warm-up, incremented by every resync.
+     */
+    private int generation;
+
+    /**
+     * Constructs the {@code TransactionReadModel}.
+     *
+     * @param mongoTemplate The template used to warm the read model up.
+     */
+    @Autowired
+    public TransactionReadModel(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Starts warming the read model up in the background.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void startLoading() {
+        lock.writeLock().lock();
+        try {
+            int slots = Math.min(MAX_SLOTS, Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1);
+            table = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+            mask = slots - 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        startLoader(0);
+    }
+
+    /**
+     * Clears the read model and warms it up again, as changes may have been missed.
+     */
+    @Override
+    public void onResync() {
+        int loading;
+        lock.writeLock().lock();
+        try {
+            if (table == null) {
+                return;
+            }
+            ready = false;
+            for (int slot = 0; slot <= mask; slot++) {
+                table.putInt(slot * SLOT_BYTES + USED_OFFSET, 0);
+            }
+            size = 0;
+            unheld = 0;
+            overflowed = false;
+            deletedWhileLoading = new HashSet<>();
+            loading = ++generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Warming the transaction read model up again after missed changes");
+        startLoader(loading);
+    }
+
+    /**
+     * Looks a transaction up by ID.
+     *
+     * @param id       The transaction ID.
+     * @param fallback The lookup used when the read model cannot answer.
+     * @return The transaction, if it exists.
+     */
+    public Optional<TransactionEntity> findById(String id, Function<String, Optional<TransactionEntity>> fallback) {
+        if (!ready) {
+            return fallback.apply(id);
+        }
+        TransactionEntity entity;
+        lock.readLock().lock();
+        try {
+            entity = held(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entity != null ? Optional.of(entity) : fallback.apply(id);
+    }
+
+    /**
+     * Looks many transactions up by ID.
+     *
+     * <p>The IDs the read model cannot answer are passed to the fallback in a single call.</p>
+     *
+     * @param ids      The transaction IDs.
+     * @param fallback The lookup of the IDs the read model cannot answer.
+     * @return The existing transactions, by ID.
+     */
+    public Map<String, TransactionEntity> findAllById(Collection<String> ids,
+                                                      Function<Collection<String>, Iterable<TransactionEntity>> fallback) {
+        Map<String, TransactionEntity> found = new HashMap<>();
+        List<String> missed = new ArrayList<>();
+        if (ready) {
+            lock.readLock().lock();
+            try {
+                for (String id : ids) {
+                    TransactionEntity entity = held(id);
+                    if (entity != null) {
+                        found.put(id, entity);
+                    } else {
+                        missed.add(id);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        } else {
+            missed.addAll(ids);
+        }
+
+        if (!missed.isEmpty()) {
+            for (TransactionEntity entity : fallback.apply(missed)) {
+                found.put(entity.getId(), entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Applies the changes committed by any instance to the read model.
+     *
+     * @param changes The applied changes, in command order.
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        lock.writeLock().lock();
+        try {
+            if (table == null) {
+                return;
+            }
+            for (TransactionChange change : changes) {
+                if (change.after() == null) {
+                    remove(change.id());
+                    if (deletedWhileLoading != null) {
+                        deletedWhileLoading.add(change.id());
+                    }
+                } else {
+                    upsert(change.after());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a warm-up in the background.
+     *
+     * @param loading The generation of the warm-up.
+     */
+    private void startLoader(int loading) {
+        Thread loader = new Thread(() -> load(loading), "transaction-read-model-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads all stored transactions into the read model, unless a newer warm-up starts.
+     *
+     * @param loading The generation of the warm-up.
+     */
+    private void load(int loading) {
+        long started = System.currentTimeMillis();
+        Query query = new Query().cursorBatchSize(LOAD_CURSOR_BATCH_SIZE);
+        try (Stream<TransactionEntity> transactions = mongoTemplate.stream(query, TransactionEntity.class)) {
+            Iterator<TransactionEntity> cursor = transactions.iterator();
+            while (cursor.hasNext()) {
+                TransactionEntity entity = cursor.next();
+                lock.writeLock().lock();
+                try {
+                    if (generation != loading) {
+                        return;
+                    }
+                    if (!deletedWhileLoading.contains(entity.getId())) {
+                        upsert(entity);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to warm the transaction read model up; lookups stay on MongoDB", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (generation != loading) {
+                return;
+            }
+            deletedWhileLoading = null;
+            ready = true;
+            logger.info("Loaded {} transactions into the read model ({} MB off-heap, {} not held) in {} ms",
+                    size, table.capacity() >> 20, unheld, System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a transaction, or replaces its slot if the given version is not older.
+     * Must be called under the write lock.
+     *
+     * @param entity The transaction.
+     */
+    private void upsert(TransactionEntity entity) {
+        String id = entity.getId();
+        int epochDay = toEpochDay(entity.getDate());
+        if (!ObjectIdKeys.isObjectId(id) || epochDay == Integer.MIN_VALUE || entity.getType() == null) {
+            remove(id);
+            unheld++;
+            return;
+        }
+        int k0 = ObjectIdKeys.word(id, 0);
+        int k1 = ObjectIdKeys.word(id, 1);
+        int k2 = ObjectIdKeys.word(id, 2);
+        long version = entity.getVersion() != null ? entity.getVersion() : 0L;
+
+        int slot = find(k0, k1, k2);
+        if (slot < 0) {
+            if (size >= maxEntries || (size + 1 > (mask + 1) * 3L / 4 && !grow())) {
+                if (!overflowed) {
+                    logger.warn("Transaction read model is full at {} entries; further transactions are read from MongoDB", size);
+                }
+                overflowed = true;
+                unheld++;
+                return;
+            }
+            slot = freeSlot(k0, k1, k2);
+            size++;
+        } else if (table.getLong(slot * SLOT_BYTES + VERSION_OFFSET) > version) {
+            return;
+        }
+
+        int base = slot * SLOT_BYTES;
+        table.putInt(base, k0);
+        table.putInt(base + 4, k1);
+        table.putInt(base + 8, k2);
+        table.putInt(base + USED_OFFSET, 1);
+        table.putDouble(base + AMOUNT_OFFSET, entity.getAmount());
+        table.putLong(base + VERSION_OFFSET, version);
+        table.putInt(base + EPOCH_DAY_OFFSET, epochDay);
+        table.putInt(base + TYPE_OFFSET, typeCodesByName.computeIfAbsent(entity.getType(), type -> {
+            typeNames.add(type);
+            return typeNames.size() - 1;
+        }));
+    }
+
+    /**
+     * Removes a transaction, shifting back the entries that probed past its slot.
+     * Must be called under the write lock.
+     *
+     * @param id The transaction ID.
+     */
+    private void remove(String id) {
+        if (!ObjectIdKeys.isObjectId(id)) {
+            return;
+        }
+        int hole = find(ObjectIdKeys.word(id, 0), ObjectIdKeys.word(id, 1), ObjectIdKeys.word(id, 2));
+        if (hole < 0) {
+            return;
+        }
+        size--;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int base = slot * SLOT_BYTES;
+            if (table.getInt(base + USED_OFFSET) == 0) {
+                break;
+            }
+            int home = home(table.getInt(base), table.getInt(base + 4), table.getInt(base + 8));
+            // Move the entry into the hole unless its home lies cyclically in (hole, slot]
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                copySlot(slot, hole);
+                hole = slot;
+            }
+        }
+        table.putInt(hole * SLOT_BYTES + USED_OFFSET, 0);
+    }
+
+    /**
+     * Reads a transaction from the table. Must be called under the read lock.
+     *
+     * @param id The transaction ID.
+     * @return The transaction, or {@code null} if the table does not hold it.
+     */
+    private TransactionEntity held(String id) {
+        if (!ObjectIdKeys.isObjectId(id)) {
+            return null;
+        }
+        int k0 = ObjectIdKeys.word(id, 0);
+        int k1 = ObjectIdKeys.word(id, 1);
+        int k2 = ObjectIdKeys.word(id, 2);
+        int slot = find(k0, k1, k2);
+        if (slot < 0) {
+            return null;
+        }
+        int base = slot * SLOT_BYTES;
+        return new TransactionEntity(
+                ObjectIdKeys.toHex(k0, k1, k2),
+                table.getDouble(base + AMOUNT_OFFSET),
+                LocalDate.ofEpochDay(table.getInt(base + EPOCH_DAY_OFFSET)).toString(),
+                typeNames.get(table.getInt(base + TYPE_OFFSET)));
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @return The slot, or -1 if the key is absent.
+     */
+    private int find(int k0, int k1, int k2) {
+        int slot = home(k0, k1, k2);
+        while (true) {
+            int base = slot * SLOT_BYTES;
+            if (table.getInt(base + USED_OFFSET) == 0) {
+                return -1;
+            }
+            if (table.getInt(base) == k0 && table.getInt(base + 4) == k1 && table.getInt(base + 8) == k2) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Finds the first free slot of the probe sequence of an absent key.
+     */
+    private int freeSlot(int k0, int k1, int k2) {
+        int slot = home(k0, k1, k2);
+        while (table.getInt(slot * SLOT_BYTES + USED_OFFSET) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the number of slots and rehashes every entry.
+     *
+     * @return {@code false} if the table is already at its largest size.
+     */
+    private boolean grow() {
+        int slots = mask + 1;
+        if (slots >= MAX_SLOTS) {
+            return false;
+        }
+        ByteBuffer previous = table;
+        table = ByteBuffer.allocateDirect(slots * 2 * SLOT_BYTES);
+        mask = slots * 2 - 1;
+        for (int slot = 0; slot < slots; slot++) {
+            int base = slot * SLOT_BYTES;
+            if (previous.getInt(base + USED_OFFSET) != 0) {
+                int target = freeSlot(previous.getInt(base), previous.getInt(base + 4), previous.getInt(base + 8));
+                table.put(target * SLOT_BYTES, previous, base, SLOT_BYTES);
+            }
+        }
+        return true;
+    }
+
+    private void copySlot(int from, int to) {
+        table.put(to * SLOT_BYTES, table, from * SLOT_BYTES, SLOT_BYTES);
+    }
+
+    /**
+     * Computes the home slot of a key.
+     */
+    private int home(int k0, int k1, int k2) {
+        return ObjectIdKeys.hash(k0, k1, k2) & mask;
+    }
+
+    /**
+     * Converts a {@code YYYY-MM-DD} date to days since 1970-01-01.
+     *
+     * @return The epoch day, or {@link Integer#MIN_VALUE} if the date cannot be parsed.
+     */
+    private static int toEpochDay(String date) {
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return Integer.MIN_VALUE;
+        }
+    }
+}
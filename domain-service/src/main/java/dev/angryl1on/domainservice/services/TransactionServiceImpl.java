@@ -1,19 +1,43 @@
 package dev.angryl1on.domainservice.services;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import dev.angryl1on.domainservice.configs.RabbitMqConfiguration;
-import dev.angryl1on.domainservice.models.dtos.TransactionDTO;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionOperation;
+import dev.angryl1on.domainservice.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.domainservice.models.entity.TransactionAggregateEntity;
 import dev.angryl1on.domainservice.models.entity.TransactionEntity;
 import dev.angryl1on.domainservice.repositories.TransactionRepository;
 import dev.angryl1on.grpc.*;
 import dev.angryl1on.grpc.DomainServiceGrpc;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the gRPC DomainService for managing transactions.
@@ -21,8 +45,13 @@ import java.util.Optional;
  * <p>This service provides the following operations:
  * <ul>
  *   <li>Create a new transaction</li>
+ *   <li>Create many transactions from a client stream</li>
  *   <li>Retrieve a transaction by its ID</li>
- *   <li>Retrieve all transactions</li>
+ *   <li>Retrieve many transactions by their IDs</li>
+ *   <li>Retrieve a filtered page of transactions</li>
+ *   <li>Stream all transactions matching filters</li>
+ *   <li>Retrieve transaction counts and totals per date and type</li>
+ *   <li>Run ad-hoc analytics queries over an in-memory snapshot</li>
  *   <li>Update an existing transaction</li>
  *   <li>Delete a transaction</li>
  * </ul>
@@ -40,33 +69,97 @@ import java.util.Optional;
 @Service
 public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplBase {
 
+    /**
+     * Logger for logging failed calls.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
+
+    /**
+     * Page size used when the request does not specify one.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Upper bound for the requested page size.
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Separator between the date and the ID inside a decoded page token.
+     */
+    private static final char PAGE_TOKEN_SEPARATOR = '|';
+
+    /**
+     * Maximum number of IDs accepted by a batch lookup.
+     */
+    private static final int MAX_BATCH_GET_IDS = 1000;
+
     /**
      * Repository for accessing and managing transaction data in MongoDB.
      */
     private final TransactionRepository transactionRepository;
 
     /**
-     * RabbitMQ template for sending messages to RabbitMQ exchanges.
+     * Publisher sending transaction commands to RabbitMQ.
+     */
+    private final TransactionCommandPublisher commandPublisher;
+
+    /**
+     * Service maintaining the per-date, per-type rollups.
+     */
+    private final TransactionAggregateService aggregateService;
+
+    /**
+     * In-memory snapshot serving analytics queries, or {@code null} if analytics are disabled.
+     */
+    private final TransactionColumnarSnapshot analyticsSnapshot;
+
+    /**
+     * In-memory read model serving lookups by ID, or {@code null} if the read-model mode is disabled.
+     */
+    private final TransactionReadModel readModel;
+
+    /**
+     * Maximum number of bulk-created transactions published in one AMQP message.
+     */
+    @Value("${transaction.bulk.publish-batch-size:500}")
+    private int bulkPublishBatchSize;
+
+    /**
+     * Maximum number of published bulk batches awaiting their publisher confirm per stream.
      */
-    private final RabbitTemplate rabbitTemplate;
+    @Value("${transaction.bulk.max-unconfirmed-batches:8}")
+    private int bulkMaxUnconfirmedBatches;
 
     /**
      * Constructs the TransactionServiceImpl with required dependencies.
      *
      * @param transactionRepository The repository to manage transaction data.
-     * @param rabbitTemplate        The RabbitMQ template for sending messages.
+     * @param commandPublisher      The publisher for sending commands to RabbitMQ.
+     * @param aggregateService      The service maintaining the transaction rollups.
+     * @param analyticsSnapshot     The snapshot serving analytics queries, if enabled.
+     * @param readModel             The read model serving lookups by ID, if enabled.
      */
     @Autowired
-    public TransactionServiceImpl(TransactionRepository transactionRepository, RabbitTemplate rabbitTemplate) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository,
+                                  TransactionCommandPublisher commandPublisher,
+                                  TransactionAggregateService aggregateService,
+                                  ObjectProvider<TransactionColumnarSnapshot> analyticsSnapshot,
+                                  ObjectProvider<TransactionReadModel> readModel) {
         this.transactionRepository = transactionRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.commandPublisher = commandPublisher;
+        this.aggregateService = aggregateService;
+        this.analyticsSnapshot = analyticsSnapshot.getIfAvailable();
+        this.readModel = readModel.getIfAvailable();
     }
 
     /**
      * Handles the creation of a new transaction.
      *
-     * <p>Sends a "CREATE" operation message to RabbitMQ and returns a success
-     * response to the client if the operation is successful.</p>
+     * <p>Assigns the transaction ID up front, sends a protobuf "CREATE" command message
+     * to RabbitMQ and returns a success response carrying the ID once the broker has
+     * confirmed the message. The handler does not wait for the confirm, so many
+     * creations can be in flight at once.</p>
      *
      * @param request          The gRPC request containing transaction details.
      * @param responseObserver The gRPC observer to send the response.
@@ -74,44 +167,194 @@ public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplB
     @Override
     public void createTransaction(CreateTransactionRequest request, StreamObserver<TransactionResponse> responseObserver) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            String jsonMessage = objectMapper.writeValueAsString(
-                    new TransactionDTO(
-                            null,
-                            request.getAmount(),
-                            request.getDate(),
-                            request.getType(),
-                            "CREATE"
-                    )
-            );
-            rabbitTemplate.convertAndSend(
-                    RabbitMqConfiguration.TRANSACTION_EXCHANGE,
-                    RabbitMqConfiguration.TRANSACTION_ROUTING_KEY,
-                    jsonMessage
-            );
+            String id = new ObjectId().toHexString();
+            TransactionCommand command = TransactionCommand.newBuilder()
+                    .setOperation(TransactionOperation.CREATE)
+                    .setId(id)
+                    .setAmount(request.getAmount())
+                    .setDate(request.getDate())
+                    .setType(request.getType())
+                    .build();
 
             TransactionResponse response = TransactionResponse.newBuilder()
                     .setSuccess(true)
                     .setMessage("Transaction creation request sent successfully")
+                    .setId(id)
+                    .setAmount(request.getAmount())
+                    .setDate(request.getDate())
+                    .setType(request.getType())
                     .build();
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
+            respondWhenConfirmed(commandPublisher.publish(command), response, responseObserver);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Failed to create transaction", e);
             responseObserver.onError(e);
         }
     }
 
+    /**
+     * Handles the creation of many transactions sent as a client stream.
+     *
+     * <p>Each received item is validated; valid items are assigned an ID, turned into
+     * "CREATE" commands and published to RabbitMQ in batches of
+     * {@code transaction.bulk.publish-batch-size} commands per message instead of one
+     * message per transaction. Up to {@code transaction.bulk.max-unconfirmed-batches}
+     * batches may await their publisher confirm at once. When the client completes the
+     * stream, the remaining commands are published and, once every batch is confirmed,
+     * a single response reports for every item in request order whether it was accepted
+     * (with its ID) or rejected.</p>
+     *
+     * <p>Inbound flow control is manual: the next item is only requested once the
+     * previous one has been handled and no more than the allowed number of batches await
+     * their confirm, so a slow broker slows the client down instead of buffering the
+     * stream in memory. Confirms are never waited for on the call thread; the request of
+     * the next item and the final response are chained on the confirm futures.</p>
+     *
+     * @param responseObserver The gRPC observer to send the per-item results to.
+     * @return The observer receiving the stream of transactions to create.
+     */
+    @Override
+    public StreamObserver<CreateTransactionRequest> bulkCreateTransactions(
+            StreamObserver<BulkCreateTransactionsResponse> responseObserver) {
+        ServerCallStreamObserver<BulkCreateTransactionsResponse> serverObserver =
+                (ServerCallStreamObserver<BulkCreateTransactionsResponse>) responseObserver;
+        serverObserver.disableAutoRequest();
+        serverObserver.request(1);
+
+        return new StreamObserver<>() {
+
+            private final BulkCreateTransactionsResponse.Builder response = BulkCreateTransactionsResponse.newBuilder();
+
+            private final List<TransactionCommand> pendingCommands = new ArrayList<>();
+
+            private final List<Integer> pendingIndexes = new ArrayList<>();
+
+            private final List<UnconfirmedBatch> publishedBatches = new ArrayList<>();
+
+            private final AtomicInteger unconfirmedBatches = new AtomicInteger();
+
+            // Set while the next item is held back until a batch is confirmed
+            private final AtomicBoolean paused = new AtomicBoolean();
+
+            private int received;
+
+            @Override
+            public void onNext(CreateTransactionRequest request) {
+                int index = received++;
+                BulkCreateItemResult.Builder result = response.addResultsBuilder().setIndex(index);
+
+                String error = validate(request);
+                if (error == null) {
+                    String id = new ObjectId().toHexString();
+                    result.setId(id);
+                    pendingCommands.add(TransactionCommand.newBuilder()
+                            .setOperation(TransactionOperation.CREATE)
+                            .setId(id)
+                            .setAmount(request.getAmount())
+                            .setDate(request.getDate())
+                            .setType(request.getType())
+                            .build());
+                    pendingIndexes.add(index);
+                    if (pendingCommands.size() >= bulkPublishBatchSize) {
+                        flush();
+                    }
+                } else {
+                    result.setAccepted(false).setError(error);
+                }
+
+                if (unconfirmedBatches.get() <= bulkMaxUnconfirmedBatches) {
+                    serverObserver.request(1);
+                    return;
+                }
+                // Re-checked after pausing, in case the last outstanding confirm arrived in between
+                paused.set(true);
+                resumeIfConfirmed();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The client aborted the upload; items of the unfinished batch are not published
+                logger.warn("Bulk creation aborted by client after {} items: {}", received, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                flush();
+                CompletableFuture.allOf(publishedBatches.stream()
+                                .map(UnconfirmedBatch::confirmed)
+                                .toArray(CompletableFuture[]::new))
+                        .whenComplete((ignored, error) -> respond());
+            }
+
+            private void flush() {
+                if (pendingCommands.isEmpty()) {
+                    return;
+                }
+                UnconfirmedBatch batch = new UnconfirmedBatch(
+                        commandPublisher.publishBatch(List.copyOf(pendingCommands)),
+                        List.copyOf(pendingIndexes)
+                );
+                pendingCommands.clear();
+                pendingIndexes.clear();
+
+                publishedBatches.add(batch);
+                unconfirmedBatches.incrementAndGet();
+                batch.confirmed().whenComplete((ignored, error) -> {
+                    unconfirmedBatches.decrementAndGet();
+                    resumeIfConfirmed();
+                });
+            }
+
+            private void resumeIfConfirmed() {
+                if (unconfirmedBatches.get() <= bulkMaxUnconfirmedBatches && paused.compareAndSet(true, false)) {
+                    serverObserver.request(1);
+                }
+            }
+
+            private void respond() {
+                int accepted = 0;
+                for (UnconfirmedBatch batch : publishedBatches) {
+                    Throwable error = batch.confirmed().handle((ignored, e) -> e).getNow(null);
+                    if (error == null) {
+                        for (int index : batch.indexes()) {
+                            response.getResultsBuilder(index).setAccepted(true);
+                        }
+                        accepted += batch.indexes().size();
+                        continue;
+                    }
+                    Throwable cause = rootCause(error);
+                    logger.warn("Failed to publish a bulk creation batch of {} items", batch.indexes().size(), cause);
+                    for (int index : batch.indexes()) {
+                        response.getResultsBuilder(index)
+                                .setAccepted(false)
+                                .clearId()
+                                .setError("Failed to publish: " + cause.getMessage());
+                    }
+                }
+                responseObserver.onNext(response
+                        .setAcceptedCount(accepted)
+                        .setRejectedCount(received - accepted)
+                        .build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
     /**
      * Retrieves a transaction by its ID.
      *
+     * <p>With {@code transaction.read-model.enabled}, the transaction is read from the
+     * in-memory {@link TransactionReadModel}, which falls back to MongoDB when it cannot
+     * answer.</p>
+     *
      * @param request          The gRPC request containing the transaction ID.
      * @param responseObserver The gRPC observer to send the response.
      */
     @Override
     public void getTransactionById(TransactionRequest request,
                                    StreamObserver<TransactionResponse> responseObserver) {
-        Optional<TransactionEntity> transactionOpt = transactionRepository.findById(request.getId());
+        Optional<TransactionEntity> transactionOpt = readModel != null
+                ? readModel.findById(request.getId(), transactionRepository::findById)
+                : transactionRepository.findById(request.getId());
         if (transactionOpt.isPresent()) {
             TransactionEntity entity = transactionOpt.get();
 
@@ -127,20 +370,93 @@ public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplB
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } else {
-            responseObserver.onError(new RuntimeException("Transaction not found"));
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Transaction not found: " + request.getId())
+                    .asRuntimeException());
+        }
+    }
+
+    /**
+     * Retrieves many transactions by their IDs.
+     *
+     * <p>With {@code transaction.read-model.enabled}, the transactions held by the
+     * in-memory {@link TransactionReadModel} are answered from it. The others are read
+     * with a single {@code $in} query. Found transactions are returned in the order of
+     * their first occurrence in the request, and the IDs without a stored transaction
+     * are listed separately.</p>
+     *
+     * @param request          The gRPC request containing the transaction IDs.
+     * @param responseObserver The gRPC observer to send the response.
+     */
+    @Override
+    public void batchGetTransactions(BatchGetTransactionsRequest request,
+                                     StreamObserver<BatchGetTransactionsResponse> responseObserver) {
+        Set<String> ids = new LinkedHashSet<>(request.getIdsList());
+        if (ids.size() > MAX_BATCH_GET_IDS) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At most " + MAX_BATCH_GET_IDS + " IDs can be requested at once")
+                    .asRuntimeException());
+            return;
+        }
+
+        Map<String, TransactionEntity> found;
+        if (readModel != null) {
+            found = readModel.findAllById(ids, transactionRepository::findAllById);
+        } else {
+            found = new HashMap<>();
+            for (TransactionEntity entity : transactionRepository.findAllById(ids)) {
+                found.put(entity.getId(), entity);
+            }
         }
+
+        BatchGetTransactionsResponse.Builder responseBuilder = BatchGetTransactionsResponse.newBuilder();
+        for (String id : ids) {
+            TransactionEntity entity = found.get(id);
+            if (entity != null) {
+                responseBuilder.addTransactions(toTransaction(entity));
+            } else {
+                responseBuilder.addMissingIds(id);
+            }
+        }
+
+        responseObserver.onNext(responseBuilder.build());
+        responseObserver.onCompleted();
     }
 
     /**
-     * Retrieves all transactions.
+     * Retrieves one page of transactions.
      *
-     * @param request          The gRPC request (no parameters required).
-     * @param responseObserver The gRPC observer to send the response containing all transactions.
+     * <p>The request may carry date range, type and amount range filters and a keyset
+     * cursor ({@code page_token}) returned by the previous page. Results are ordered by
+     * date and then by ID, and the response carries the cursor for the next page, which
+     * is empty once the last page has been reached.</p>
+     *
+     * @param request          The gRPC request containing the filters and paging parameters.
+     * @param responseObserver The gRPC observer to send the response containing the page.
      */
     @Override
     public void getAllTransactions(TransactionListRequest request,
                                    StreamObserver<TransactionListResponse> responseObserver) {
-        List<TransactionEntity> transactions = transactionRepository.findAll();
+        TransactionFilterDTO filter;
+        try {
+            filter = toFilter(request);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+
+        int pageSize = request.getPageSize() > 0
+                ? Math.min(request.getPageSize(), MAX_PAGE_SIZE)
+                : DEFAULT_PAGE_SIZE;
+
+        // One extra document tells whether another page exists without a count query
+        List<TransactionEntity> transactions = transactionRepository.findPage(filter, pageSize + 1);
+        boolean hasMore = transactions.size() > pageSize;
+        if (hasMore) {
+            transactions = transactions.subList(0, pageSize);
+        }
 
         TransactionListResponse.Builder responseBuilder = TransactionListResponse.newBuilder();
 
@@ -157,16 +473,159 @@ public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplB
             responseBuilder.addTransactions(transactionResponse);
         }
 
+        if (hasMore) {
+            TransactionEntity last = transactions.get(transactions.size() - 1);
+            responseBuilder.setNextPageToken(encodePageToken(last.getDate(), last.getId()));
+        }
+
         TransactionListResponse response = responseBuilder.build();
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
 
+    /**
+     * Streams all transactions matching the request filters to the client, one message per document.
+     *
+     * <p>Documents are pulled from a MongoDB cursor in chunks and are only sent while
+     * the client's transport is ready to accept more data. Neither the collection nor
+     * the pending response messages are ever fully buffered, so memory use stays flat
+     * regardless of the collection size. The cursor is closed when the stream completes,
+     * fails, or is cancelled by the client. Paging fields of the request are ignored.</p>
+     *
+     * @param request          The gRPC request containing the filters.
+     * @param responseObserver The gRPC observer to stream the transactions to.
+     */
+    @Override
+    public void streamTransactions(TransactionListRequest request,
+                                   StreamObserver<Transaction> responseObserver) {
+        ServerCallStreamObserver<Transaction> serverObserver =
+                (ServerCallStreamObserver<Transaction>) responseObserver;
+
+        TransactionFilterDTO filter = toFilter(request.toBuilder().clearPageToken().build());
+        Stream<TransactionEntity> transactions = transactionRepository.streamMatching(filter);
+        Iterator<TransactionEntity> cursor = transactions.iterator();
+        AtomicBoolean finished = new AtomicBoolean(false);
+
+        serverObserver.setOnCancelHandler(() -> {
+            if (finished.compareAndSet(false, true)) {
+                transactions.close();
+            }
+        });
+
+        serverObserver.setOnReadyHandler(() -> {
+            try {
+                while (serverObserver.isReady() && !finished.get()) {
+                    if (!cursor.hasNext()) {
+                        if (finished.compareAndSet(false, true)) {
+                            transactions.close();
+                            serverObserver.onCompleted();
+                        }
+                        return;
+                    }
+                    serverObserver.onNext(toTransaction(cursor.next()));
+                }
+            } catch (Exception e) {
+                logger.error("Failed to stream transactions", e);
+                if (finished.compareAndSet(false, true)) {
+                    transactions.close();
+                    serverObserver.onError(Status.INTERNAL
+                            .withDescription("Failed to stream transactions")
+                            .withCause(e)
+                            .asRuntimeException());
+                }
+            }
+        });
+    }
+
+    /**
+     * Retrieves the number and total amount of the transactions per date and type.
+     *
+     * <p>Figures are read from the rollups maintained on every committed write, so the
+     * cost depends on the number of dates and types in the requested range, not on the
+     * number of transactions. The rollups are then merged according to the requested
+     * grouping; an omitted grouping dimension is returned empty. Results are ordered by
+     * date and then by type.</p>
+     *
+     * @param request          The gRPC request containing the date range, type and grouping.
+     * @param responseObserver The gRPC observer to send the response.
+     */
+    @Override
+    public void getAggregates(AggregatesRequest request, StreamObserver<AggregatesResponse> responseObserver) {
+        boolean byDate = request.getGroupBy() == AggregateGrouping.GROUP_BY_DATE_AND_TYPE
+                || request.getGroupBy() == AggregateGrouping.GROUP_BY_DATE;
+        boolean byType = request.getGroupBy() == AggregateGrouping.GROUP_BY_DATE_AND_TYPE
+                || request.getGroupBy() == AggregateGrouping.GROUP_BY_TYPE;
+
+        List<TransactionAggregateEntity> rollups = aggregateService.findRollups(
+                emptyToNull(request.getDateFrom()),
+                emptyToNull(request.getDateTo()),
+                emptyToNull(request.getType()));
+
+        // Rollups are sorted by date and type, so merging keeps that order for every grouping but by type
+        Map<String, Aggregate.Builder> groups = new LinkedHashMap<>();
+        for (TransactionAggregateEntity rollup : rollups) {
+            String date = byDate ? rollup.getDate() : "";
+            String type = byType ? rollup.getType() : "";
+            Aggregate.Builder group = groups.computeIfAbsent(TransactionAggregateEntity.idOf(date, type),
+                    ignored -> Aggregate.newBuilder().setDate(date).setType(type));
+            group.setCount(group.getCount() + rollup.getCount())
+                    .setTotal(group.getTotal() + rollup.getTotal());
+        }
+
+        Stream<Aggregate.Builder> ordered = groups.values().stream();
+        if (!byDate && byType) {
+            ordered = ordered.sorted(Comparator.comparing(Aggregate.Builder::getType));
+        }
+
+        AggregatesResponse.Builder responseBuilder = AggregatesResponse.newBuilder();
+        ordered.forEach(group -> responseBuilder.addAggregates(group.build()));
+        responseObserver.onNext(responseBuilder.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Runs an ad-hoc analytics query over the in-memory columnar snapshot.
+     *
+     * <p>The request filters by date range, types and amount range, groups by type,
+     * date, month or amount bucket, and returns count, sum, min, max, mean and the
+     * requested percentiles of the amount per group. The scan runs in parallel over
+     * primitive columns and never touches MongoDB.</p>
+     *
+     * @param request          The gRPC request containing the filters, grouping and percentiles.
+     * @param responseObserver The gRPC observer to send the response.
+     */
+    @Override
+    public void queryAnalytics(AnalyticsRequest request, StreamObserver<AnalyticsResponse> responseObserver) {
+        if (analyticsSnapshot == null) {
+            responseObserver.onError(Status.UNIMPLEMENTED
+                    .withDescription("Analytics are disabled")
+                    .asRuntimeException());
+            return;
+        }
+
+        AnalyticsResponse response;
+        try {
+            response = analyticsSnapshot.query(request);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        } catch (IllegalStateException e) {
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
     /**
      * Updates an existing transaction.
      *
-     * <p>Sends an "UPDATE" operation message to RabbitMQ and returns a success
-     * response to the client if the operation is successful.</p>
+     * <p>Sends a protobuf "UPDATE" command message to RabbitMQ and returns a success
+     * response to the client once the broker has confirmed the message.</p>
      *
      * @param request          The gRPC request containing updated transaction details.
      * @param responseObserver The gRPC observer to send the response.
@@ -175,35 +634,69 @@ public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplB
     public void updateTransaction(UpdateTransactionRequest request,
                                   StreamObserver<TransactionResponse> responseObserver) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-
-            TransactionDTO dto = new TransactionDTO(
-                    request.getId(),
-                    request.getAmount(),
-                    request.getDate(),
-                    request.getType()
-            );
-            dto.setOperation("UPDATE");
+            TransactionCommand command = TransactionCommand.newBuilder()
+                    .setOperation(TransactionOperation.UPDATE)
+                    .setId(request.getId())
+                    .setAmount(request.getAmount())
+                    .setDate(request.getDate())
+                    .setType(request.getType())
+                    .build();
 
-            String jsonMessage = objectMapper.writeValueAsString(dto);
+            TransactionResponse response = TransactionResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Transaction update request sent successfully")
+                    .setId(request.getId())
+                    .build();
+            respondWhenConfirmed(commandPublisher.publish(command), response, responseObserver);
+        } catch (Exception e) {
+            logger.error("Failed to update transaction {}", request.getId(), e);
+            responseObserver.onError(e);
+        }
+    }
 
-            System.out.println("Sending JSON update message: " + jsonMessage);
+    /**
+     * Partially updates an existing transaction.
+     *
+     * <p>Sends a protobuf "PATCH" command carrying the fields named in the request's
+     * {@code update_mask} and the optional {@code amount_delta} to RabbitMQ, and returns a
+     * success response to the client once the broker has confirmed the message. The
+     * listener applies it as a single {@code updateOne} with {@code $set} and
+     * {@code $inc}, so an amount adjustment is atomic and needs no prior read. The
+     * command's sequence guards the update, so a redelivered PATCH does not add its
+     * {@code amount_delta} twice.</p>
+     *
+     * @param request          The gRPC request containing the ID, the field mask and the values.
+     * @param responseObserver The gRPC observer to send the response.
+     */
+    @Override
+    public void patchTransaction(PatchTransactionRequest request,
+                                 StreamObserver<TransactionResponse> responseObserver) {
+        String problem = validate(request);
+        if (problem != null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(problem).asRuntimeException());
+            return;
+        }
 
-            rabbitTemplate.convertAndSend(
-                    RabbitMqConfiguration.TRANSACTION_EXCHANGE,
-                    RabbitMqConfiguration.TRANSACTION_ROUTING_KEY,
-                    jsonMessage
-            );
+        try {
+            TransactionCommand.Builder command = TransactionCommand.newBuilder()
+                    .setOperation(TransactionOperation.PATCH)
+                    .setId(request.getId())
+                    .setAmount(request.getAmount())
+                    .setDate(request.getDate())
+                    .setType(request.getType())
+                    .addAllPatchFields(new LinkedHashSet<>(request.getUpdateMask().getPathsList()));
+            if (request.hasAmountDelta()) {
+                command.setAmountDelta(request.getAmountDelta());
+            }
 
             TransactionResponse response = TransactionResponse.newBuilder()
                     .setSuccess(true)
-                    .setMessage("Transaction update request sent successfully")
+                    .setMessage("Transaction patch request sent successfully")
+                    .setId(request.getId())
                     .build();
-
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
+            respondWhenConfirmed(commandPublisher.publish(command.build()), response, responseObserver);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Failed to patch transaction {}", request.getId(), e);
             responseObserver.onError(e);
         }
     }
@@ -211,8 +704,8 @@ public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplB
     /**
      * Deletes a transaction by its ID.
      *
-     * <p>Sends a "DELETE" operation message to RabbitMQ and returns a success
-     * response to the client if the operation is successful.</p>
+     * <p>Sends a protobuf "DELETE" command message to RabbitMQ and returns a success
+     * response to the client once the broker has confirmed the message.</p>
      *
      * @param request          The gRPC request containing the transaction ID.
      * @param responseObserver The gRPC observer to send the response.
@@ -220,27 +713,205 @@ public class TransactionServiceImpl extends DomainServiceGrpc.DomainServiceImplB
     @Override
     public void deleteTransaction(DeleteTransactionRequest request, StreamObserver<TransactionResponse> responseObserver) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            String jsonMessage = objectMapper.writeValueAsString(
-                    new TransactionDTO(
-                            request.getId(),
-                            null,
-                            null,
-                            null,
-                            "DELETE"
-                    )
-            );
-            rabbitTemplate.convertAndSend(RabbitMqConfiguration.TRANSACTION_EXCHANGE, RabbitMqConfiguration.TRANSACTION_ROUTING_KEY, jsonMessage);
-
+            TransactionCommand command = TransactionCommand.newBuilder()
+                    .setOperation(TransactionOperation.DELETE)
+                    .setId(request.getId())
+                    .build();
             TransactionResponse response = TransactionResponse.newBuilder()
                     .setSuccess(true)
                     .setMessage("Transaction deletion request sent successfully")
+                    .setId(request.getId())
                     .build();
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
+            respondWhenConfirmed(commandPublisher.publish(command), response, responseObserver);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Failed to delete transaction {}", request.getId(), e);
             responseObserver.onError(e);
         }
     }
+
+    /**
+     * Converts a stored transaction into its gRPC representation.
+     *
+     * @param entity The transaction entity loaded from MongoDB.
+     * @return The corresponding {@link Transaction} message.
+     */
+    private Transaction toTransaction(TransactionEntity entity) {
+        return Transaction.newBuilder()
+                .setId(entity.getId())
+                .setAmount(entity.getAmount())
+                .setDate(entity.getDate())
+                .setType(entity.getType())
+                .build();
+    }
+
+    /**
+     * Completes a write call once its command has been confirmed by the broker.
+     *
+     * @param confirmed        The future of the publisher confirm.
+     * @param response         The response to send on success.
+     * @param responseObserver The gRPC observer of the call.
+     */
+    private static void respondWhenConfirmed(CompletableFuture<Void> confirmed,
+                                             TransactionResponse response,
+                                             StreamObserver<TransactionResponse> responseObserver) {
+        confirmed.whenComplete((ignored, error) -> {
+            if (error != null) {
+                Throwable cause = rootCause(error);
+                logger.warn("Failed to publish command {}", response.getId(), cause);
+                responseObserver.onError(Status.UNAVAILABLE
+                        .withDescription("Failed to publish: " + cause.getMessage())
+                        .withCause(cause)
+                        .asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        });
+    }
+
+    /**
+     * Unwraps the exception wrapper added by {@link CompletableFuture} composition.
+     *
+     * @param error The error reported by a future.
+     * @return The underlying cause.
+     */
+    private static Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Validates a transaction creation request.
+     *
+     * @param request The creation request.
+     * @return A description of the first problem found, or {@code null} if the request is valid.
+     */
+    private static String validate(CreateTransactionRequest request) {
+        if (!Double.isFinite(request.getAmount())) {
+            return "Amount must be a finite number";
+        }
+        if (request.getType().isBlank()) {
+            return "Type is required";
+        }
+        try {
+            LocalDate.parse(request.getDate());
+        } catch (DateTimeParseException e) {
+            return "Date must be in YYYY-MM-DD format";
+        }
+        return null;
+    }
+
+    /**
+     * Validates a partial update request.
+     *
+     * @param request The patch request.
+     * @return A description of the first problem found, or {@code null} if the request is valid.
+     */
+    private static String validate(PatchTransactionRequest request) {
+        if (request.getId().isEmpty()) {
+            return "ID is required";
+        }
+        List<String> paths = request.getUpdateMask().getPathsList();
+        if (paths.isEmpty() && !request.hasAmountDelta()) {
+            return "Nothing to update: update_mask is empty and amount_delta is not set";
+        }
+        for (String path : paths) {
+            switch (path) {
+                case "amount" -> {
+                    if (request.hasAmountDelta()) {
+                        return "amount and amount_delta cannot be combined";
+                    }
+                    if (!Double.isFinite(request.getAmount())) {
+                        return "Amount must be a finite number";
+                    }
+                }
+                case "date" -> {
+                    try {
+                        LocalDate.parse(request.getDate());
+                    } catch (DateTimeParseException e) {
+                        return "Date must be in YYYY-MM-DD format";
+                    }
+                }
+                case "type" -> {
+                    if (request.getType().isBlank()) {
+                        return "Type is required";
+                    }
+                }
+                default -> {
+                    return "Unknown field in update_mask: " + path;
+                }
+            }
+        }
+        if (request.hasAmountDelta() && !Double.isFinite(request.getAmountDelta())) {
+            return "Amount delta must be a finite number";
+        }
+        return null;
+    }
+
+    /**
+     * Builds the repository filter from a list request.
+     *
+     * @param request The gRPC list request.
+     * @return The corresponding {@link TransactionFilterDTO}.
+     * @throws IllegalArgumentException If the page token is malformed.
+     */
+    private TransactionFilterDTO toFilter(TransactionListRequest request) {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setDateFrom(emptyToNull(request.getDateFrom()));
+        filter.setDateTo(emptyToNull(request.getDateTo()));
+        filter.setType(emptyToNull(request.getType()));
+        if (request.hasAmountMin()) {
+            filter.setAmountMin(request.getAmountMin());
+        }
+        if (request.hasAmountMax()) {
+            filter.setAmountMax(request.getAmountMax());
+        }
+
+        if (!request.getPageToken().isEmpty()) {
+            String cursor;
+            try {
+                cursor = new String(Base64.getUrlDecoder().decode(request.getPageToken()), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed page token");
+            }
+            int separator = cursor.lastIndexOf(PAGE_TOKEN_SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed page token");
+            }
+            filter.setAfterDate(cursor.substring(0, separator));
+            filter.setAfterId(cursor.substring(separator + 1));
+        }
+        return filter;
+    }
+
+    /**
+     * Encodes the keyset cursor pointing after the given transaction.
+     *
+     * @param date The date of the last transaction of the page.
+     * @param id   The ID of the last transaction of the page.
+     * @return An opaque, URL-safe page token.
+     */
+    private static String encodePageToken(String date, String id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((date + PAGE_TOKEN_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Maps the proto3 default of an unset string field to {@code null}.
+     *
+     * @param value The field value.
+     * @return {@code null} if the value is empty, the value otherwise.
+     */
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * A published bulk batch with its publisher confirm.
+     *
+     * @param confirmed The future of the publisher confirm.
+     * @param indexes   The stream positions of the items in the batch.
+     */
+    private record UnconfirmedBatch(CompletableFuture<Void> confirmed, List<Integer> indexes) {
+    }
 }
@@ -0,0 +1,554 @@
+package dev.angryl1on.domainservice.services;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionOperation;
+import dev.angryl1on.domainservice.models.entity.TransactionEntity;
+import dev.angryl1on.domainservice.models.entity.TransactionTombstoneEntity;
+import dev.angryl1on.domainservice.models.events.ChangeOperation;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service applying transaction write operations to MongoDB in bulk.
+ *
+ * <p>A batch of CREATE, UPDATE and DELETE operations is translated into unordered
+ * MongoDB {@code bulkWrite} calls instead of one round trip per operation. Because an
+ * unordered bulk gives no ordering guarantee between its operations, the batch is split
+ * into rounds: round <i>n</i> holds the <i>n</i>-th operation of every transaction ID,
+ * and rounds are executed one after another. Operations on the same ID are therefore
+ * applied in the order they were received, while a batch without repeated IDs is
+ * written in a single round trip.</p>
+ *
+ * <p>Before that, when {@code transaction.write.coalescing.enabled} is {@code true},
+ * consecutive commands on the same ID that a later one fully supersedes are dropped: an
+ * UPDATE or PATCH followed by an UPDATE or a DELETE, and a DELETE repeated. Updates carry
+ * the full state, so only the last one of a burst is written. How many commands are
+ * coalesced depends on the batch, and so on {@code transaction.listener.batch.linger-ms}
+ * with the batch listener.</p>
+ *
+ * <p>Commands carry the {@code sequence} assigned by the publisher, and every write
+ * records it as the transaction's {@code lastSequence}. An UPDATE only matches while the
+ * stored sequence is lower than its own, and so does a PATCH, whose {@code $inc} of the
+ * amount would otherwise be added again on every replay. A command replayed after a
+ * partial failure,
+ * or retried through a delay tier after a newer command was applied, leaves the
+ * transaction untouched instead of overwriting it. Legacy commands without a sequence
+ * are not guarded.</p>
+ *
+ * <p>A DELETE also leaves a {@link TransactionTombstoneEntity} holding its sequence,
+ * written before the transaction is removed. A CREATE whose ID has a tombstone at or
+ * above its own sequence is skipped, so a CREATE redelivered from a retry tier or the
+ * parking queue after the transaction was deleted does not bring it back.</p>
+ *
+ * <p>Every write increments the transaction's {@code version}. When
+ * {@link TransactionChangeListener} beans are present, the current state of the
+ * transactions of a round is read with a single query before the bulk write, the
+ * listeners are told about the expected changes before it is executed, and about the
+ * applied changes once it has been acknowledged. When the bulk write fails part way,
+ * the listeners are still told about the operations that did apply (those without a
+ * write error) before the failure is rethrown: on retry, the read state already
+ * includes them, so they would otherwise never be reported. Failures of listeners
+ * after the write are logged and do not fail it; listeners that keep derived state
+ * must repair it on their own (see {@link TransactionAggregateService}).</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class TransactionWriteService {
+
+    /**
+     * Logger for logging write operations.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionWriteService.class);
+
+    /**
+     * Template used to execute bulk operations.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Listeners notified of committed changes.
+     */
+    private final List<TransactionChangeListener> changeListeners;
+
+    /**
+     * Measurements of the command consumers, recording the bulk write durations.
+     */
+    private final TransactionConsumerMetrics consumerMetrics;
+
+    /**
+     * Whether superseded commands of a batch are dropped before writing.
+     */
+    @Value("${transaction.write.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    /**
+     * Constructs the {@code TransactionWriteService} with the provided template.
+     *
+     * @param mongoTemplate   The template to use for database operations.
+     * @param changeListeners The listeners notified of committed changes.
+     * @param consumerMetrics The measurements recording the bulk write durations.
+     */
+    @Autowired
+    public TransactionWriteService(MongoTemplate mongoTemplate,
+                                   ObjectProvider<TransactionChangeListener> changeListeners,
+                                   TransactionConsumerMetrics consumerMetrics) {
+        this.mongoTemplate = mongoTemplate;
+        this.changeListeners = changeListeners.orderedStream().toList();
+        this.consumerMetrics = consumerMetrics;
+    }
+
+    /**
+     * Applies a batch of write operations.
+     *
+     * <p>Each command's {@code operation} field selects the action:
+     * <ul>
+     *   <li>CREATE: Inserts the transaction under the ID assigned by the publisher, unless
+     *       a transaction with that ID already exists or was deleted by a newer command,
+     *       so a redelivered command has no effect. Legacy commands without an ID are
+     *       given a new one.</li>
+     *   <li>UPDATE: Overwrites amount, date and type of an existing transaction, if it exists
+     *       and has not yet received this or a newer command.</li>
+     *   <li>PATCH: Sets the fields named in {@code patch_fields} and adds {@code amount_delta}
+     *       to the amount of an existing transaction, if it exists and has not yet received
+     *       this or a newer command, with {@code $set} and {@code $inc} in the same
+     *       {@code updateOne}; applying it once only makes the amount adjustment safe to
+     *       replay.</li>
+     *   <li>DELETE: Records a tombstone, then deletes a transaction by its ID.</li>
+     * </ul>
+     * Commands with an unknown operation are skipped. Each written UPDATE increments the
+     * version once, so a coalesced burst of updates counts as one.</p>
+     *
+     * @param commands The commands to apply, in the order they were received.
+     */
+    public void applyBatch(List<TransactionCommand> commands) {
+        List<TransactionCommand> identified = new ArrayList<>(commands.size());
+        for (TransactionCommand command : commands) {
+            if (command.getId().isEmpty()) {
+                command = command.toBuilder().setId(new ObjectId().toHexString()).build();
+            }
+            identified.add(command);
+        }
+        List<TransactionCommand> effective = coalescingEnabled ? coalesce(identified) : identified;
+        consumerMetrics.recordCoalescing(identified.size(), identified.size() - effective.size());
+
+        List<List<TransactionCommand>> rounds = new ArrayList<>();
+        Map<String, Integer> commandsPerId = new HashMap<>();
+        for (TransactionCommand command : effective) {
+            int round = commandsPerId.merge(command.getId(), 1, Integer::sum) - 1;
+            while (rounds.size() <= round) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(command);
+        }
+
+        for (List<TransactionCommand> round : rounds) {
+            applyRound(round);
+        }
+    }
+
+    /**
+     * Drops the commands superseded by the next command on the same ID.
+     *
+     * <p>A command replaces the previous kept command of its ID in place when that one
+     * is an UPDATE or a PATCH and the new one an UPDATE or a DELETE, and is dropped when
+     * both are DELETEs. A CREATE is never merged: it only inserts when the ID is absent, so
+     * an UPDATE after it must still be written. A PATCH is never merged into a previous
+     * command, as it depends on the fields it leaves untouched.</p>
+     *
+     * @param commands The commands, in the order they were received.
+     * @return The commands to write, keeping the order of the commands on each ID.
+     */
+    static List<TransactionCommand> coalesce(List<TransactionCommand> commands) {
+        List<TransactionCommand> kept = new ArrayList<>(commands.size());
+        Map<String, Integer> lastKept = new HashMap<>();
+        for (TransactionCommand command : commands) {
+            Integer index = lastKept.get(command.getId());
+            TransactionOperation previous = index != null ? kept.get(index).getOperation() : null;
+            TransactionOperation operation = command.getOperation();
+            if ((previous == TransactionOperation.UPDATE || previous == TransactionOperation.PATCH)
+                    && (operation == TransactionOperation.UPDATE || operation == TransactionOperation.DELETE)) {
+                kept.set(index, command);
+            } else if (previous == TransactionOperation.DELETE && operation == TransactionOperation.DELETE) {
+                // The transaction is already gone
+                continue;
+            } else {
+                lastKept.put(command.getId(), kept.size());
+                kept.add(command);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Applies commands on distinct transaction IDs as a single unordered bulk write.
+     *
+     * @param commands The commands of one round.
+     */
+    private void applyRound(List<TransactionCommand> commands) {
+        Map<String, Long> tombstones = findTombstones(commands);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionEntity.class);
+        List<TransactionCommand> queued = new ArrayList<>();
+        List<TransactionCommand> deletes = new ArrayList<>();
+
+        for (TransactionCommand command : commands) {
+            switch (command.getOperation()) {
+                case CREATE -> {
+                    Long deletedBy = tombstones.get(command.getId());
+                    if (deletedBy != null && (command.getSequence() == 0 || deletedBy >= command.getSequence())) {
+                        logger.info("Skipping CREATE of deleted transaction {}", command.getId());
+                        continue;
+                    }
+                    bulk.upsert(byId(command.getId()), new Update()
+                            .setOnInsert("amount", command.getAmount())
+                            .setOnInsert("date", command.getDate())
+                            .setOnInsert("type", command.getType())
+                            .setOnInsert("version", 1L)
+                            .setOnInsert("lastSequence", command.getSequence()));
+                }
+                case UPDATE -> bulk.updateOne(bySequence(command), sequenced(command, new Update()
+                        .set("amount", command.getAmount())
+                        .set("date", command.getDate())
+                        .set("type", command.getType())
+                        .inc("version", 1L)));
+                case PATCH -> bulk.updateOne(bySequence(command), sequenced(command, toPatch(command)));
+                case DELETE -> {
+                    bulk.remove(byId(command.getId()));
+                    deletes.add(command);
+                }
+                default -> {
+                    logger.warn("Unknown operation: {}", command.getOperation());
+                    continue;
+                }
+            }
+            queued.add(command);
+        }
+
+        if (queued.isEmpty()) {
+            return;
+        }
+        if (!deletes.isEmpty()) {
+            recordTombstones(deletes);
+        }
+
+        Map<String, TransactionEntity> before = changeListeners.isEmpty() ? Map.of() : findCurrent(queued);
+        List<TransactionChange> changes = changeListeners.isEmpty() ? List.of() : toChanges(queued, before);
+        for (TransactionChangeListener listener : changeListeners) {
+            listener.beforeChanges(changes);
+        }
+
+        long started = System.nanoTime();
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            consumerMetrics.recordWrite(System.nanoTime() - started);
+            logger.warn("Bulk write partly failed: {} of {} operations failed, upserted={}, modified={}, deleted={}",
+                    e.getErrors().size(), queued.size(), e.getResult().getUpserts().size(),
+                    e.getResult().getModifiedCount(), e.getResult().getDeletedCount());
+            if (!changeListeners.isEmpty()) {
+                notifyListeners(toChanges(appliedOf(queued, e.getErrors()), before));
+            }
+            throw e;
+        }
+        consumerMetrics.recordWrite(System.nanoTime() - started);
+        logger.info("Bulk write applied: upserted={}, matched={}, modified={}, deleted={}",
+                result.getUpserts().size(), result.getMatchedCount(),
+                result.getModifiedCount(), result.getDeletedCount());
+
+        if (!changeListeners.isEmpty()) {
+            notifyListeners(changes);
+        }
+    }
+
+    /**
+     * Reads the tombstones of the transactions created by a round.
+     *
+     * @param commands The commands of the round.
+     * @return The sequence of the last DELETE of every deleted transaction, by ID.
+     */
+    private Map<String, Long> findTombstones(List<TransactionCommand> commands) {
+        List<String> created = commands.stream()
+                .filter(command -> command.getOperation() == TransactionOperation.CREATE)
+                .map(TransactionCommand::getId)
+                .toList();
+        if (created.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> tombstones = new HashMap<>();
+        for (TransactionTombstoneEntity tombstone : mongoTemplate.find(
+                Query.query(Criteria.where("id").in(created)), TransactionTombstoneEntity.class)) {
+            tombstones.put(tombstone.getId(), tombstone.getLastSequence());
+        }
+        return tombstones;
+    }
+
+    /**
+     * Records the tombstones of the transactions deleted by a round, keeping the highest
+     * sequence of each.
+     *
+     * @param deletes The DELETE commands of the round.
+     */
+    private void recordTombstones(List<TransactionCommand> deletes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionTombstoneEntity.class);
+        Date deletedAt = new Date();
+        for (TransactionCommand command : deletes) {
+            bulk.upsert(byId(command.getId()), new Update()
+                    .max("lastSequence", command.getSequence())
+                    .set("deletedAt", deletedAt));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Selects the commands of a partly failed unordered bulk write that were applied.
+     *
+     * @param queued The commands, in the order of their bulk operations.
+     * @param errors The write errors, indexed by bulk operation.
+     * @return The commands whose operation did not fail.
+     */
+    private static List<TransactionCommand> appliedOf(List<TransactionCommand> queued, List<BulkWriteError> errors) {
+        Set<Integer> failed = new HashSet<>();
+        for (BulkWriteError error : errors) {
+            failed.add(error.getIndex());
+        }
+        List<TransactionCommand> applied = new ArrayList<>(queued.size() - failed.size());
+        for (int index = 0; index < queued.size(); index++) {
+            if (!failed.contains(index)) {
+                applied.add(queued.get(index));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Reads the current state of the transactions targeted by a round.
+     *
+     * @param commands The commands of the round.
+     * @return The existing transactions, by ID.
+     */
+    private Map<String, TransactionEntity> findCurrent(List<TransactionCommand> commands) {
+        List<String> ids = commands.stream().map(TransactionCommand::getId).toList();
+        Map<String, TransactionEntity> current = new HashMap<>();
+        for (TransactionEntity entity : mongoTemplate.find(Query.query(Criteria.where("id").in(ids)), TransactionEntity.class)) {
+            current.put(entity.getId(), entity);
+        }
+        return current;
+    }
+
+    /**
+     * Derives the changes applied by a round from its commands and the prior state.
+     *
+     * @param commands The commands of the round.
+     * @param before   The transactions as they were before the round, by ID.
+     * @return The changes actually applied.
+     */
+    private static List<TransactionChange> toChanges(List<TransactionCommand> commands,
+                                                     Map<String, TransactionEntity> before) {
+        List<TransactionChange> changes = new ArrayList<>();
+        for (TransactionCommand command : commands) {
+            TransactionEntity previous = before.get(command.getId());
+            switch (command.getOperation()) {
+                case CREATE -> {
+                    // An existing transaction means the command was redelivered and had no effect
+                    if (previous == null) {
+                        changes.add(new TransactionChange(command.getId(), ChangeOperation.CREATED, 1L,
+                                null, toEntity(command, 1L)));
+                    }
+                }
+                case UPDATE -> {
+                    if (previous != null && isNewer(command, previous)) {
+                        long version = nextVersion(previous);
+                        changes.add(new TransactionChange(command.getId(), ChangeOperation.UPDATED, version,
+                                previous, toEntity(command, version)));
+                    }
+                }
+                case PATCH -> {
+                    if (previous != null && isNewer(command, previous)) {
+                        long version = nextVersion(previous);
+                        changes.add(new TransactionChange(command.getId(), ChangeOperation.UPDATED, version,
+                                previous, patched(previous, command, version)));
+                    }
+                }
+                case DELETE -> {
+                    if (previous != null) {
+                        changes.add(new TransactionChange(command.getId(), ChangeOperation.DELETED,
+                                nextVersion(previous), previous, null));
+                    }
+                }
+                default -> {
+                    // Unknown operations were not written
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Hands committed changes to the listeners, isolating their failures.
+     *
+     * @param changes The committed changes.
+     */
+    private void notifyListeners(List<TransactionChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (TransactionChangeListener listener : changeListeners) {
+            try {
+                listener.onChanges(changes);
+            } catch (Exception e) {
+                logger.error("Change listener {} failed for {} changes", listener.getClass().getSimpleName(),
+                        changes.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Builds the stored state written by a CREATE or UPDATE command.
+     *
+     * @param command The command.
+     * @param version The version after the write.
+     * @return The resulting transaction.
+     */
+    private static TransactionEntity toEntity(TransactionCommand command, long version) {
+        TransactionEntity entity = new TransactionEntity(
+                command.getId(),
+                command.getAmount(),
+                command.getDate(),
+                command.getType()
+        );
+        entity.setVersion(version);
+        entity.setLastSequence(command.getSequence());
+        return entity;
+    }
+
+    /**
+     * Builds the update written by a PATCH command.
+     *
+     * @param command The command.
+     * @return The {@code $set} of the named fields and the {@code $inc} of the amount and version.
+     */
+    private static Update toPatch(TransactionCommand command) {
+        Update update = new Update();
+        for (String field : command.getPatchFieldsList()) {
+            switch (field) {
+                case "amount" -> update.set("amount", command.getAmount());
+                case "date" -> update.set("date", command.getDate());
+                case "type" -> update.set("type", command.getType());
+                default -> logger.warn("Unknown patch field: {}", field);
+            }
+        }
+        if (command.hasAmountDelta()) {
+            update.inc("amount", command.getAmountDelta());
+        }
+        return update.inc("version", 1L);
+    }
+
+    /**
+     * Builds the stored state written by a PATCH command.
+     *
+     * @param current The transaction before the write.
+     * @param command The command.
+     * @param version The version after the write.
+     * @return The resulting transaction.
+     */
+    private static TransactionEntity patched(TransactionEntity current, TransactionCommand command, long version) {
+        List<String> fields = command.getPatchFieldsList();
+        double amount = fields.contains("amount") ? command.getAmount() : current.getAmount();
+        if (command.hasAmountDelta()) {
+            amount += command.getAmountDelta();
+        }
+        TransactionEntity entity = new TransactionEntity(
+                current.getId(),
+                amount,
+                fields.contains("date") ? command.getDate() : current.getDate(),
+                fields.contains("type") ? command.getType() : current.getType()
+        );
+        entity.setVersion(version);
+        entity.setLastSequence(command.getSequence());
+        return entity;
+    }
+
+    /**
+     * Computes the version of a transaction after one more write.
+     *
+     * @param current The transaction before the write.
+     * @return The next version.
+     */
+    private static long nextVersion(TransactionEntity current) {
+        return current.getVersion() == null ? 1L : current.getVersion() + 1;
+    }
+
+    /**
+     * Tells whether a command is newer than the last one written to a transaction.
+     *
+     * @param command The command.
+     * @param current The transaction before the write.
+     * @return {@code true} if the command would be written.
+     */
+    private static boolean isNewer(TransactionCommand command, TransactionEntity current) {
+        return command.getSequence() == 0
+                || current.getLastSequence() == null
+                || current.getLastSequence() < command.getSequence();
+    }
+
+    /**
+     * Builds a query matching a transaction by its ID, as long as it has not received
+     * this or a newer command.
+     *
+     * @param command The command.
+     * @return The guarded ID {@link Query}.
+     */
+    private static Query bySequence(TransactionCommand command) {
+        Criteria criteria = Criteria.where("id").is(command.getId());
+        if (command.getSequence() != 0) {
+            // Also matches documents written before sequencing
+            criteria.and("lastSequence").not().gte(command.getSequence());
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * Records the sequence of a command in the update it writes.
+     *
+     * @param command The command.
+     * @param update  The update of the command.
+     * @return The update.
+     */
+    private static Update sequenced(TransactionCommand command, Update update) {
+        return command.getSequence() != 0 ? update.set("lastSequence", command.getSequence()) : update;
+    }
+
+    /**
+     * Builds a query matching a single transaction by its ID.
+     *
+     * @param id The transaction ID.
+     * @return The ID {@link Query}.
+     */
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id));
+    }
+}
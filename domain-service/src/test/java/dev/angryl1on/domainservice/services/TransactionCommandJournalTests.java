@@ -0,0 +1,248 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Recovery and relay tests of {@link TransactionCommandJournal}, run against segment
+ * files in a temporary directory without a Spring context.
+ */
+class TransactionCommandJournalTests {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private static final int HEADER_SIZE = 8;
+
+    @TempDir
+    Path directory;
+
+    private final List<TransactionCommandJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        opened.forEach(TransactionCommandJournal::close);
+    }
+
+    @Test
+    void relaysAppendedCommandsInOrder() throws Exception {
+        TransactionCommandJournal journal = open();
+        BlockingQueue<String> relayed = new LinkedBlockingQueue<>();
+        journal.startRelay(collectingInto(relayed));
+
+        journal.append(List.of(command(1), command(2))).get(5, TimeUnit.SECONDS);
+        journal.append(List.of(command(3))).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("id-1", "id-2", "id-3"), take(relayed, 3));
+    }
+
+    @Test
+    void discardsTornTailAndAppendsAfterLastCompleteRecord() throws Exception {
+        TransactionCommandJournal journal = open();
+        journal.append(List.of(command(1), command(2))).get(5, TimeUnit.SECONDS);
+        close(journal);
+
+        // A crash in the middle of an append leaves a partly written record behind the last one
+        int end = recordSize(command(1)) + recordSize(command(2));
+        fill(segment(0), end, 200, (byte) 0x5A);
+
+        journal = open();
+        BlockingQueue<String> relayed = new LinkedBlockingQueue<>();
+        journal.startRelay(collectingInto(relayed));
+        assertEquals(List.of("id-1", "id-2"), take(relayed, 2));
+
+        journal.append(List.of(command(3))).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("id-3"), take(relayed, 1));
+        close(journal);
+
+        assertEquals(0, readInt(segment(0), end + recordSize(command(3))));
+    }
+
+    @Test
+    void stopsAtFirstRecordWithBadChecksum() throws Exception {
+        TransactionCommandJournal journal = open();
+        journal.append(List.of(command(1), command(2), command(3))).get(5, TimeUnit.SECONDS);
+        close(journal);
+
+        int second = recordSize(command(1));
+        flipByte(segment(0), second + HEADER_SIZE);
+
+        journal = open();
+        BlockingQueue<String> relayed = new LinkedBlockingQueue<>();
+        journal.startRelay(collectingInto(relayed));
+        assertEquals(List.of("id-1"), take(relayed, 1));
+        assertNull(relayed.poll(200, TimeUnit.MILLISECONDS));
+
+        // The records after the corrupt one are cleared and overwritten by new appends
+        journal.append(List.of(command(4))).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("id-4"), take(relayed, 1));
+    }
+
+    @Test
+    void retriesFailedBatchUntilConfirmed() throws Exception {
+        TransactionCommandJournal journal = open();
+        BlockingQueue<String> relayed = new LinkedBlockingQueue<>();
+        AtomicInteger attempts = new AtomicInteger();
+        journal.startRelay(commands -> attempts.incrementAndGet() <= 2
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+                : collectingInto(relayed).apply(commands));
+
+        journal.append(List.of(command(1), command(2))).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("id-1", "id-2"), take(relayed, 2));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void replaysUnconfirmedCommandsFromCursorAfterRestart() throws Exception {
+        TransactionCommandJournal journal = open();
+        journal.startRelay(collectingInto(new LinkedBlockingQueue<>()));
+        journal.append(List.of(command(1))).get(5, TimeUnit.SECONDS);
+        awaitCursor(recordSize(command(1)));
+        close(journal);
+
+        journal = open();
+        journal.startRelay(commands -> CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+        journal.append(List.of(command(2), command(3))).get(5, TimeUnit.SECONDS);
+        close(journal);
+
+        journal = open();
+        BlockingQueue<String> relayed = new LinkedBlockingQueue<>();
+        journal.startRelay(collectingInto(relayed));
+        assertEquals(List.of("id-2", "id-3"), take(relayed, 2));
+        assertNull(relayed.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void relaysAcrossSegmentsAndDeletesRelayedOnes() throws Exception {
+        TransactionCommandJournal journal = open();
+        BlockingQueue<String> relayed = new LinkedBlockingQueue<>();
+        journal.startRelay(collectingInto(relayed));
+
+        int count = 3 * SEGMENT_SIZE / recordSize(command(100));
+        List<String> expected = new ArrayList<>();
+        for (int index = 100; index < 100 + count; index++) {
+            journal.append(List.of(command(index))).get(5, TimeUnit.SECONDS);
+            expected.add("id-" + index);
+        }
+
+        assertEquals(expected, take(relayed, count));
+        journal.append(List.of(command(1))).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("id-1"), take(relayed, 1));
+        assertFalse(segment(0).toFile().exists());
+    }
+
+    private TransactionCommandJournal open() throws IOException {
+        TransactionCommandJournal journal = new TransactionCommandJournal();
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeBytes", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(journal, "maxSegments", 16);
+        ReflectionTestUtils.setField(journal, "relayBatchSize", 500);
+        ReflectionTestUtils.setField(journal, "relayRetryMs", 10L);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private void close(TransactionCommandJournal journal) {
+        opened.remove(journal);
+        journal.close();
+    }
+
+    private static Function<List<TransactionCommand>, CompletableFuture<Void>> collectingInto(BlockingQueue<String> relayed) {
+        return commands -> {
+            commands.forEach(command -> relayed.add(command.getId()));
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private static List<String> take(BlockingQueue<String> relayed, int count) throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        while (ids.size() < count) {
+            String id = relayed.poll(5, TimeUnit.SECONDS);
+            if (id == null) {
+                break;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void awaitCursor(int offset) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Path cursor = directory.resolve("cursor");
+        while (System.nanoTime() < deadline) {
+            if (cursor.toFile().length() == 12 && readInt(cursor, 8) == offset) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Cursor did not reach offset " + offset);
+    }
+
+    private static TransactionCommand command(int index) {
+        return TransactionCommand.newBuilder()
+                .setOperation(TransactionOperation.CREATE)
+                .setId("id-" + index)
+                .setAmount(index)
+                .setDate("2024-01-01")
+                .setType("deposit")
+                .setSequence(index)
+                .build();
+    }
+
+    private static int recordSize(TransactionCommand command) {
+        return HEADER_SIZE + command.getSerializedSize();
+    }
+
+    private Path segment(long sequence) {
+        return directory.resolve(String.format("%020d.journal", sequence));
+    }
+
+    private static int readInt(Path path, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            channel.read(buffer, offset);
+            return buffer.getInt(0);
+        }
+    }
+
+    private static void fill(Path path, int offset, int length, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            byte[] bytes = new byte[length];
+            Arrays.fill(bytes, value);
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    private static void flipByte(Path path, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, offset);
+            buffer.put(0, (byte) (buffer.get(0) ^ 0xFF)).rewind();
+            channel.write(buffer, offset);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.angryl1on.domainservice.services;
+
+import dev.angryl1on.domainservice.models.commands.TransactionCommand;
+import dev.angryl1on.domainservice.models.commands.TransactionOperation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the supersede rules applied by {@link TransactionWriteService} to the
+ * commands of a batch before writing them.
+ */
+class TransactionWriteServiceCoalescingTests {
+
+    @Test
+    void updateSupersedesPreviousUpdate() {
+        TransactionCommand first = update("a", 1, 1);
+        TransactionCommand second = update("a", 2, 2);
+
+        assertEquals(List.of(second), TransactionWriteService.coalesce(List.of(first, second)));
+    }
+
+    @Test
+    void updateSupersedesPreviousPatch() {
+        TransactionCommand patch = patch("a", 1);
+        TransactionCommand update = update("a", 2, 2);
+
+        assertEquals(List.of(update), TransactionWriteService.coalesce(List.of(patch, update)));
+    }
+
+    @Test
+    void deleteSupersedesPreviousUpdateAndPatch() {
+        TransactionCommand update = update("a", 1, 1);
+        TransactionCommand patch = patch("b", 2);
+        TransactionCommand deleteA = delete("a", 3);
+        TransactionCommand deleteB = delete("b", 4);
+
+        assertEquals(List.of(deleteA, deleteB),
+                TransactionWriteService.coalesce(List.of(update, patch, deleteA, deleteB)));
+    }
+
+    @Test
+    void repeatedDeleteIsDropped() {
+        TransactionCommand first = delete("a", 1);
+        TransactionCommand second = delete("a", 2);
+
+        assertEquals(List.of(first), TransactionWriteService.coalesce(List.of(first, second)));
+    }
+
+    @Test
+    void createIsNeverSuperseded() {
+        TransactionCommand create = create("a", 1);
+        TransactionCommand update = update("a", 2, 2);
+        TransactionCommand delete = delete("a", 3);
+
+        assertEquals(List.of(create, update), TransactionWriteService.coalesce(List.of(create, update)));
+        assertEquals(List.of(create, delete), TransactionWriteService.coalesce(List.of(create, delete)));
+    }
+
+    @Test
+    void createAfterDeleteIsKept() {
+        TransactionCommand delete = delete("a", 1);
+        TransactionCommand create = create("a", 2);
+
+        assertEquals(List.of(delete, create), TransactionWriteService.coalesce(List.of(delete, create)));
+    }
+
+    @Test
+    void patchNeverSupersedesPreviousCommand() {
+        TransactionCommand update = update("a", 1, 1);
+        TransactionCommand patch = patch("a", 2);
+        TransactionCommand secondPatch = patch("a", 3);
+
+        assertEquals(List.of(update, patch, secondPatch),
+                TransactionWriteService.coalesce(List.of(update, patch, secondPatch)));
+    }
+
+    @Test
+    void supersedingCommandTakesPlaceOfSupersededOne() {
+        TransactionCommand updateA = update("a", 1, 1);
+        TransactionCommand updateB = update("b", 2, 2);
+        TransactionCommand secondUpdateA = update("a", 3, 3);
+
+        assertEquals(List.of(secondUpdateA, updateB),
+                TransactionWriteService.coalesce(List.of(updateA, updateB, secondUpdateA)));
+    }
+
+    @Test
+    void commandAfterDeleteIsKept() {
+        TransactionCommand update = update("a", 1, 1);
+        TransactionCommand delete = delete("a", 2);
+        TransactionCommand create = create("a", 3);
+        TransactionCommand secondUpdate = update("a", 4, 4);
+
+        assertEquals(List.of(delete, create, secondUpdate),
+                TransactionWriteService.coalesce(List.of(update, delete, create, secondUpdate)));
+    }
+
+    private static TransactionCommand create(String id, long sequence) {
+        return TransactionCommand.newBuilder()
+                .setOperation(TransactionOperation.CREATE)
+                .setId(id)
+                .setAmount(100)
+                .setDate("2024-01-01")
+                .setType("deposit")
+                .setSequence(sequence)
+                .build();
+    }
+
+    private static TransactionCommand update(String id, double amount, long sequence) {
+        return TransactionCommand.newBuilder()
+                .setOperation(TransactionOperation.UPDATE)
+                .setId(id)
+                .setAmount(amount)
+                .setDate("2024-01-01")
+                .setType("deposit")
+                .setSequence(sequence)
+                .build();
+    }
+
+    private static TransactionCommand patch(String id, long sequence) {
+        return TransactionCommand.newBuilder()
+                .setOperation(TransactionOperation.PATCH)
+                .setId(id)
+                .addPatchFields("type")
+                .setType("withdrawal")
+                .setAmountDelta(5)
+                .setSequence(sequence)
+                .build();
+    }
+
+    private static TransactionCommand delete(String id, long sequence) {
+        return TransactionCommand.newBuilder()
+                .setOperation(TransactionOperation.DELETE)
+                .setId(id)
+                .setSequence(sequence)
+                .build();
+    }
+}
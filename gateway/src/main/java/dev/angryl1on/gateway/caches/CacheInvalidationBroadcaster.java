@@ -0,0 +1,133 @@
+package dev.angryl1on.gateway.caches;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Broadcasts near-cache invalidations to every gateway instance over Redis pub/sub.
+ *
+ * <p>Whenever an instance changes an entry of the shared Redis cache, it publishes a
+ * message naming the cache and key on {@code cache.local.invalidation-channel}. Every
+ * other instance drops the corresponding entry from its in-process cache, so the next
+ * read goes to Redis and sees the new value. Messages are tagged with the publishing
+ * instance, which ignores its own messages.</p>
+ *
+ * <p>Message format: {@code <instance>|<E|C>|<cache>|<key>}, where {@code E} evicts a
+ * single key and {@code C} clears the whole cache (the key is then empty).</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class CacheInvalidationBroadcaster {
+
+    /**
+     * Logger for logging invalidation traffic.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBroadcaster.class);
+
+    /**
+     * Separator of the message fields.
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Message type evicting a single key.
+     */
+    private static final String EVICT = "E";
+
+    /**
+     * Message type clearing a whole cache.
+     */
+    private static final String CLEAR = "C";
+
+    /**
+     * Identifier of this gateway instance.
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Template used to publish invalidation messages.
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Redis channel carrying the invalidation messages.
+     */
+    private final String channel;
+
+    /**
+     * Constructs the {@code CacheInvalidationBroadcaster}.
+     *
+     * @param redisTemplate The template used to publish invalidation messages.
+     * @param channel       The Redis channel carrying the invalidation messages.
+     */
+    public CacheInvalidationBroadcaster(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Tells the other instances that an entry has changed.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The key of the changed entry.
+     */
+    public void evicted(String cacheName, Object key) {
+        publish(EVICT, cacheName, String.valueOf(key));
+    }
+
+    /**
+     * Tells the other instances that a cache has been cleared.
+     *
+     * @param cacheName The name of the cache.
+     */
+    public void cleared(String cacheName) {
+        publish(CLEAR, cacheName, "");
+    }
+
+    /**
+     * Creates the listener applying the invalidations of other instances.
+     *
+     * @param cacheManager The cache manager owning the local caches.
+     * @return The Redis message listener.
+     */
+    public MessageListener listener(TwoTierCacheManager cacheManager) {
+        return (message, pattern) -> {
+            String[] fields = new String(message.getBody(), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 4);
+            if (fields.length != 4 || instanceId.equals(fields[0])) {
+                return;
+            }
+            if (EVICT.equals(fields[1])) {
+                cacheManager.evictLocal(fields[2], fields[3]);
+            } else if (CLEAR.equals(fields[1])) {
+                cacheManager.clearLocal(fields[2]);
+            }
+        };
+    }
+
+    /**
+     * Returns the Redis channel carrying the invalidation messages.
+     *
+     * @return The channel name.
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    private void publish(String type, String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel,
+                    instanceId + SEPARATOR + type + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            // Other instances fall back to the near-cache TTL to pick up the change
+            logger.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
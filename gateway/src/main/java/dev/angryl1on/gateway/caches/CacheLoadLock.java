@@ -0,0 +1,69 @@
+package dev.angryl1on.gateway.caches;
+
+import java.time.Duration;
+
+/**
+ * Elects, across gateway instances, the one instance loading a missing cache entry.
+ *
+ * <p>Within an instance, concurrent misses on a key already share a single load. When
+ * several instances miss the same key at once, the instance acquiring the lock loads
+ * the value and stores it in the shared cache, while the others wait for it to appear
+ * there for at most {@link #getWaitTimeout()}, then load it themselves.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public interface CacheLoadLock {
+
+    /**
+     * Lock always granted: every instance loads on its own.
+     */
+    CacheLoadLock NONE = new CacheLoadLock() {
+        @Override
+        public boolean tryAcquire(String cacheName, Object key) {
+            return true;
+        }
+
+        @Override
+        public void release(String cacheName, Object key) {
+        }
+
+        @Override
+        public Duration getWaitTimeout() {
+            return Duration.ZERO;
+        }
+
+        @Override
+        public Duration getPollInterval() {
+            return Duration.ZERO;
+        }
+    };
+
+    /**
+     * Tries to become the instance loading a key.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The key to load.
+     * @return {@code true} if this instance should load the key.
+     */
+    boolean tryAcquire(String cacheName, Object key);
+
+    /**
+     * Releases a lock acquired by {@link #tryAcquire(String, Object)}.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The loaded key.
+     */
+    void release(String cacheName, Object key);
+
+    /**
+     * @return How long an instance that did not get the lock waits for the value.
+     */
+    Duration getWaitTimeout();
+
+    /**
+     * @return How often the shared cache is checked while waiting.
+     */
+    Duration getPollInterval();
+}
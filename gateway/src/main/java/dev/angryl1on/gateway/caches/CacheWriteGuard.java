@@ -0,0 +1,64 @@
+package dev.angryl1on.gateway.caches;
+
+/**
+ * Decides whether a freshly loaded value may be written to a {@link TwoTierCache}.
+ *
+ * <p>A value loaded after a cache miss may already be outdated when it is stored: a
+ * write can be committed while the load is in flight, and its invalidation is then
+ * processed before the stale value reaches the cache. The cache therefore asks for a
+ * token when a miss occurs and hands it back when the loaded value is stored; the guard
+ * rejects the value if a change affecting it has been observed since the token was
+ * issued.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public interface CacheWriteGuard {
+
+    /**
+     * Guard admitting every value.
+     */
+    CacheWriteGuard NONE = new CacheWriteGuard() {
+        @Override
+        public long begin(String cacheName, Object key) {
+            return 0;
+        }
+
+        @Override
+        public boolean admits(String cacheName, Object key, Object value, long token) {
+            return true;
+        }
+    };
+
+    /**
+     * Issues the token of a load starting now.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The key being loaded.
+     * @return The load token.
+     */
+    long begin(String cacheName, Object key);
+
+    /**
+     * Tells whether a loaded value is still current.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The loaded key.
+     * @param value     The loaded value.
+     * @param token     The token issued when the load started.
+     * @return {@code true} if the value may be cached.
+     */
+    boolean admits(String cacheName, Object key, Object value, long token);
+
+    /**
+     * Called before a value is checked and written to the cache, so that a change
+     * observed from then on also reaches the entry once written.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The key to write.
+     * @param value     The value to write.
+     */
+    default void beforePut(String cacheName, Object key, Object value) {
+    }
+}
@@ -0,0 +1,228 @@
+package dev.angryl1on.gateway.caches;
+
+import com.google.protobuf.CodedInputStream;
+import dev.angryl1on.gateway.models.cache.CachedTransaction;
+import dev.angryl1on.gateway.models.cache.CachedTransactionPage;
+import dev.angryl1on.gateway.models.cache.CachedValue;
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link RedisSerializer} storing cache values as compact, optionally compressed protobuf.
+ *
+ * <p>Transactions and list pages (possibly wrapped in a {@link TimestampedValue}) are
+ * written as a {@code CachedValue} protobuf message behind a three-byte header:
+ * <ol>
+ *   <li>the marker byte {@code 0xCB}, which cannot start a JSON document;</li>
+ *   <li>the format version, currently {@value #FORMAT_VERSION};</li>
+ *   <li>the compression: {@value #UNCOMPRESSED} for none, {@value #LZ4} for LZ4, in which
+ *       case the uncompressed length follows as a 4-byte integer.</li>
+ * </ol>
+ * Bodies of at least {@code compressionThreshold} bytes are LZ4-compressed. Other value
+ * types, or all values when protobuf output is disabled, are written by the JSON
+ * serializer without a header.</p>
+ *
+ * <p>Values without the header are read with the JSON serializer, so entries written
+ * by earlier versions remain readable during a rolling upgrade.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+    /**
+     * First byte of every value in the protobuf format.
+     */
+    private static final byte MAGIC = (byte) 0xCB;
+
+    /**
+     * Version of the protobuf format.
+     */
+    private static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Compression code of an uncompressed body.
+     */
+    private static final byte UNCOMPRESSED = 0;
+
+    /**
+     * Compression code of an LZ4-compressed body.
+     */
+    private static final byte LZ4 = 1;
+
+    /**
+     * Length of the header preceding the body.
+     */
+    private static final int HEADER_LENGTH = 3;
+
+    /**
+     * Serializer of values not written as protobuf, and of values without the header.
+     */
+    private final RedisSerializer<Object> jsonSerializer;
+
+    /**
+     * Whether supported values are written as protobuf.
+     */
+    private final boolean writeProtobuf;
+
+    /**
+     * Body size in bytes from which protobuf bodies are compressed.
+     */
+    private final int compressionThreshold;
+
+    /**
+     * LZ4 compressor.
+     */
+    private final LZ4Compressor compressor;
+
+    /**
+     * LZ4 decompressor.
+     */
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * Constructs the {@code CompactCacheValueSerializer}.
+     *
+     * @param jsonSerializer       The serializer of values not written as protobuf.
+     * @param writeProtobuf        Whether supported values are written as protobuf.
+     * @param compressionThreshold The body size in bytes from which protobuf bodies are compressed.
+     */
+    public CompactCacheValueSerializer(RedisSerializer<Object> jsonSerializer,
+                                       boolean writeProtobuf,
+                                       int compressionThreshold) {
+        this.jsonSerializer = jsonSerializer;
+        this.writeProtobuf = writeProtobuf;
+        this.compressionThreshold = compressionThreshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        CachedValue message = writeProtobuf ? toMessage(value) : null;
+        if (message == null) {
+            return jsonSerializer.serialize(value);
+        }
+        byte[] body = message.toByteArray();
+        if (body.length < compressionThreshold) {
+            return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+                    .put(MAGIC).put(FORMAT_VERSION).put(UNCOMPRESSED)
+                    .put(body)
+                    .array();
+        }
+        byte[] compressed = compressor.compress(body);
+        return ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES + compressed.length)
+                .put(MAGIC).put(FORMAT_VERSION).put(LZ4)
+                .putInt(body.length)
+                .put(compressed)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported cache value format");
+        }
+        try {
+            CachedValue message = switch (bytes[2]) {
+                case UNCOMPRESSED -> CachedValue.parseFrom(
+                        CodedInputStream.newInstance(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH));
+                case LZ4 -> CachedValue.parseFrom(decompressor.decompress(bytes, HEADER_LENGTH + Integer.BYTES,
+                        ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt()));
+                default -> throw new SerializationException("Unsupported cache value compression: " + bytes[2]);
+            };
+            return fromMessage(message);
+        } catch (IOException | LZ4Exception e) {
+            throw new SerializationException("Cannot read cache value", e);
+        }
+    }
+
+    /**
+     * Converts a cache value to its protobuf form.
+     *
+     * @param value The cache value.
+     * @return The protobuf message, or {@code null} if the value type is not supported.
+     */
+    private static CachedValue toMessage(Object value) {
+        CachedValue.Builder builder = CachedValue.newBuilder();
+        Object plain = value;
+        if (value instanceof TimestampedValue timestamped) {
+            builder.setWrittenAt(timestamped.getWrittenAt());
+            plain = timestamped.getValue();
+        }
+        if (plain instanceof TransactionDTO transaction) {
+            return builder.setTransaction(toMessage(transaction)).build();
+        }
+        if (plain instanceof TransactionPageDTO page) {
+            CachedTransactionPage.Builder pageBuilder = CachedTransactionPage.newBuilder();
+            for (TransactionDTO transaction : page.getTransactions()) {
+                pageBuilder.addTransactions(toMessage(transaction));
+            }
+            if (page.getNextPageToken() != null) {
+                pageBuilder.setNextPageToken(page.getNextPageToken());
+            }
+            return builder.setPage(pageBuilder).build();
+        }
+        return null;
+    }
+
+    private static CachedTransaction toMessage(TransactionDTO transaction) {
+        CachedTransaction.Builder builder = CachedTransaction.newBuilder()
+                .setAmount(transaction.getAmount());
+        if (transaction.getId() != null) {
+            builder.setId(transaction.getId());
+        }
+        if (transaction.getDate() != null) {
+            builder.setDate(transaction.getDate());
+        }
+        if (transaction.getType() != null) {
+            builder.setType(transaction.getType());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a protobuf message back to the cache value.
+     *
+     * @param message The protobuf message.
+     * @return The cache value.
+     */
+    private static Object fromMessage(CachedValue message) {
+        Object value = switch (message.getValueCase()) {
+            case TRANSACTION -> fromMessage(message.getTransaction());
+            case PAGE -> {
+                List<TransactionDTO> transactions = new ArrayList<>(message.getPage().getTransactionsCount());
+                for (CachedTransaction transaction : message.getPage().getTransactionsList()) {
+                    transactions.add(fromMessage(transaction));
+                }
+                yield new TransactionPageDTO(transactions,
+                        message.getPage().hasNextPageToken() ? message.getPage().getNextPageToken() : null);
+            }
+            case VALUE_NOT_SET -> null;
+        };
+        return message.hasWrittenAt() ? new TimestampedValue(value, message.getWrittenAt()) : value;
+    }
+
+    private static TransactionDTO fromMessage(CachedTransaction transaction) {
+        return new TransactionDTO(transaction.getId(), transaction.getAmount(), transaction.getDate(), transaction.getType());
+    }
+}
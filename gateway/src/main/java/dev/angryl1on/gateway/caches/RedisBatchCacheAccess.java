@@ -0,0 +1,137 @@
+package dev.angryl1on.gateway.caches;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key access to the entries of the Redis caches.
+ *
+ * <p>Spring's {@link org.springframework.data.redis.cache.RedisCache} only reads and
+ * writes one key per round trip. This class reads many entries with a single
+ * {@code MGET} and writes many with one pipeline of {@code SET} commands, using the key
+ * prefix, serializers and TTL of the cache configuration, so the entries are the same
+ * as those handled by the cache itself.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class RedisBatchCacheAccess {
+
+    /**
+     * Stored form of a cached {@code null}, as written by the Redis cache.
+     */
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    /**
+     * The Redis connection factory.
+     */
+    private final RedisConnectionFactory connectionFactory;
+
+    /**
+     * The Redis cache manager holding the cache configurations.
+     */
+    private final RedisCacheManager cacheManager;
+
+    /**
+     * Constructs the {@code RedisBatchCacheAccess}.
+     *
+     * @param connectionFactory The Redis connection factory.
+     * @param cacheManager      The Redis cache manager holding the cache configurations.
+     */
+    public RedisBatchCacheAccess(RedisConnectionFactory connectionFactory, RedisCacheManager cacheManager) {
+        this.connectionFactory = connectionFactory;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Reads many entries of a cache with a single {@code MGET}.
+     *
+     * @param cacheName The name of the cache.
+     * @param keys      The cache keys.
+     * @return The stored values, in key order, with {@code null} for absent entries and
+     *         cached {@code null}s.
+     */
+    public List<Object> getAll(String cacheName, List<String> keys) {
+        RedisCacheConfiguration config = configuration(cacheName);
+        byte[][] redisKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys[i] = redisKey(config, cacheName, keys.get(i));
+        }
+
+        List<byte[]> stored;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            stored = connection.stringCommands().mGet(redisKeys);
+        }
+
+        List<Object> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] bytes = stored != null && i < stored.size() ? stored.get(i) : null;
+            values.add(bytes == null || Arrays.equals(bytes, BINARY_NULL_VALUE)
+                    ? null
+                    : config.getValueSerializationPair().read(ByteBuffer.wrap(bytes)));
+        }
+        return values;
+    }
+
+    /**
+     * Writes many entries of a cache in one pipeline.
+     *
+     * @param cacheName The name of the cache.
+     * @param values    The values to store, by cache key.
+     */
+    public void putAll(String cacheName, Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = configuration(cacheName);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    Duration ttl = config.getTtlFunction().getTimeToLive(entry.getKey(), entry.getValue());
+                    connection.stringCommands().set(
+                            redisKey(config, cacheName, entry.getKey()),
+                            toBytes(config.getValueSerializationPair().write(entry.getValue())),
+                            ttl == null || ttl.isZero() || ttl.isNegative()
+                                    ? Expiration.persistent()
+                                    : Expiration.from(ttl),
+                            RedisStringCommands.SetOption.upsert());
+                }
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private RedisCacheConfiguration configuration(String cacheName) {
+        RedisCacheConfiguration config = cacheManager.getCacheConfigurations().get(cacheName);
+        if (config == null) {
+            throw new IllegalArgumentException("No Redis cache configuration for " + cacheName);
+        }
+        return config;
+    }
+
+    private static byte[] redisKey(RedisCacheConfiguration config, String cacheName, String key) {
+        return toBytes(config.getKeySerializationPair().write(config.getKeyPrefixFor(cacheName) + key));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.angryl1on.gateway.caches;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link CacheLoadLock} backed by Redis keys.
+ *
+ * <p>A lock is a key {@code <prefix><cache>:<key>} set with {@code SET NX PX} to the
+ * identifier of the owning instance. It expires after {@code lease}, so a crashed
+ * loader never blocks a key for longer, and is only deleted by its owner. If Redis is
+ * unavailable the lock is granted, degrading to per-instance loading.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class RedisCacheLoadLock implements CacheLoadLock {
+
+    /**
+     * Logger for logging lock failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheLoadLock.class);
+
+    /**
+     * Script deleting a lock only if it is still owned by the caller.
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    /**
+     * Identifier of this gateway instance, stored as the lock value.
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Template used to access the lock keys.
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Prefix of the lock keys.
+     */
+    private final String keyPrefix;
+
+    /**
+     * Time after which an unreleased lock expires.
+     */
+    private final Duration lease;
+
+    /**
+     * How long an instance that did not get the lock waits for the value.
+     */
+    private final Duration waitTimeout;
+
+    /**
+     * How often the shared cache is checked while waiting.
+     */
+    private final Duration pollInterval;
+
+    /**
+     * Constructs the {@code RedisCacheLoadLock}.
+     *
+     * @param redisTemplate The template used to access the lock keys.
+     * @param keyPrefix     The prefix of the lock keys.
+     * @param lease         The time after which an unreleased lock expires.
+     * @param waitTimeout   How long an instance that did not get the lock waits for the value.
+     * @param pollInterval  How often the shared cache is checked while waiting.
+     */
+    public RedisCacheLoadLock(StringRedisTemplate redisTemplate, String keyPrefix,
+                              Duration lease, Duration waitTimeout, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public boolean tryAcquire(String cacheName, Object key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), instanceId, lease));
+        } catch (DataAccessException e) {
+            logger.warn("Failed to acquire load lock for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String cacheName, Object key) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(cacheName, key)), instanceId);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to release load lock for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    @Override
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    private String lockKey(String cacheName, Object key) {
+        return keyPrefix + cacheName + ":" + key;
+    }
+}
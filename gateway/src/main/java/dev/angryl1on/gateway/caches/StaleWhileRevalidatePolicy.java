@@ -0,0 +1,109 @@
+package dev.angryl1on.gateway.caches;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stale-while-revalidate settings of a {@link TwoTierCache}, with the executor running
+ * background refreshes.
+ *
+ * <p>An entry is fresh for {@code softTtl} after it was written. Once stale, it is still
+ * served while a single refresh per key reloads it in the background; it only disappears
+ * when the Redis TTL (the hard TTL) expires. Reads therefore never wait on the Domain
+ * Service for an entry that exists, and keep being served if a refresh is slow or fails.</p>
+ *
+ * <p>Refreshes run on a fixed pool fed by a bounded queue. When the queue is full, the
+ * refresh is skipped and retried by a later read of the same entry.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class StaleWhileRevalidatePolicy {
+
+    /**
+     * Logger for logging skipped refreshes.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(StaleWhileRevalidatePolicy.class);
+
+    /**
+     * Age after which an entry is refreshed in the background.
+     */
+    private final Duration softTtl;
+
+    /**
+     * Executor running the background refreshes.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs the {@code StaleWhileRevalidatePolicy}.
+     *
+     * @param softTtl       The age after which an entry is refreshed in the background.
+     * @param threads       The number of refresh threads.
+     * @param queueCapacity The maximum number of pending refreshes.
+     */
+    public StaleWhileRevalidatePolicy(Duration softTtl, int threads, int queueCapacity) {
+        this.softTtl = softTtl;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Wraps a value to be written to the cache with the current time.
+     *
+     * @param value The value.
+     * @return The timestamped value.
+     */
+    TimestampedValue stamp(Object value) {
+        return new TimestampedValue(value, System.currentTimeMillis());
+    }
+
+    /**
+     * Tells whether a cached value should be refreshed.
+     *
+     * @param value The cached value.
+     * @return {@code true} if the value is timestamped and older than the soft TTL.
+     */
+    boolean isStale(Object value) {
+        return value instanceof TimestampedValue timestamped
+                && System.currentTimeMillis() - timestamped.getWrittenAt() > softTtl.toMillis();
+    }
+
+    /**
+     * Schedules a background refresh.
+     *
+     * @param refresh The refresh to run.
+     * @return {@code true} if the refresh was scheduled, {@code false} if the queue is full.
+     */
+    boolean submit(Runnable refresh) {
+        try {
+            executor.execute(refresh);
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.debug("Skipped cache refresh: {} refreshes pending", executor.getQueue().size());
+            return false;
+        }
+    }
+
+    /**
+     * Stops the refresh threads, dropping pending refreshes.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
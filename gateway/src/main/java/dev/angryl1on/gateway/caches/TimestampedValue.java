@@ -0,0 +1,57 @@
+package dev.angryl1on.gateway.caches;
+
+/**
+ * A cached value together with the time it was written.
+ *
+ * <p>Stored in place of the plain value when stale-while-revalidate is enabled, so
+ * that readers can tell how old an entry is without an extra round trip to Redis.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TimestampedValue {
+
+    /**
+     * The cached value.
+     */
+    private Object value;
+
+    /**
+     * Time the value was written, in milliseconds since the epoch.
+     */
+    private long writtenAt;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TimestampedValue() {
+    }
+
+    /**
+     * Constructs a {@code TimestampedValue}.
+     *
+     * @param value     The cached value.
+     * @param writtenAt The time the value was written, in milliseconds since the epoch.
+     */
+    public TimestampedValue(Object value, long writtenAt) {
+        this.value = value;
+        this.writtenAt = writtenAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getWrittenAt() {
+        return writtenAt;
+    }
+
+    public void setWrittenAt(long writtenAt) {
+        this.writtenAt = writtenAt;
+    }
+}
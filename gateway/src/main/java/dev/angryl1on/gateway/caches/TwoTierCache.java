@@ -0,0 +1,633 @@
+package dev.angryl1on.gateway.caches;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link Cache} combining an in-process near cache with a shared Redis cache.
+ *
+ * <p>Reads are served from the near cache (L1) when possible and otherwise from the
+ * Redis cache (L2); values found in Redis are copied into the near cache. Writes and
+ * evictions go to Redis first, then to the near cache, and are broadcast to the other
+ * gateway instances so they drop their own near-cache copy.</p>
+ *
+ * <p>Values loaded after a miss are only stored if the {@link CacheWriteGuard} admits
+ * them, so that a load racing with a committed write cannot put outdated data back
+ * into the cache.</p>
+ *
+ * <p>Misses are loaded in a single flight: concurrent synchronized lookups of a missing
+ * key ({@code @Cacheable(sync = true)}) share one load, started by the first of them.
+ * Across instances, the {@link CacheLoadLock} lets one instance load while the others
+ * wait for the value to reach Redis.</p>
+ *
+ * <p>With a {@link StaleWhileRevalidatePolicy}, values are stored with their write time.
+ * A synchronized lookup finding an entry past the soft TTL returns it at once and
+ * refreshes it in the background, sharing the single flight of the key.</p>
+ *
+ * <p>{@link #getAll(List)} and {@link #putAll(Map)} serve many keys at once, with one
+ * Redis round trip for all keys missing from the near cache.</p>
+ *
+ * <p>Near-cache entries are keyed by the string form of the cache key, the same form
+ * used for Redis keys and carried by invalidation messages.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TwoTierCache implements Cache {
+
+    /**
+     * Logger for logging rejected writes and failed refreshes.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+
+    /**
+     * The in-process near cache, holding wrapped values so that cached nulls are kept too.
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+
+    /**
+     * The shared Redis cache.
+     */
+    private final Cache remote;
+
+    /**
+     * Broadcaster of invalidations to the other gateway instances.
+     */
+    private final CacheInvalidationBroadcaster broadcaster;
+
+    /**
+     * Guard deciding whether loaded values may be stored.
+     */
+    private final CacheWriteGuard guard;
+
+    /**
+     * Lock electing the instance loading a missing key.
+     */
+    private final CacheLoadLock loadLock;
+
+    /**
+     * Stale-while-revalidate policy, or {@code null} if entries are only refreshed on expiry.
+     */
+    private final StaleWhileRevalidatePolicy refreshPolicy;
+
+    /**
+     * Multi-key access to the Redis cache.
+     */
+    private final RedisBatchCacheAccess batchAccess;
+
+    /**
+     * Loads in progress on this instance, by near-cache key.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Tokens of the loads in progress, by near-cache key; the oldest load wins.
+     */
+    private final ConcurrentMap<String, Long> pendingLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the {@code TwoTierCache}.
+     *
+     * @param local         The in-process near cache.
+     * @param remote        The shared Redis cache.
+     * @param broadcaster   The broadcaster of invalidations to the other instances.
+     * @param guard         The guard deciding whether loaded values may be stored.
+     * @param loadLock      The lock electing the instance loading a missing key.
+     * @param refreshPolicy The stale-while-revalidate policy, or {@code null} to disable it.
+     * @param batchAccess   The multi-key access to the Redis cache.
+     */
+    public TwoTierCache(com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+                        Cache remote,
+                        CacheInvalidationBroadcaster broadcaster,
+                        CacheWriteGuard guard,
+                        CacheLoadLock loadLock,
+                        StaleWhileRevalidatePolicy refreshPolicy,
+                        RedisBatchCacheAccess batchAccess) {
+        this.local = local;
+        this.remote = remote;
+        this.broadcaster = broadcaster;
+        this.guard = guard;
+        this.loadLock = loadLock;
+        this.refreshPolicy = refreshPolicy;
+        this.batchAccess = batchAccess;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return unwrap(lookup(key));
+    }
+
+    /**
+     * Looks an entry up in the near cache, then in Redis, recording a miss.
+     *
+     * @param key The cache key.
+     * @return The stored entry, possibly holding a {@link TimestampedValue}, or {@code null}.
+     */
+    private ValueWrapper lookup(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        long token = guard.begin(getName(), key);
+        wrapper = remote.get(key);
+        if (wrapper != null) {
+            local.put(localKey, wrapper);
+        } else {
+            pendingLoads.merge(localKey, token, Math::min);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = lookup(key);
+        if (wrapper != null) {
+            if (refreshPolicy != null && refreshPolicy.isStale(wrapper.get())) {
+                refreshInBackground(key, valueLoader);
+            }
+            return (T) unwrap(wrapper).get();
+        }
+        String localKey = localKey(key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(localKey, flight);
+        if (leader != null) {
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            Object value = loadAndStore(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            pendingLoads.remove(localKey);
+            flight.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return lookupAsync(key).thenApply(TwoTierCache::unwrap);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #lookup(Object)}.
+     *
+     * @param key The cache key.
+     * @return A future completed with the stored entry, or {@code null} if it is absent.
+     */
+    private CompletableFuture<ValueWrapper> lookupAsync(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            return CompletableFuture.completedFuture(wrapper);
+        }
+        long token = guard.begin(getName(), key);
+        return retrieveRemote(key).thenApply(remoteWrapper -> {
+            if (remoteWrapper == null) {
+                pendingLoads.merge(localKey, token, Math::min);
+            }
+            return remoteWrapper;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return lookupAsync(key).thenCompose(wrapper -> {
+            if (wrapper != null) {
+                if (refreshPolicy != null && refreshPolicy.isStale(wrapper.get())) {
+                    refreshInBackground(key, () -> invoke(valueLoader).join());
+                }
+                return CompletableFuture.completedFuture((T) unwrap(wrapper).get());
+            }
+            String localKey = localKey(key);
+            CompletableFuture<Object> flight = new CompletableFuture<>();
+            CompletableFuture<Object> leader = inFlight.putIfAbsent(localKey, flight);
+            if (leader != null) {
+                return leader.thenApply(value -> (T) value);
+            }
+            loadAndStoreAsync(key, valueLoader).whenComplete((value, error) -> {
+                if (error != null) {
+                    pendingLoads.remove(localKey);
+                }
+                inFlight.remove(localKey, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(value);
+                }
+            });
+            return flight.thenApply(value -> (T) value);
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (!admit(key, value)) {
+            return;
+        }
+        Object stored = refreshPolicy != null ? refreshPolicy.stamp(value) : value;
+        remote.put(key, stored);
+        local.put(localKey(key), new SimpleValueWrapper(stored));
+        broadcaster.evicted(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (!admit(key, value)) {
+            return null;
+        }
+        Object stored = refreshPolicy != null ? refreshPolicy.stamp(value) : value;
+        ValueWrapper existing = remote.putIfAbsent(key, stored);
+        local.put(localKey(key), existing != null ? existing : new SimpleValueWrapper(stored));
+        if (existing == null) {
+            broadcaster.evicted(getName(), key);
+        }
+        return unwrap(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictLocal(key);
+        broadcaster.evicted(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        evictLocal(key);
+        broadcaster.evicted(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        broadcaster.cleared(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        clearLocal();
+        broadcaster.cleared(getName());
+        return invalidated;
+    }
+
+    /**
+     * Looks many keys up, first in the near cache, then in Redis with a single {@code MGET}.
+     *
+     * <p>Stale entries are returned as they are, without a background refresh. Misses are
+     * recorded so that {@link #putAll(Map)} can guard the values loaded for them; the
+     * caller must pass the missed keys it does not store to {@link #abandonLoads(Collection)}.</p>
+     *
+     * @param keys The cache keys.
+     * @return The found values, by key; absent keys are missing from the map.
+     */
+    public Map<String, Object> getAll(List<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (String key : keys) {
+            ValueWrapper wrapper = local.getIfPresent(key);
+            if (wrapper != null) {
+                found.put(key, unwrap(wrapper).get());
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+
+        long[] tokens = new long[remoteKeys.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = guard.begin(getName(), remoteKeys.get(i));
+        }
+        List<Object> stored = batchAccess.getAll(getName(), remoteKeys);
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            String key = remoteKeys.get(i);
+            Object value = stored.get(i);
+            if (value != null) {
+                SimpleValueWrapper wrapper = new SimpleValueWrapper(value);
+                local.put(key, wrapper);
+                found.put(key, unwrap(wrapper).get());
+            } else {
+                pendingLoads.merge(key, tokens[i], Math::min);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stores many loaded values, in one Redis pipeline, subject to the write guard.
+     *
+     * <p>Unlike {@link #put(Object, Object)}, no invalidation is broadcast: the keys were
+     * missing from Redis, so other instances can only hold them until their near-cache
+     * TTL, as after any Redis expiry.</p>
+     *
+     * @param values The loaded values, by key.
+     */
+    public void putAll(Map<String, Object> values) {
+        Map<String, Object> admitted = new HashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (admit(entry.getKey(), entry.getValue())) {
+                Object value = entry.getValue();
+                admitted.put(entry.getKey(), refreshPolicy != null ? refreshPolicy.stamp(value) : value);
+            }
+        }
+        batchAccess.putAll(getName(), admitted);
+        for (Map.Entry<String, Object> entry : admitted.entrySet()) {
+            local.put(entry.getKey(), new SimpleValueWrapper(entry.getValue()));
+        }
+    }
+
+    /**
+     * Forgets the loads recorded by {@link #getAll(List)} for keys that are not stored,
+     * such as IDs without a transaction or keys whose load failed.
+     *
+     * @param keys The cache keys.
+     */
+    public void abandonLoads(Collection<String> keys) {
+        for (String key : keys) {
+            pendingLoads.remove(key);
+        }
+    }
+
+    /**
+     * Evicts an entry from Redis and from the near cache without broadcasting.
+     *
+     * <p>Used for invalidations that every gateway instance receives by itself.</p>
+     *
+     * @param key The cache key.
+     */
+    public void evictShared(Object key) {
+        remote.evict(key);
+        evictLocal(key);
+    }
+
+    /**
+     * Drops an entry from the near cache only.
+     *
+     * @param key The cache key.
+     */
+    void evictLocal(Object key) {
+        local.invalidate(localKey(key));
+    }
+
+    /**
+     * Drops all entries from the near cache only.
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    /**
+     * Loads a missing value and stores it, unless another instance is already loading it.
+     *
+     * @param key         The cache key.
+     * @param valueLoader The loader of the value.
+     * @return The value.
+     * @throws Exception If the loader fails.
+     */
+    private Object loadAndStore(Object key, Callable<?> valueLoader) throws Exception {
+        if (loadLock.tryAcquire(getName(), key)) {
+            try {
+                return store(key, valueLoader.call());
+            } finally {
+                loadLock.release(getName(), key);
+            }
+        }
+        ValueWrapper loadedByPeer = awaitPeer(key);
+        return loadedByPeer != null ? unwrap(loadedByPeer).get() : store(key, valueLoader.call());
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #loadAndStore(Object, Callable)}.
+     *
+     * @param key         The cache key.
+     * @param valueLoader The loader of the value.
+     * @return A future completed with the value.
+     */
+    private CompletableFuture<Object> loadAndStoreAsync(Object key, Supplier<? extends CompletableFuture<?>> valueLoader) {
+        if (loadLock.tryAcquire(getName(), key)) {
+            return invoke(valueLoader)
+                    .thenApply(value -> store(key, value))
+                    .whenComplete((value, error) -> loadLock.release(getName(), key));
+        }
+        long deadline = System.nanoTime() + loadLock.getWaitTimeout().toNanos();
+        return awaitPeerAsync(key, deadline).thenCompose(loadedByPeer -> loadedByPeer != null
+                ? CompletableFuture.completedFuture(unwrap(loadedByPeer).get())
+                : invoke(valueLoader).thenApply(value -> store(key, value)));
+    }
+
+    /**
+     * Calls an asynchronous loader, turning an exception thrown by the call itself into a
+     * failed future.
+     *
+     * @param valueLoader The loader of the value.
+     * @return The future returned by the loader.
+     */
+    private static CompletableFuture<?> invoke(Supplier<? extends CompletableFuture<?>> valueLoader) {
+        try {
+            return valueLoader.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for another instance to store a value in Redis.
+     *
+     * @param key The cache key.
+     * @return The stored value, or {@code null} if none appeared in time.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private ValueWrapper awaitPeer(Object key) throws InterruptedException {
+        long deadline = System.nanoTime() + loadLock.getWaitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(loadLock.getPollInterval().toMillis());
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null) {
+                local.put(localKey(key), wrapper);
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #awaitPeer(Object)}, polling without blocking a thread.
+     *
+     * @param key      The cache key.
+     * @param deadline The {@link System#nanoTime()} after which to stop waiting.
+     * @return A future completed with the stored value, or {@code null} if none appeared in time.
+     */
+    private CompletableFuture<ValueWrapper> awaitPeerAsync(Object key, long deadline) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(loadLock.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        return CompletableFuture.runAsync(() -> { }, delayed)
+                .thenCompose(ignored -> retrieveRemote(key))
+                .thenCompose(wrapper -> {
+                    if (wrapper != null) {
+                        local.put(localKey(key), wrapper);
+                        return CompletableFuture.completedFuture(wrapper);
+                    }
+                    return awaitPeerAsync(key, deadline);
+                });
+    }
+
+    /**
+     * Reads an entry from Redis, asynchronously if the Redis cache supports it, and
+     * copies a found value into the near cache.
+     *
+     * @param key The cache key.
+     * @return A future completed with the entry, or {@code null} if it is absent.
+     */
+    private CompletableFuture<ValueWrapper> retrieveRemote(Object key) {
+        CompletableFuture<?> future = remote.retrieve(key);
+        if (future == null) {
+            return CompletableFuture.completedFuture(cacheLocally(key, remote.get(key)));
+        }
+        return future.thenApply(value -> cacheLocally(key, value == null || value instanceof ValueWrapper
+                ? (ValueWrapper) value
+                : new SimpleValueWrapper(value)));
+    }
+
+    private ValueWrapper cacheLocally(Object key, ValueWrapper wrapper) {
+        if (wrapper != null) {
+            local.put(localKey(key), wrapper);
+        }
+        return wrapper;
+    }
+
+    /**
+     * Reloads a stale entry on the refresh executor, unless a load of the key is already
+     * in flight. A failed refresh leaves the stale entry in place.
+     *
+     * @param key         The cache key.
+     * @param valueLoader The loader of the value.
+     */
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(localKey, flight) != null) {
+            return;
+        }
+        pendingLoads.merge(localKey, guard.begin(getName(), key), Math::min);
+        boolean submitted = refreshPolicy.submit(() -> {
+            try {
+                flight.complete(loadAndStore(key, valueLoader));
+            } catch (Exception e) {
+                pendingLoads.remove(localKey);
+                flight.completeExceptionally(e);
+                logger.warn("Failed to refresh {} in {}, serving stale value: {}", key, getName(), e.getMessage());
+            } finally {
+                inFlight.remove(localKey, flight);
+            }
+        });
+        if (!submitted) {
+            pendingLoads.remove(localKey);
+            inFlight.remove(localKey, flight);
+            flight.completeExceptionally(new IllegalStateException("Cache refresh queue is full"));
+        }
+    }
+
+    /**
+     * Strips the write time from a stored entry.
+     *
+     * @param wrapper The stored entry, or {@code null}.
+     * @return The entry exposing the plain value, or {@code null}.
+     */
+    private static ValueWrapper unwrap(ValueWrapper wrapper) {
+        if (wrapper != null && wrapper.get() instanceof TimestampedValue timestamped) {
+            return new SimpleValueWrapper(timestamped.getValue());
+        }
+        return wrapper;
+    }
+
+    /**
+     * Stores a loaded value, subject to the write guard.
+     *
+     * @param key   The cache key.
+     * @param value The loaded value.
+     * @return The value.
+     */
+    private Object store(Object key, Object value) {
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Checks a value against the token of the load that produced it, if any.
+     *
+     * @param key   The cache key.
+     * @param value The value to store.
+     * @return {@code true} if the value may be stored.
+     */
+    private boolean admit(Object key, Object value) {
+        guard.beforePut(getName(), key, value);
+        Long token = pendingLoads.remove(localKey(key));
+        if (token == null || guard.admits(getName(), key, value, token)) {
+            return true;
+        }
+        logger.debug("Skipped caching {} in {}: changed while loading", key, getName());
+        return false;
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
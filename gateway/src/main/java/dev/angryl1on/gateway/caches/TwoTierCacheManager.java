@@ -0,0 +1,150 @@
+package dev.angryl1on.gateway.caches;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager} placing an in-process near cache in front of every cache of a
+ * shared Redis-backed cache manager.
+ *
+ * <p>Each cache returned by this manager is a {@link TwoTierCache}: a bounded Caffeine
+ * cache (W-TinyLFU eviction, size and TTL limits taken from the supplied builder) in
+ * front of the corresponding Redis cache. Cache names and Redis-side settings are those
+ * of the wrapped manager.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    /**
+     * The wrapped Redis-backed cache manager.
+     */
+    private final CacheManager remote;
+
+    /**
+     * Builder of the near caches.
+     */
+    private final Caffeine<Object, Object> localSpec;
+
+    /**
+     * Broadcaster of invalidations to the other gateway instances.
+     */
+    private final CacheInvalidationBroadcaster broadcaster;
+
+    /**
+     * Guard deciding whether loaded values may be stored.
+     */
+    private final CacheWriteGuard guard;
+
+    /**
+     * Lock electing the instance loading a missing key.
+     */
+    private final CacheLoadLock loadLock;
+
+    /**
+     * Stale-while-revalidate policy shared by the caches, or {@code null} if disabled.
+     */
+    private final StaleWhileRevalidatePolicy refreshPolicy;
+
+    /**
+     * Multi-key access to the Redis caches.
+     */
+    private final RedisBatchCacheAccess batchAccess;
+
+    /**
+     * The two-tier caches created so far, by name.
+     */
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the {@code TwoTierCacheManager}.
+     *
+     * @param remote        The wrapped Redis-backed cache manager.
+     * @param localSpec     The builder of the near caches.
+     * @param broadcaster   The broadcaster of invalidations to the other instances.
+     * @param guard         The guard deciding whether loaded values may be stored.
+     * @param loadLock      The lock electing the instance loading a missing key.
+     * @param refreshPolicy The stale-while-revalidate policy, or {@code null} to disable it.
+     * @param batchAccess   The multi-key access to the Redis caches.
+     */
+    public TwoTierCacheManager(CacheManager remote,
+                               Caffeine<Object, Object> localSpec,
+                               CacheInvalidationBroadcaster broadcaster,
+                               CacheWriteGuard guard,
+                               CacheLoadLock loadLock,
+                               StaleWhileRevalidatePolicy refreshPolicy,
+                               RedisBatchCacheAccess batchAccess) {
+        this.remote = remote;
+        this.localSpec = localSpec;
+        this.broadcaster = broadcaster;
+        this.guard = guard;
+        this.loadLock = loadLock;
+        this.refreshPolicy = refreshPolicy;
+        this.batchAccess = batchAccess;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, ignored ->
+                new TwoTierCache(localSpec.build(), remoteCache, broadcaster, guard, loadLock, refreshPolicy, batchAccess));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    /**
+     * Evicts an entry from Redis and from the near cache of this instance, without
+     * telling the other instances.
+     *
+     * @param name The cache name.
+     * @param key  The cache key.
+     */
+    public void evictShared(String name, Object key) {
+        Cache cache = getCache(name);
+        if (cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictShared(key);
+        }
+    }
+
+    /**
+     * Drops an entry from the near cache of this instance, leaving Redis untouched.
+     *
+     * @param name The cache name.
+     * @param key  The cache key.
+     */
+    public void evictLocal(String name, Object key) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+
+    /**
+     * Drops all entries from the near cache of this instance, leaving Redis untouched.
+     *
+     * @param name The cache name.
+     */
+    public void clearLocal(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package dev.angryl1on.gateway.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.angryl1on.gateway.caches.CacheInvalidationBroadcaster;
+import dev.angryl1on.gateway.caches.CacheLoadLock;
+import dev.angryl1on.gateway.caches.RedisBatchCacheAccess;
+import dev.angryl1on.gateway.caches.RedisCacheLoadLock;
+import dev.angryl1on.gateway.caches.StaleWhileRevalidatePolicy;
+import dev.angryl1on.gateway.caches.TwoTierCacheManager;
+import dev.angryl1on.gateway.services.TransactionChangeTracker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the two-tier cache used by the controllers.
+ *
+ * <p>The primary {@link org.springframework.cache.CacheManager} is a
+ * {@link TwoTierCacheManager}: every cache hit is first looked up in a bounded
+ * in-process Caffeine cache and only goes to Redis on a near-cache miss, avoiding the
+ * network round trip and JSON deserialization for hot entries. Changes are propagated
+ * to the other gateway instances over Redis pub/sub.</p>
+ *
+ * <p>Entries are invalidated from the transaction change events published by the
+ * Domain Service; the {@link TransactionChangeTracker} keeps loads that raced with a
+ * change from being cached.</p>
+ *
+ * <p>Cache misses are loaded in a single flight per key. With
+ * {@code cache.single-flight.distributed} enabled, a Redis lock additionally makes a
+ * single instance load a key missed by several instances at once.</p>
+ *
+ * <p>With {@code cache.mode: stale-while-revalidate}, entries past
+ * {@code cache.stale-while-revalidate.soft-ttl-ms} are still served and refreshed in
+ * the background, until the hard TTL set in {@link RedisConfiguration} expires.</p>
+ *
+ * <p>Pub/sub delivery is best effort, so near-cache entries also expire after
+ * {@code cache.local.expire-after-write-ms}, which bounds how long an instance may
+ * serve a value that another instance has changed while the invalidation was lost.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class CacheConfiguration {
+
+    /**
+     * Maximum number of entries held by each near cache.
+     */
+    @Value("${cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    /**
+     * Time in milliseconds after which a near-cache entry expires.
+     */
+    @Value("${cache.local.expire-after-write-ms:60000}")
+    private long localExpireAfterWriteMs;
+
+    /**
+     * Redis channel carrying near-cache invalidations.
+     */
+    @Value("${cache.local.invalidation-channel:gateway:cache-invalidation}")
+    private String invalidationChannel;
+
+    /**
+     * Whether a missing key is loaded by a single instance across the gateway cluster.
+     */
+    @Value("${cache.single-flight.distributed:false}")
+    private boolean singleFlightDistributed;
+
+    /**
+     * Prefix of the Redis keys of the load locks.
+     */
+    @Value("${cache.single-flight.lock-prefix:gateway:load-lock:}")
+    private String lockPrefix;
+
+    /**
+     * Time in milliseconds after which an unreleased load lock expires.
+     */
+    @Value("${cache.single-flight.lock-lease-ms:5000}")
+    private long lockLeaseMs;
+
+    /**
+     * Time in milliseconds an instance waits for a value loaded by another instance.
+     */
+    @Value("${cache.single-flight.wait-timeout-ms:2000}")
+    private long waitTimeoutMs;
+
+    /**
+     * Interval in milliseconds between checks for a value loaded by another instance.
+     */
+    @Value("${cache.single-flight.poll-interval-ms:20}")
+    private long pollIntervalMs;
+
+    /**
+     * Age in milliseconds after which an entry is refreshed in the background.
+     */
+    @Value("${cache.stale-while-revalidate.soft-ttl-ms:60000}")
+    private long softTtlMs;
+
+    /**
+     * Number of threads refreshing stale entries.
+     */
+    @Value("${cache.stale-while-revalidate.refresh-threads:4}")
+    private int refreshThreads;
+
+    /**
+     * Maximum number of pending refreshes.
+     */
+    @Value("${cache.stale-while-revalidate.refresh-queue-capacity:1000}")
+    private int refreshQueueCapacity;
+
+    /**
+     * Creates the broadcaster of near-cache invalidations.
+     *
+     * @param redisTemplate The template used to publish invalidation messages.
+     * @return The invalidation broadcaster.
+     */
+    @Bean
+    public CacheInvalidationBroadcaster cacheInvalidationBroadcaster(StringRedisTemplate redisTemplate) {
+        return new CacheInvalidationBroadcaster(redisTemplate, invalidationChannel);
+    }
+
+    /**
+     * Creates the lock electing the instance loading a missing key.
+     *
+     * @param redisTemplate The template used to access the lock keys.
+     * @return A Redis-backed lock if distributed single flight is enabled, otherwise a
+     *         lock that is always granted.
+     */
+    @Bean
+    public CacheLoadLock cacheLoadLock(StringRedisTemplate redisTemplate) {
+        if (!singleFlightDistributed) {
+            return CacheLoadLock.NONE;
+        }
+        return new RedisCacheLoadLock(redisTemplate, lockPrefix, Duration.ofMillis(lockLeaseMs),
+                Duration.ofMillis(waitTimeoutMs), Duration.ofMillis(pollIntervalMs));
+    }
+
+    /**
+     * Creates the stale-while-revalidate policy, in the {@code stale-while-revalidate} cache mode.
+     *
+     * @return The stale-while-revalidate policy.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "stale-while-revalidate")
+    public StaleWhileRevalidatePolicy staleWhileRevalidatePolicy() {
+        return new StaleWhileRevalidatePolicy(Duration.ofMillis(softTtlMs), refreshThreads, refreshQueueCapacity);
+    }
+
+    /**
+     * Creates the two-tier cache manager in front of the Redis cache manager.
+     *
+     * @param redisCacheManager The Redis cache manager serving as the second tier.
+     * @param broadcaster       The broadcaster of near-cache invalidations.
+     * @param changeTracker     The tracker of committed changes, guarding cache writes.
+     * @param loadLock          The lock electing the instance loading a missing key.
+     * @param refreshPolicy     The stale-while-revalidate policy, if enabled.
+     * @param connectionFactory The Redis connection factory, used for multi-key access.
+     * @return The two-tier cache manager.
+     */
+    @Bean
+    @Primary
+    public TwoTierCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                            CacheInvalidationBroadcaster broadcaster,
+                                            TransactionChangeTracker changeTracker,
+                                            CacheLoadLock loadLock,
+                                            ObjectProvider<StaleWhileRevalidatePolicy> refreshPolicy,
+                                            RedisConnectionFactory connectionFactory) {
+        Caffeine<Object, Object> localSpec = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(localExpireAfterWriteMs));
+        return new TwoTierCacheManager(redisCacheManager, localSpec, broadcaster, changeTracker, loadLock,
+                refreshPolicy.getIfAvailable(), new RedisBatchCacheAccess(connectionFactory, redisCacheManager));
+    }
+
+    /**
+     * Subscribes to the invalidations published by the other gateway instances.
+     *
+     * @param connectionFactory The Redis connection factory.
+     * @param cacheManager      The two-tier cache manager owning the near caches.
+     * @param broadcaster       The broadcaster of near-cache invalidations.
+     * @return The listener container.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoTierCacheManager cacheManager,
+                                                                            CacheInvalidationBroadcaster broadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcaster.listener(cacheManager), new ChannelTopic(broadcaster.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,193 @@
+package dev.angryl1on.gateway.configs;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * gRPC {@link Channel} spreading calls over a pool of managed channels.
+ *
+ * <p>Every call is started on one channel of the pool, picked according to the
+ * configured {@link Balancing} strategy. Channels whose connections are all failing
+ * (state {@code TRANSIENT_FAILURE}, e.g. because their backend reports
+ * {@code NOT_SERVING}) are skipped as long as another channel is usable.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChannelPool extends Channel {
+
+    /**
+     * Strategy used to pick the channel of a call.
+     */
+    public enum Balancing {
+
+        /**
+         * Channels are used in turn.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * The channel with the fewest calls in progress is used.
+         */
+        LEAST_OUTSTANDING
+    }
+
+    /**
+     * The pooled channels.
+     */
+    private final List<PooledChannel> channels = new ArrayList<>();
+
+    /**
+     * Strategy used to pick the channel of a call.
+     */
+    private final Balancing balancing;
+
+    /**
+     * Position of the next channel in round-robin order.
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Constructs the {@code ChannelPool}.
+     *
+     * @param channels  The channels to pool; must not be empty.
+     * @param balancing The strategy used to pick the channel of a call.
+     */
+    public ChannelPool(List<ManagedChannel> channels, Balancing balancing) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("A channel pool needs at least one channel");
+        }
+        for (ManagedChannel channel : channels) {
+            this.channels.add(new PooledChannel(channel));
+        }
+        this.balancing = balancing;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        PooledChannel channel = pick();
+        return new CountingCall<>(channel.channel.newCall(method, callOptions), channel.outstanding);
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).channel.authority();
+    }
+
+    /**
+     * Shuts all pooled channels down, waiting briefly for in-flight calls.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void shutdown() throws InterruptedException {
+        for (PooledChannel pooled : channels) {
+            pooled.channel.shutdown();
+        }
+        for (PooledChannel pooled : channels) {
+            if (!pooled.channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                pooled.channel.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Picks the channel of the next call.
+     *
+     * @return The picked channel.
+     */
+    private PooledChannel pick() {
+        int size = channels.size();
+        if (size == 1) {
+            return channels.get(0);
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        PooledChannel best = null;
+        for (int i = 0; i < size; i++) {
+            PooledChannel candidate = channels.get((start + i) % size);
+            if (!candidate.isUsable()) {
+                continue;
+            }
+            if (balancing == Balancing.ROUND_ROBIN) {
+                return candidate;
+            }
+            if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                best = candidate;
+            }
+        }
+        // When no channel is usable, let the call fail or wait on the next channel in turn
+        return best != null ? best : channels.get(start);
+    }
+
+    /**
+     * A pooled channel together with its number of calls in progress.
+     */
+    private static final class PooledChannel {
+
+        private final ManagedChannel channel;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private PooledChannel(ManagedChannel channel) {
+            this.channel = channel;
+        }
+
+        private boolean isUsable() {
+            ConnectivityState state = channel.getState(false);
+            return state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN;
+        }
+    }
+
+    /**
+     * Client call keeping the outstanding-call counter of its channel up to date.
+     */
+    private static final class CountingCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+
+        private final AtomicInteger outstanding;
+
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private CountingCall(ClientCall<ReqT, RespT> delegate, AtomicInteger outstanding) {
+            super(delegate);
+            this.outstanding = outstanding;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            outstanding.incrementAndGet();
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        finish();
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (RuntimeException e) {
+                finish();
+                throw e;
+            }
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                outstanding.decrementAndGet();
+            }
+        }
+    }
+}
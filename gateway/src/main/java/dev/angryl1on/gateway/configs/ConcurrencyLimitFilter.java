@@ -0,0 +1,74 @@
+package dev.angryl1on.gateway.configs;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servlet filter bounding the number of HTTP requests processed concurrently.
+ *
+ * <p>With requests served on virtual threads, Tomcat no longer limits concurrency
+ * through the size of its worker pool. This filter takes a permit for every request
+ * and gives it back once the request has been handled. A request that cannot get a
+ * permit within the configured wait is answered with {@code 503 Service Unavailable}
+ * and a {@code Retry-After} header instead of piling up behind the Domain Service.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Permits for the requests in progress.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Maximum time in milliseconds a request waits for a permit.
+     */
+    private final long acquireTimeoutMs;
+
+    /**
+     * Constructs the {@code ConcurrencyLimitFilter}.
+     *
+     * @param maxConcurrentRequests The maximum number of requests processed at once.
+     * @param acquireTimeoutMs      The maximum time in milliseconds a request waits for a permit.
+     */
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.angryl1on.gateway.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration of the virtual-thread execution mode of the gateway.
+ *
+ * <p>Active when {@code execution.mode=virtual}. Every HTTP request is then handled
+ * on its own virtual thread instead of a Tomcat worker, so requests blocked on the
+ * Domain Service do not exhaust the worker pool; streaming responses are written on
+ * virtual threads as well. Because nothing bounds the number of virtual threads, a
+ * {@link ConcurrencyLimitFilter} caps the requests in progress at
+ * {@code execution.max-concurrent-requests}.</p>
+ *
+ * <p>In the default {@code platform} mode none of these beans are created and the
+ * standard Tomcat thread pool is used.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+public class ExecutionConfiguration implements WebMvcConfigurer {
+
+    /**
+     * Maximum number of requests processed at once.
+     */
+    @Value("${execution.max-concurrent-requests:2000}")
+    private int maxConcurrentRequests;
+
+    /**
+     * Maximum time in milliseconds a request waits for a free slot.
+     */
+    @Value("${execution.acquire-timeout-ms:100}")
+    private long acquireTimeoutMs;
+
+    /**
+     * Makes Tomcat run every request on a new virtual thread.
+     *
+     * @return The protocol handler customizer.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Registers the {@link ConcurrencyLimitFilter} ahead of all other filters.
+     *
+     * @return The filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter() {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeoutMs));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Runs asynchronous request processing, such as streaming responses, on virtual threads.
+     *
+     * @param configurer The asynchronous support configurer.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+        executor.setVirtualThreads(true);
+        configurer.setTaskExecutor(executor);
+    }
+}
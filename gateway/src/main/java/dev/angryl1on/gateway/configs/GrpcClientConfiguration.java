@@ -0,0 +1,153 @@
+package dev.angryl1on.gateway.configs;
+
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the gRPC client used to reach the Domain Service.
+ *
+ * <p>{@code grpc.client.targets} lists one or more gRPC targets, e.g. a DNS name
+ * resolving to every replica ({@code dns:///domain-service:8080}) or a static list
+ * of replicas ({@code domain-service-1:8080,domain-service-2:8080}). For every target,
+ * {@code grpc.client.channels-per-target} channels are opened; each channel uses the
+ * {@code round_robin} policy over all addresses its target resolves to, so it keeps one
+ * connection per replica. All channels are combined into a {@link ChannelPool} that
+ * picks a channel per call by round robin or by fewest outstanding calls
+ * ({@code grpc.client.load-balancing}). Several channels per target add connections
+ * per replica when a single HTTP/2 connection limits concurrent streams.</p>
+ *
+ * <p>When {@code grpc.client.health-check} is enabled, channels watch the standard
+ * health service of every replica and only route calls to replicas reporting
+ * {@code SERVING}. Keepalive pings detect broken connections while the channel idles.</p>
+ *
+ * <p>The blocking, future and asynchronous stubs are all created on top of the pool,
+ * which is shut down together with the application context.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class GrpcClientConfiguration {
+
+    /**
+     * Comma-separated gRPC targets of the Domain Service.
+     */
+    @Value("${grpc.client.targets:dns:///domain-service:8080}")
+    private List<String> targets;
+
+    /**
+     * Strategy used to pick a pooled channel: {@code round-robin} or {@code least-outstanding}.
+     */
+    @Value("${grpc.client.load-balancing:round-robin}")
+    private String loadBalancing;
+
+    /**
+     * Number of channels opened per target.
+     */
+    @Value("${grpc.client.channels-per-target:1}")
+    private int channelsPerTarget;
+
+    /**
+     * Whether calls are only routed to replicas reporting {@code SERVING}.
+     */
+    @Value("${grpc.client.health-check:true}")
+    private boolean healthCheck;
+
+    /**
+     * Interval in milliseconds between keepalive pings.
+     */
+    @Value("${grpc.client.keepalive-time-ms:30000}")
+    private long keepAliveTimeMs;
+
+    /**
+     * Time in milliseconds to wait for a keepalive acknowledgement before closing the connection.
+     */
+    @Value("${grpc.client.keepalive-timeout-ms:10000}")
+    private long keepAliveTimeoutMs;
+
+    /**
+     * Creates the pool of channels to the Domain Service.
+     *
+     * @return The channel pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ChannelPool domainServiceChannel() {
+        List<ManagedChannel> channels = new ArrayList<>();
+        for (String target : targets) {
+            for (int i = 0; i < channelsPerTarget; i++) {
+                channels.add(ManagedChannelBuilder.forTarget(target.trim())
+                        .usePlaintext()
+                        .defaultServiceConfig(serviceConfig())
+                        .disableServiceConfigLookUp()
+                        .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                        .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+                        .keepAliveWithoutCalls(true)
+                        .build());
+            }
+        }
+        ChannelPool.Balancing balancing = ChannelPool.Balancing.valueOf(
+                loadBalancing.trim().toUpperCase().replace('-', '_'));
+        return new ChannelPool(channels, balancing);
+    }
+
+    /**
+     * Creates the blocking stub, used by the blocking controller and for streaming reads.
+     *
+     * @param channel The channel to the Domain Service.
+     * @return The blocking stub.
+     */
+    @Bean
+    public DomainServiceGrpc.DomainServiceBlockingStub domainServiceBlockingStub(Channel channel) {
+        return DomainServiceGrpc.newBlockingStub(channel);
+    }
+
+    /**
+     * Creates the future stub, used by the asynchronous controller.
+     *
+     * @param channel The channel to the Domain Service.
+     * @return The future stub.
+     */
+    @Bean
+    public DomainServiceGrpc.DomainServiceFutureStub domainServiceFutureStub(Channel channel) {
+        return DomainServiceGrpc.newFutureStub(channel);
+    }
+
+    /**
+     * Creates the asynchronous stub, used for client-streaming bulk uploads.
+     *
+     * @param channel The channel to the Domain Service.
+     * @return The asynchronous stub.
+     */
+    @Bean
+    public DomainServiceGrpc.DomainServiceStub domainServiceStub(Channel channel) {
+        return DomainServiceGrpc.newStub(channel);
+    }
+
+    /**
+     * Builds the service config of every channel: round-robin over the resolved
+     * addresses and, if enabled, client-side health checking.
+     *
+     * @return The service config in its JSON map form.
+     */
+    private Map<String, Object> serviceConfig() {
+        Map<String, Object> roundRobin = Map.of("round_robin", Map.of());
+        if (!healthCheck) {
+            return Map.of("loadBalancingConfig", List.of(roundRobin));
+        }
+        return Map.of(
+                "loadBalancingConfig", List.of(roundRobin),
+                "healthCheckConfig", Map.of("serviceName", DomainServiceGrpc.SERVICE_NAME)
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package dev.angryl1on.gateway.configs;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for receiving transaction change events from RabbitMQ.
+ *
+ * <p>The Domain Service publishes every committed write on the
+ * {@value #TRANSACTION_EVENTS_EXCHANGE} fanout exchange. Each gateway instance binds
+ * its own exclusive, auto-deleted queue to it, so that every instance receives every
+ * change and can invalidate its caches; the queue disappears with the instance.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class RabbitMqConfiguration {
+
+    /**
+     * The name of the fanout exchange carrying committed transaction changes.
+     */
+    public static final String TRANSACTION_EVENTS_EXCHANGE = "transaction.events";
+
+    /**
+     * Declares the transaction events exchange, in case this instance starts first.
+     *
+     * @return A new {@link FanoutExchange} object.
+     */
+    @Bean
+    public FanoutExchange eventsExchange() {
+        return new FanoutExchange(TRANSACTION_EVENTS_EXCHANGE);
+    }
+
+    /**
+     * Defines the queue of this instance, with a generated name.
+     *
+     * @return A new exclusive, auto-deleted {@link Queue}.
+     */
+    @Bean
+    public Queue transactionEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Binds the queue of this instance to the transaction events exchange.
+     *
+     * @param transactionEventsQueue The queue of this instance.
+     * @param eventsExchange         The transaction events exchange.
+     * @return A new {@link Binding} object.
+     */
+    @Bean
+    public Binding eventsBinding(Queue transactionEventsQueue, FanoutExchange eventsExchange) {
+        return BindingBuilder.bind(transactionEventsQueue).to(eventsExchange);
+    }
+}
@@ -1,5 +1,6 @@
 package dev.angryl1on.gateway.configs;
 
+import dev.angryl1on.gateway.caches.CompactCacheValueSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,6 +10,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
 
@@ -20,9 +22,16 @@ import java.time.Duration;
  * with custom cache settings.</p>
  *
  * <p>The caching configuration supports specific cache regions like `transactions`
- * and `transactionsList`, with a default Time-to-Live (TTL) of 10 minutes.</p>
+ * and `transactionsList`, with a default Time-to-Live (TTL) of 10 minutes. In the
+ * {@code stale-while-revalidate} cache mode, the named caches keep their entries for
+ * the longer hard TTL instead, and stale entries are refreshed in the background.</p>
  *
- * <p>Values stored in the cache are serialized using {@link GenericJackson2JsonRedisSerializer}.</p>
+ * <p>Values stored in the cache are serialized using {@link CompactCacheValueSerializer}:
+ * transactions and list pages as compact protobuf, LZ4-compressed above
+ * {@code cache.serialization.compression-threshold-bytes}, anything else with
+ * {@link GenericJackson2JsonRedisSerializer}. JSON values stay readable, so
+ * {@code cache.serialization.format: json} can be used while instances of earlier
+ * versions still share the cache.</p>
  *
  * @author AngryL1on
  * @version 1.0
@@ -43,6 +52,30 @@ public class RedisConfiguration {
     @Value("${spring.data.redis.port}")
     private int redisPort;
 
+    /**
+     * Cache mode: {@code standard} or {@code stale-while-revalidate}.
+     */
+    @Value("${cache.mode:standard}")
+    private String cacheMode;
+
+    /**
+     * Time in milliseconds after which an entry expires in the {@code stale-while-revalidate} mode.
+     */
+    @Value("${cache.stale-while-revalidate.hard-ttl-ms:3600000}")
+    private long hardTtlMs;
+
+    /**
+     * Format of the cache values written: {@code protobuf} or {@code json}.
+     */
+    @Value("${cache.serialization.format:protobuf}")
+    private String serializationFormat;
+
+    /**
+     * Size in bytes from which protobuf cache values are compressed.
+     */
+    @Value("${cache.serialization.compression-threshold-bytes:1024}")
+    private int compressionThreshold;
+
     /**
      * Creates a {@link LettuceConnectionFactory} to establish a connection to the Redis server.
      *
@@ -59,22 +92,31 @@ public class RedisConfiguration {
      *
      * <p>The cache manager sets up default and named cache configurations:
      * <ul>
-     *   <li>`transactions` - Cache configuration with a TTL of 10 minutes.</li>
-     *   <li>`transactionsList` - Cache configuration with a TTL of 10 minutes.</li>
+     *   <li>`transactions` - Cache configuration with a TTL of 10 minutes, or the hard TTL.</li>
+     *   <li>`transactionsList` - Cache configuration with a TTL of 10 minutes, or the hard TTL.</li>
      * </ul>
      * The configuration disables caching of null values and applies
-     * JSON serialization for cached values.</p>
+     * compact binary serialization for cached values.</p>
+     *
+     * <p>The application uses it as the shared second tier of the two-tier cache set up
+     * in {@link CacheConfiguration}.</p>
      *
      * @return A configured {@link RedisCacheManager}.
      */
     @Bean
-    public RedisCacheManager cacheManager() {
-        RedisCacheConfiguration cacheConfig = myDefaultCacheConfig(Duration.ofMinutes(10)).disableCachingNullValues();
+    public RedisCacheManager redisCacheManager() {
+        RedisSerializer<Object> valueSerializer = new CompactCacheValueSerializer(
+                new GenericJackson2JsonRedisSerializer(), "protobuf".equals(serializationFormat), compressionThreshold);
+        RedisCacheConfiguration cacheConfig = myDefaultCacheConfig(Duration.ofMinutes(10), valueSerializer)
+                .disableCachingNullValues();
+        Duration entryTtl = "stale-while-revalidate".equals(cacheMode)
+                ? Duration.ofMillis(hardTtlMs)
+                : Duration.ofMinutes(10);
 
         return RedisCacheManager.builder(redisConnectionFactory())
                 .cacheDefaults(cacheConfig)
-                .withCacheConfiguration("transactions", myDefaultCacheConfig(Duration.ofMinutes(10)))
-                .withCacheConfiguration("transactionsList", myDefaultCacheConfig(Duration.ofMinutes(10)))
+                .withCacheConfiguration("transactions", myDefaultCacheConfig(entryTtl, valueSerializer))
+                .withCacheConfiguration("transactionsList", myDefaultCacheConfig(entryTtl, valueSerializer))
                 .build();
     }
 
@@ -84,17 +126,18 @@ public class RedisConfiguration {
      * <p>The configuration includes:
      * <ul>
      *   <li>Setting the TTL for cached entries.</li>
-     *   <li>Serialization of values using {@link GenericJackson2JsonRedisSerializer}.</li>
+     *   <li>Serialization of values using the given serializer.</li>
      * </ul>
      * </p>
      *
-     * @param duration The TTL for cache entries.
+     * @param duration        The TTL for cache entries.
+     * @param valueSerializer The serializer of cached values.
      * @return A {@link RedisCacheConfiguration} instance with custom settings.
      */
-    private RedisCacheConfiguration myDefaultCacheConfig(Duration duration) {
+    private RedisCacheConfiguration myDefaultCacheConfig(Duration duration, RedisSerializer<Object> valueSerializer) {
         return RedisCacheConfiguration
                 .defaultCacheConfig()
                 .entryTtl(duration)
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
     }
 }
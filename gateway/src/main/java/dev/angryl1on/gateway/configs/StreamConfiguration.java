@@ -0,0 +1,58 @@
+package dev.angryl1on.gateway.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Configuration of the executor writing the responses of {@code api/transactions/stream}.
+ *
+ * <p>Every stream is written by its own thread, a virtual one when
+ * {@code execution.mode=virtual}. At most {@code transaction.stream.max-concurrent}
+ * streams run at once; a stream requested beyond that limit is rejected instead of
+ * waiting for a free slot, so request threads are never held. On shutdown, the
+ * executor waits up to {@code transaction.stream.termination-timeout-ms} for the
+ * running streams to finish.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class StreamConfiguration {
+
+    /**
+     * Maximum number of streams written at once.
+     */
+    @Value("${transaction.stream.max-concurrent:64}")
+    private int maxConcurrentStreams;
+
+    /**
+     * Maximum time in milliseconds to wait for the running streams on shutdown.
+     */
+    @Value("${transaction.stream.termination-timeout-ms:10000}")
+    private long terminationTimeoutMs;
+
+    /**
+     * Execution mode; streams are written on virtual threads in {@code virtual} mode.
+     */
+    @Value("${execution.mode:platform}")
+    private String mode;
+
+    /**
+     * Creates the executor writing the streamed responses, closed together with the
+     * application context.
+     *
+     * @return The stream executor.
+     */
+    @Bean(destroyMethod = "close")
+    public SimpleAsyncTaskExecutor transactionStreamExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("transaction-stream-");
+        executor.setVirtualThreads("virtual".equals(mode));
+        executor.setConcurrencyLimit(maxConcurrentStreams);
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskTerminationTimeout(terminationTimeoutMs);
+        return executor;
+    }
+}
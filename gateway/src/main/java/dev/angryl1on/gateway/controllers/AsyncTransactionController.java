@@ -0,0 +1,221 @@
+package dev.angryl1on.gateway.controllers;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPatchDTO;
+import dev.angryl1on.gateway.services.TransactionLookupBatcher;
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import dev.angryl1on.grpc.TransactionsProto;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking REST controller for managing transactions via gRPC.
+ *
+ * <p>Serves the same endpoints as {@link TransactionController} when
+ * {@code execution.controller=async}. Every handler calls the Domain Service through
+ * the gRPC future stub and returns a {@link CompletableFuture}; Spring MVC releases
+ * the servlet thread as soon as the handler returns and writes the response when the
+ * future completes on a gRPC transport thread. No thread waits for the Domain Service,
+ * so throughput is bound by CPU rather than by the size of the servlet thread pool.</p>
+ *
+ * <p>Caching stays non-blocking as well: for methods returning a future, Spring's cache
+ * abstraction reads the Redis cache through its asynchronous {@code retrieve} operation,
+ * served by the Lettuce driver, and stores the value once the future completes.
+ * Concurrent misses on a key wait on the future of the first one.</p>
+ *
+ * <p>Endpoints are exposed under the base URL {@code /api/transactions}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("api/transactions")
+@ConditionalOnProperty(name = "execution.controller", havingValue = "async")
+public class AsyncTransactionController {
+
+    /**
+     * gRPC future stub for communicating with the Domain Service.
+     */
+    private final DomainServiceGrpc.DomainServiceFutureStub stub;
+
+    /**
+     * Coalescer of single-transaction lookups, or {@code null} if lookups are not batched.
+     */
+    private final TransactionLookupBatcher lookupBatcher;
+
+    /**
+     * This controller as a bean, so that pages are read through its cache.
+     */
+    private final ObjectProvider<AsyncTransactionController> self;
+
+    /**
+     * Constructs the {@code AsyncTransactionController}.
+     *
+     * @param stub          The future stub of the Domain Service.
+     * @param lookupBatcher The coalescer of single-transaction lookups, if enabled.
+     * @param self          This controller as a bean.
+     */
+    @Autowired
+    public AsyncTransactionController(DomainServiceGrpc.DomainServiceFutureStub stub,
+                                     ObjectProvider<TransactionLookupBatcher> lookupBatcher,
+                                     ObjectProvider<AsyncTransactionController> self) {
+        this.stub = stub;
+        this.lookupBatcher = lookupBatcher.getIfAvailable();
+        this.self = self;
+    }
+
+    /**
+     * Creates a new transaction.
+     *
+     * @param transactionRequest The transaction details provided in the request body.
+     * @return The created transaction, including its assigned ID.
+     * @see TransactionController#createTransaction(TransactionDTO)
+     */
+    @PostMapping
+    public CompletableFuture<TransactionDTO> createTransaction(@RequestBody TransactionDTO transactionRequest) {
+        return toCompletableFuture(stub.createTransaction(TransactionMapper.toCreateRequest(transactionRequest)))
+                .thenApply(TransactionMapper::toTransaction);
+    }
+
+    /**
+     * Retrieves a transaction by its ID.
+     *
+     * @param id The ID of the transaction to retrieve.
+     * @return The transaction details as a {@code TransactionDTO}.
+     * @see TransactionController#getTransactionById(String)
+     */
+    @GetMapping("/{id}")
+    @Cacheable(value = "transactions", key = "#id", sync = true)
+    public CompletableFuture<TransactionDTO> getTransactionById(@PathVariable String id) {
+        if (lookupBatcher != null) {
+            return lookupBatcher.load(id);
+        }
+        TransactionsProto.TransactionRequest request =
+                TransactionsProto.TransactionRequest.newBuilder()
+                        .setId(id)
+                        .build();
+
+        return toCompletableFuture(stub.getTransactionById(request))
+                .thenApply(TransactionMapper::toTransaction);
+    }
+
+    /**
+     * Retrieves one page of transactions as a JSON array.
+     *
+     * @param filter The filters and paging parameters bound from the query string.
+     * @return The transactions of the requested page.
+     * @see TransactionController#getAllTransactions(TransactionFilterDTO)
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<TransactionDTO>>> getAllTransactions(TransactionFilterDTO filter) {
+        return self.getObject().getTransactionPage(filter).thenApply(TransactionMapper::toListResponse);
+    }
+
+    /**
+     * Retrieves one page of transactions.
+     *
+     * @param filter The filters and paging parameters bound from the query string.
+     * @return The requested page as a {@code TransactionPageDTO}.
+     * @see TransactionController#getTransactionPage(TransactionFilterDTO)
+     */
+    @GetMapping("/page")
+    @Cacheable(value = "transactionsList", key = "#filter.toCacheKey()", sync = true)
+    public CompletableFuture<TransactionPageDTO> getTransactionPage(TransactionFilterDTO filter) {
+        return toCompletableFuture(stub.getAllTransactions(TransactionMapper.toListRequest(filter)))
+                .thenApply(TransactionMapper::toPage);
+    }
+
+    /**
+     * Updates an existing transaction.
+     *
+     * @param id                 The ID of the transaction to update.
+     * @param transactionRequest The updated transaction details.
+     * @return A success message from the gRPC response.
+     * @see TransactionController#updateTransaction(String, TransactionDTO)
+     */
+    @PutMapping("/{id}")
+    public CompletableFuture<String> updateTransaction(@PathVariable String id,
+                                                      @RequestBody TransactionDTO transactionRequest) {
+        return toCompletableFuture(stub.updateTransaction(TransactionMapper.toUpdateRequest(id, transactionRequest)))
+                .thenApply(TransactionsProto.TransactionResponse::getMessage);
+    }
+
+    /**
+     * Partially updates an existing transaction.
+     *
+     * @param id    The ID of the transaction to update.
+     * @param patch The fields to update.
+     * @return A success message from the gRPC response.
+     * @see TransactionController#patchTransaction(String, TransactionPatchDTO)
+     */
+    @PatchMapping("/{id}")
+    public CompletableFuture<String> patchTransaction(@PathVariable String id,
+                                                     @RequestBody TransactionPatchDTO patch) {
+        return toCompletableFuture(stub.patchTransaction(TransactionMapper.toPatchRequest(id, patch)))
+                .thenApply(TransactionsProto.TransactionResponse::getMessage);
+    }
+
+    /**
+     * Deletes a transaction by its ID.
+     *
+     * @param id The ID of the transaction to delete.
+     * @return A success message from the gRPC response.
+     * @see TransactionController#deleteTransaction(String)
+     */
+    @DeleteMapping("/{id}")
+    public CompletableFuture<String> deleteTransaction(@PathVariable String id) {
+        TransactionsProto.DeleteTransactionRequest request =
+                TransactionsProto.DeleteTransactionRequest.newBuilder()
+                        .setId(id)
+                        .build();
+
+        return toCompletableFuture(stub.deleteTransaction(request))
+                .thenApply(TransactionsProto.TransactionResponse::getMessage);
+    }
+
+    /**
+     * Adapts a gRPC call future to a {@link CompletableFuture}.
+     *
+     * <p>Cancelling the returned future (e.g., when the client disconnects) cancels the
+     * gRPC call.</p>
+     *
+     * @param call The future of a unary gRPC call.
+     * @param <T>  The response type.
+     * @return A future completed with the call's response or error.
+     */
+    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.angryl1on.gateway.controllers;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Translates the errors of Domain Service calls into HTTP responses.
+ *
+ * <p>The Domain Service reports rejected requests with gRPC status codes: an invalid
+ * filter or page token is {@code INVALID_ARGUMENT}, an unknown ID is {@code NOT_FOUND}.
+ * Without this handler they all surfaced as {@code 500 Internal Server Error}. The
+ * handler applies to every controller, blocking or asynchronous: Spring MVC unwraps
+ * the exception a failed future completes with before looking handlers up.</p>
+ *
+ * <p>The response is an RFC 9457 problem document whose detail is the description of
+ * the gRPC status. Errors mapped to a 5xx status are logged.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@RestControllerAdvice
+public class GrpcExceptionHandler {
+
+    /**
+     * Logger for logging Domain Service failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(GrpcExceptionHandler.class);
+
+    /**
+     * Maps a failed Domain Service call to the HTTP status matching its gRPC status.
+     *
+     * @param e The error of the call.
+     * @return The problem document.
+     */
+    @ExceptionHandler(StatusRuntimeException.class)
+    public ResponseEntity<ProblemDetail> handleStatus(StatusRuntimeException e) {
+        Status status = e.getStatus();
+        HttpStatus httpStatus = toHttpStatus(status.getCode());
+        if (httpStatus.is5xxServerError()) {
+            logger.warn("Domain Service call failed with {}", status, e);
+        }
+        String detail = status.getDescription() != null ? status.getDescription() : status.getCode().name();
+        return ResponseEntity.status(httpStatus).body(ProblemDetail.forStatusAndDetail(httpStatus, detail));
+    }
+
+    /**
+     * Maps a gRPC status code to an HTTP status.
+     *
+     * @param code The gRPC status code.
+     * @return The HTTP status.
+     */
+    static HttpStatus toHttpStatus(Status.Code code) {
+        return switch (code) {
+            case INVALID_ARGUMENT, OUT_OF_RANGE, FAILED_PRECONDITION -> HttpStatus.BAD_REQUEST;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case ALREADY_EXISTS, ABORTED -> HttpStatus.CONFLICT;
+            case RESOURCE_EXHAUSTED -> HttpStatus.TOO_MANY_REQUESTS;
+            case UNIMPLEMENTED -> HttpStatus.NOT_IMPLEMENTED;
+            case UNAVAILABLE -> HttpStatus.SERVICE_UNAVAILABLE;
+            case DEADLINE_EXCEEDED -> HttpStatus.GATEWAY_TIMEOUT;
+            default -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package dev.angryl1on.gateway.controllers;
+
+import dev.angryl1on.gateway.models.dtos.TransactionAggregateDTO;
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import dev.angryl1on.grpc.TransactionsProto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST controller for transaction counts and totals via gRPC.
+ *
+ * <p>Figures come from the rollups the Domain Service maintains on every write, so a
+ * request costs one gRPC call whose size depends on the number of dates and types in
+ * the range, not on the number of transactions. The controller is available in both
+ * controller modes.</p>
+ *
+ * <p>Endpoints are exposed under the base URL {@code /api/transactions/aggregates}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("api/transactions/aggregates")
+public class TransactionAggregateController {
+
+    /**
+     * gRPC blocking stub for communicating with the Domain Service.
+     */
+    private final DomainServiceGrpc.DomainServiceBlockingStub stub;
+
+    /**
+     * Constructs the {@code TransactionAggregateController}.
+     *
+     * @param stub The blocking stub of the Domain Service.
+     */
+    @Autowired
+    public TransactionAggregateController(DomainServiceGrpc.DomainServiceBlockingStub stub) {
+        this.stub = stub;
+    }
+
+    /**
+     * Retrieves the number and total amount of the transactions, grouped by date and/or type.
+     *
+     * @param from    The first date, inclusive (optional).
+     * @param to      The last date, inclusive (optional).
+     * @param type    The transaction type to restrict to (optional).
+     * @param groupBy The grouping: {@code date-type} (default), {@code type}, {@code date}
+     *                or {@code none} for a single overall figure.
+     * @return The aggregates, ordered by date and then by type.
+     */
+    @GetMapping
+    public List<TransactionAggregateDTO> getAggregates(@RequestParam(required = false) String from,
+                                                       @RequestParam(required = false) String to,
+                                                       @RequestParam(required = false) String type,
+                                                       @RequestParam(defaultValue = "date-type") String groupBy) {
+        TransactionsProto.AggregatesRequest.Builder request = TransactionsProto.AggregatesRequest.newBuilder()
+                .setGroupBy(toGrouping(groupBy));
+        if (from != null) {
+            request.setDateFrom(from);
+        }
+        if (to != null) {
+            request.setDateTo(to);
+        }
+        if (type != null) {
+            request.setType(type);
+        }
+
+        TransactionsProto.AggregatesResponse response = stub.getAggregates(request.build());
+
+        List<TransactionAggregateDTO> aggregates = new ArrayList<>(response.getAggregatesCount());
+        for (TransactionsProto.Aggregate aggregate : response.getAggregatesList()) {
+            aggregates.add(new TransactionAggregateDTO(
+                    aggregate.getDate().isEmpty() ? null : aggregate.getDate(),
+                    aggregate.getType().isEmpty() ? null : aggregate.getType(),
+                    aggregate.getCount(),
+                    aggregate.getTotal()));
+        }
+        return aggregates;
+    }
+
+    /**
+     * Maps the {@code groupBy} query parameter to the gRPC grouping.
+     *
+     * @param groupBy The query parameter value.
+     * @return The corresponding {@link TransactionsProto.AggregateGrouping}.
+     */
+    private static TransactionsProto.AggregateGrouping toGrouping(String groupBy) {
+        return switch (groupBy) {
+            case "date-type" -> TransactionsProto.AggregateGrouping.GROUP_BY_DATE_AND_TYPE;
+            case "type" -> TransactionsProto.AggregateGrouping.GROUP_BY_TYPE;
+            case "date" -> TransactionsProto.AggregateGrouping.GROUP_BY_DATE;
+            case "none" -> TransactionsProto.AggregateGrouping.GROUP_OVERALL;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "groupBy must be one of date-type, type, date, none");
+        };
+    }
+}
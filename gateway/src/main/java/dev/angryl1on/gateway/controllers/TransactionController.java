@@ -1,15 +1,19 @@
 package dev.angryl1on.gateway.controllers;
 
 import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPatchDTO;
+import dev.angryl1on.gateway.services.TransactionLookupBatcher;
 import dev.angryl1on.grpc.DomainServiceGrpc;
 import dev.angryl1on.grpc.TransactionsProto;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,14 +24,22 @@ import java.util.List;
  * <ul>
  *   <li>Create a new transaction</li>
  *   <li>Retrieve a transaction by ID</li>
- *   <li>Retrieve all transactions</li>
+ *   <li>Retrieve a filtered page of transactions, as an array or as a page object</li>
  *   <li>Update an existing transaction</li>
+ *   <li>Partially update an existing transaction</li>
  *   <li>Delete a transaction</li>
  * </ul>
  * </p>
  *
- * <p>Caching is used to optimize read operations, and cache eviction is applied
- * on write operations to maintain data consistency.</p>
+ * <p>Caching is used to optimize read operations. Writes do not evict cache entries
+ * themselves: once a write is committed, the Domain Service publishes a change event
+ * and only the affected entries are evicted (see
+ * {@link dev.angryl1on.gateway.services.TransactionChangeEventListener}).</p>
+ *
+ * <p>Each request blocks its thread for the whole Domain Service round trip. This is
+ * the default {@code execution.controller=blocking} mode; with
+ * {@code execution.controller=async} the same endpoints are served by
+ * {@link AsyncTransactionController} instead.</p>
  *
  * <p>Endpoints are exposed under the base URL {@code /api/transactions}.</p>
  *
@@ -37,6 +49,7 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("api/transactions")
+@ConditionalOnProperty(name = "execution.controller", havingValue = "blocking", matchIfMissing = true)
 public class TransactionController {
 
     /**
@@ -45,52 +58,67 @@ public class TransactionController {
     private final DomainServiceGrpc.DomainServiceBlockingStub stub;
 
     /**
-     * Constructs the {@code TransactionController} and initializes the gRPC channel.
+     * Coalescer of single-transaction lookups, or {@code null} if lookups are not batched.
+     */
+    private final TransactionLookupBatcher lookupBatcher;
+
+    /**
+     * This controller as a bean, so that pages are read through its cache.
      */
-    public TransactionController() {
-        ManagedChannel channel = ManagedChannelBuilder
-                .forAddress("domain-service", 8080)
-                .usePlaintext()
-                .build();
+    private final ObjectProvider<TransactionController> self;
 
-        this.stub = DomainServiceGrpc.newBlockingStub(channel);
+    /**
+     * Constructs the {@code TransactionController}.
+     *
+     * @param stub          The blocking stub of the Domain Service.
+     * @param lookupBatcher The coalescer of single-transaction lookups, if enabled.
+     * @param self          This controller as a bean.
+     */
+    @Autowired
+    public TransactionController(DomainServiceGrpc.DomainServiceBlockingStub stub,
+                                ObjectProvider<TransactionLookupBatcher> lookupBatcher,
+                                ObjectProvider<TransactionController> self) {
+        this.stub = stub;
+        this.lookupBatcher = lookupBatcher.getIfAvailable();
+        this.self = self;
     }
 
     /**
      * Creates a new transaction.
      *
-     * <p>Sends a gRPC {@code CreateTransactionRequest} to the Domain Service.
-     * Cache is cleared upon successful creation.</p>
+     * <p>Sends a gRPC {@code CreateTransactionRequest} to the Domain Service, which
+     * assigns the transaction ID and answers once the creation has been accepted by
+     * the message broker. List pages covering the new transaction are evicted once it
+     * is committed.</p>
      *
      * @param transactionRequest The transaction details provided in the request body.
-     * @return A success message from the gRPC response.
+     * @return The created transaction, including its assigned ID.
      */
     @PostMapping
-    @CacheEvict(value = {"transactionsList", "transactions"}, allEntries = true)
-    public String createTransaction(@RequestBody TransactionDTO transactionRequest) {
-        TransactionsProto.CreateTransactionRequest request =
-                TransactionsProto.CreateTransactionRequest.newBuilder()
-                        .setAmount(transactionRequest.getAmount())
-                        .setDate(transactionRequest.getDate())
-                        .setType(transactionRequest.getType())
-                        .build();
+    public TransactionDTO createTransaction(@RequestBody TransactionDTO transactionRequest) {
+        TransactionsProto.CreateTransactionRequest request = TransactionMapper.toCreateRequest(transactionRequest);
 
         TransactionsProto.TransactionResponse response = stub.createTransaction(request);
-        return response.getMessage();
+        return TransactionMapper.toTransaction(response);
     }
 
     /**
      * Retrieves a transaction by its ID.
      *
      * <p>Sends a gRPC {@code GetTransactionById} request to the Domain Service.
-     * The result is cached to optimize repeated reads.</p>
+     * The result is cached to optimize repeated reads; concurrent misses on the same ID
+     * share a single call. With lookup batching enabled, misses on different IDs
+     * arriving within a short window are sent as one {@code BatchGetTransactions} call.</p>
      *
      * @param id The ID of the transaction to retrieve.
      * @return The transaction details as a {@code TransactionDTO}.
      */
     @GetMapping("/{id}")
-    @Cacheable(value = "transactions", key = "#id", unless = "#result == null")
+    @Cacheable(value = "transactions", key = "#id", sync = true)
     public TransactionDTO getTransactionById(@PathVariable String id) {
+        if (lookupBatcher != null) {
+            return lookupBatcher.get(id);
+        }
         TransactionsProto.TransactionRequest request =
                 TransactionsProto.TransactionRequest.newBuilder()
                         .setId(id)
@@ -98,79 +126,99 @@ public class TransactionController {
 
         TransactionsProto.TransactionResponse response = stub.getTransactionById(request);
 
-        return new TransactionDTO(
-                response.getId(),
-                response.getAmount(),
-                response.getDate(),
-                response.getType()
-        );
+        return TransactionMapper.toTransaction(response);
     }
 
     /**
-     * Retrieves all transactions.
+     * Retrieves one page of transactions as a JSON array.
      *
-     * <p>Sends a gRPC {@code GetAllTransactions} request to the Domain Service.
-     * The result is cached to optimize repeated reads.</p>
+     * <p>Keeps the response shape of this endpoint from before pagination: clients
+     * reading an array of transactions keep working. The page is the one returned by
+     * {@link #getTransactionPage(TransactionFilterDTO)}, served from the same cache; its
+     * cursor is returned in the {@code X-Next-Page-Token} header, absent on the last
+     * page. Without paging parameters, only the first page is returned.</p>
      *
-     * @return A list of all transactions as {@code TransactionDTO} objects.
+     * @param filter The filters and paging parameters bound from the query string.
+     * @return The transactions of the requested page.
      */
     @GetMapping
-    @Cacheable(value = "transactionsList", unless = "#result == null || #result.isEmpty()")
-    public List<TransactionDTO> getAllTransactions() {
-        TransactionsProto.TransactionListRequest request =
-                TransactionsProto.TransactionListRequest.newBuilder()
-                        .build();
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(TransactionFilterDTO filter) {
+        return TransactionMapper.toListResponse(self.getObject().getTransactionPage(filter));
+    }
+
+    /**
+     * Retrieves one page of transactions.
+     *
+     * <p>Sends a gRPC {@code GetAllTransactions} request to the Domain Service with the
+     * filters and keyset cursor taken from the query string. Pages are ordered by date
+     * and ID; the returned {@code nextPageToken} is passed as {@code after} to fetch the
+     * following page. Each page is cached under a key covering all query parameters, and
+     * concurrent misses on the same key share a single call. Empty pages are cached too:
+     * a transaction created in their range evicts them.</p>
+     *
+     * @param filter The filters and paging parameters bound from the query string.
+     * @return The requested page as a {@code TransactionPageDTO}.
+     */
+    @GetMapping("/page")
+    @Cacheable(value = "transactionsList", key = "#filter.toCacheKey()", sync = true)
+    public TransactionPageDTO getTransactionPage(TransactionFilterDTO filter) {
+        TransactionsProto.TransactionListRequest request = TransactionMapper.toListRequest(filter);
 
         TransactionsProto.TransactionListResponse response = stub.getAllTransactions(request);
 
-        List<TransactionDTO> transactions = new ArrayList<>();
-        for (TransactionsProto.TransactionResponse tr : response.getTransactionsList()) {
-            transactions.add(new TransactionDTO(
-                    tr.getId(),
-                    tr.getAmount(),
-                    tr.getDate(),
-                    tr.getType()
-            ));
-        }
-        return transactions;
+        return TransactionMapper.toPage(response);
     }
 
     /**
      * Updates an existing transaction.
      *
      * <p>Sends a gRPC {@code UpdateTransactionRequest} to the Domain Service.
-     * Cache entries are evicted upon successful update.</p>
+     * The cached transaction and the list pages containing it are evicted once the
+     * update is committed.</p>
      *
      * @param id                The ID of the transaction to update.
      * @param transactionRequest The updated transaction details.
      * @return A success message from the gRPC response.
      */
     @PutMapping("/{id}")
-    @CacheEvict(value = {"transactions", "transactionsList"}, key = "#id", allEntries = true)
     public String updateTransaction(@PathVariable String id, @RequestBody TransactionDTO transactionRequest) {
-        TransactionsProto.UpdateTransactionRequest request =
-                TransactionsProto.UpdateTransactionRequest.newBuilder()
-                        .setId(id)
-                        .setAmount(transactionRequest.getAmount())
-                        .setDate(transactionRequest.getDate())
-                        .setType(transactionRequest.getType())
-                        .build();
+        TransactionsProto.UpdateTransactionRequest request = TransactionMapper.toUpdateRequest(id, transactionRequest);
 
         TransactionsProto.TransactionResponse response = stub.updateTransaction(request);
         return response.getMessage();
     }
 
+    /**
+     * Partially updates an existing transaction.
+     *
+     * <p>Sends a gRPC {@code PatchTransactionRequest} naming only the fields present in
+     * the body, which the Domain Service writes in a single atomic update without
+     * reading the transaction first. The cached transaction and the list pages
+     * containing it are evicted once the update is committed.</p>
+     *
+     * @param id    The ID of the transaction to update.
+     * @param patch The fields to update.
+     * @return A success message from the gRPC response.
+     */
+    @PatchMapping("/{id}")
+    public String patchTransaction(@PathVariable String id, @RequestBody TransactionPatchDTO patch) {
+        TransactionsProto.PatchTransactionRequest request = TransactionMapper.toPatchRequest(id, patch);
+
+        TransactionsProto.TransactionResponse response = stub.patchTransaction(request);
+        return response.getMessage();
+    }
+
     /**
      * Deletes a transaction by its ID.
      *
      * <p>Sends a gRPC {@code DeleteTransactionRequest} to the Domain Service.
-     * Cache entries are evicted upon successful deletion.</p>
+     * The cached transaction and the list pages containing it are evicted once the
+     * deletion is committed.</p>
      *
      * @param id The ID of the transaction to delete.
      * @return A success message from the gRPC response.
      */
     @DeleteMapping("/{id}")
-    @CacheEvict(value = {"transactionsList", "transactions"}, key = "#id", allEntries = true)
     public String deleteTransaction(@PathVariable String id) {
         TransactionsProto.DeleteTransactionRequest request =
                 TransactionsProto.DeleteTransactionRequest.newBuilder()
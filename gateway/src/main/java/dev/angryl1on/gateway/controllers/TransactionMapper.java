@@ -0,0 +1,189 @@
+package dev.angryl1on.gateway.controllers;
+
+import com.google.protobuf.FieldMask;
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPatchDTO;
+import dev.angryl1on.grpc.TransactionsProto;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversions between the gateway DTOs and the Domain Service gRPC messages.
+ *
+ * <p>Shared by the blocking and the asynchronous transaction controllers so that both
+ * modes expose exactly the same HTTP representation.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+final class TransactionMapper {
+
+    /**
+     * Header carrying the cursor of the next page on {@code GET api/transactions}.
+     */
+    static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
+    private TransactionMapper() {
+    }
+
+    /**
+     * Builds the gRPC creation request from the request body.
+     *
+     * @param transaction The transaction details provided in the request body.
+     * @return The corresponding {@code CreateTransactionRequest}.
+     */
+    static TransactionsProto.CreateTransactionRequest toCreateRequest(TransactionDTO transaction) {
+        return TransactionsProto.CreateTransactionRequest.newBuilder()
+                .setAmount(transaction.getAmount())
+                .setDate(transaction.getDate())
+                .setType(transaction.getType())
+                .build();
+    }
+
+    /**
+     * Builds the gRPC update request from the path ID and the request body.
+     *
+     * @param id          The ID of the transaction to update.
+     * @param transaction The updated transaction details.
+     * @return The corresponding {@code UpdateTransactionRequest}.
+     */
+    static TransactionsProto.UpdateTransactionRequest toUpdateRequest(String id, TransactionDTO transaction) {
+        return TransactionsProto.UpdateTransactionRequest.newBuilder()
+                .setId(id)
+                .setAmount(transaction.getAmount())
+                .setDate(transaction.getDate())
+                .setType(transaction.getType())
+                .build();
+    }
+
+    /**
+     * Builds the gRPC partial update request from the path ID and the request body.
+     *
+     * <p>The field mask names the fields present in the body.</p>
+     *
+     * @param id    The ID of the transaction to update.
+     * @param patch The fields to update.
+     * @return The corresponding {@code PatchTransactionRequest}.
+     */
+    static TransactionsProto.PatchTransactionRequest toPatchRequest(String id, TransactionPatchDTO patch) {
+        TransactionsProto.PatchTransactionRequest.Builder request =
+                TransactionsProto.PatchTransactionRequest.newBuilder().setId(id);
+        FieldMask.Builder mask = FieldMask.newBuilder();
+        if (patch.getAmount() != null) {
+            request.setAmount(patch.getAmount());
+            mask.addPaths("amount");
+        }
+        if (patch.getDate() != null) {
+            request.setDate(patch.getDate());
+            mask.addPaths("date");
+        }
+        if (patch.getType() != null) {
+            request.setType(patch.getType());
+            mask.addPaths("type");
+        }
+        if (patch.getAmountDelta() != null) {
+            request.setAmountDelta(patch.getAmountDelta());
+        }
+        return request.setUpdateMask(mask).build();
+    }
+
+    /**
+     * Builds the gRPC list request from the query parameters.
+     *
+     * @param filter The filters and paging parameters bound from the query string.
+     * @return The corresponding {@code TransactionListRequest}.
+     */
+    static TransactionsProto.TransactionListRequest toListRequest(TransactionFilterDTO filter) {
+        TransactionsProto.TransactionListRequest.Builder builder =
+                TransactionsProto.TransactionListRequest.newBuilder();
+
+        if (filter.getAfter() != null) {
+            builder.setPageToken(filter.getAfter());
+        }
+        if (filter.getLimit() != null) {
+            builder.setPageSize(filter.getLimit());
+        }
+        if (filter.getFrom() != null) {
+            builder.setDateFrom(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            builder.setDateTo(filter.getTo());
+        }
+        if (filter.getType() != null) {
+            builder.setType(filter.getType());
+        }
+        if (filter.getMinAmount() != null) {
+            builder.setAmountMin(filter.getMinAmount());
+        }
+        if (filter.getMaxAmount() != null) {
+            builder.setAmountMax(filter.getMaxAmount());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a gRPC transaction response into its DTO.
+     *
+     * @param response The gRPC response.
+     * @return The transaction as a {@code TransactionDTO}.
+     */
+    static TransactionDTO toTransaction(TransactionsProto.TransactionResponse response) {
+        return new TransactionDTO(
+                response.getId(),
+                response.getAmount(),
+                response.getDate(),
+                response.getType()
+        );
+    }
+
+    /**
+     * Converts a streamed gRPC transaction into its DTO.
+     *
+     * @param transaction The streamed transaction.
+     * @return The transaction as a {@code TransactionDTO}.
+     */
+    static TransactionDTO toTransaction(TransactionsProto.Transaction transaction) {
+        return new TransactionDTO(
+                transaction.getId(),
+                transaction.getAmount(),
+                transaction.getDate(),
+                transaction.getType()
+        );
+    }
+
+    /**
+     * Converts a gRPC list response into a page DTO.
+     *
+     * @param response The gRPC list response.
+     * @return The page as a {@code TransactionPageDTO}.
+     */
+    static TransactionPageDTO toPage(TransactionsProto.TransactionListResponse response) {
+        List<TransactionDTO> transactions = new ArrayList<>();
+        for (TransactionsProto.TransactionResponse tr : response.getTransactionsList()) {
+            transactions.add(toTransaction(tr));
+        }
+        String nextPageToken = response.getNextPageToken().isEmpty() ? null : response.getNextPageToken();
+        return new TransactionPageDTO(transactions, nextPageToken);
+    }
+
+    /**
+     * Converts a page into the JSON array returned by {@code GET api/transactions}
+     * before pagination, with the cursor of the next page in the
+     * {@value #NEXT_PAGE_TOKEN_HEADER} header.
+     *
+     * @param page The page.
+     * @return The transactions of the page, and the cursor header unless it is the last page.
+     */
+    static ResponseEntity<List<TransactionDTO>> toListResponse(TransactionPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            response.header(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return response.body(page.getTransactions());
+    }
+}
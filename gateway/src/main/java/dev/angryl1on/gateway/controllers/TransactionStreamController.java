@@ -0,0 +1,234 @@
+package dev.angryl1on.gateway.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.angryl1on.gateway.models.dtos.BulkCreateResultDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionBatchDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.gateway.services.TransactionBatchLookup;
+import dev.angryl1on.gateway.services.TransactionBulkUploader;
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import dev.angryl1on.grpc.TransactionsProto;
+import io.grpc.Context;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * REST controller for streaming transfers of transactions via gRPC.
+ *
+ * <p>This controller provides the endpoints moving many transactions at once:
+ * <ul>
+ *   <li>Create many transactions from a JSON array or NDJSON upload</li>
+ *   <li>Retrieve many transactions by their IDs</li>
+ *   <li>Stream all matching transactions as NDJSON or a chunked JSON array</li>
+ * </ul>
+ * The upload and stream endpoints already release the request thread while data is
+ * transferred, so they are served the same way whichever controller mode is configured;
+ * the lookup by IDs is available in both modes too.</p>
+ *
+ * <p>Streams are exempt from {@code spring.mvc.async.request-timeout}, which bounds the
+ * other asynchronous requests: they run under {@code transaction.stream.timeout-ms}
+ * instead, ten minutes by default. Streams are written by the
+ * {@code transactionStreamExecutor}, which bounds how many run at once; a stream
+ * requested beyond that limit is answered with {@code 503 Service Unavailable}.</p>
+ *
+ * <p>Endpoints are exposed under the base URL {@code /api/transactions}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("api/transactions")
+public class TransactionStreamController {
+
+    /**
+     * Number of streamed transactions written between two flushes of the HTTP response.
+     */
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
+    /**
+     * Maximum duration in milliseconds of a stream; zero or negative for unlimited.
+     */
+    @Value("${transaction.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    /**
+     * Executor writing the streamed responses, one thread per stream.
+     */
+    private final AsyncTaskExecutor streamExecutor;
+
+    /**
+     * gRPC blocking stub consuming the server-streaming call.
+     */
+    private final DomainServiceGrpc.DomainServiceBlockingStub stub;
+
+    /**
+     * Object mapper used to write streamed transactions to the HTTP response.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Uploader forwarding bulk uploads over client-streaming gRPC calls.
+     */
+    private final TransactionBulkUploader bulkUploader;
+
+    /**
+     * Lookup of many transactions by ID.
+     */
+    private final TransactionBatchLookup batchLookup;
+
+    /**
+     * Constructs the {@code TransactionStreamController}.
+     *
+     * @param stub           The blocking stub of the Domain Service.
+     * @param objectMapper   The application's JSON object mapper.
+     * @param bulkUploader   The uploader forwarding bulk uploads to the Domain Service.
+     * @param batchLookup    The lookup of many transactions by ID.
+     * @param streamExecutor The executor writing the streamed responses.
+     */
+    @Autowired
+    public TransactionStreamController(DomainServiceGrpc.DomainServiceBlockingStub stub,
+                                       ObjectMapper objectMapper,
+                                       TransactionBulkUploader bulkUploader,
+                                       TransactionBatchLookup batchLookup,
+                                       @Qualifier("transactionStreamExecutor") AsyncTaskExecutor streamExecutor) {
+        this.streamExecutor = streamExecutor;
+        this.stub = stub;
+        this.objectMapper = objectMapper;
+        this.bulkUploader = bulkUploader;
+        this.batchLookup = batchLookup;
+    }
+
+    /**
+     * Retrieves many transactions by their IDs.
+     *
+     * <p>Cache hits are resolved with a single Redis {@code MGET}; the misses are fetched
+     * with one {@code BatchGetTransactions} gRPC call and cached in one Redis pipeline.</p>
+     *
+     * @param ids The IDs, as a comma-separated or repeated {@code ids} query parameter.
+     * @return The found transactions in request order, and the IDs without a transaction.
+     */
+    @GetMapping(params = "ids")
+    public TransactionBatchDTO getTransactionsByIds(@RequestParam List<String> ids) {
+        if (ids.stream().distinct().count() > TransactionBatchLookup.MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + TransactionBatchLookup.MAX_IDS + " IDs can be requested at once");
+        }
+        return batchLookup.findByIds(ids);
+    }
+
+    /**
+     * Creates many transactions at once.
+     *
+     * <p>Accepts a JSON array ({@code application/json}) or newline-delimited JSON
+     * ({@code application/x-ndjson}) of transactions. The body is parsed while it is
+     * being received and forwarded to the Domain Service over client-streaming
+     * {@code BulkCreateTransactions} calls, which publish the transactions to the queue
+     * in batches. The response reports accepted and rejected counts and lists every
+     * rejected item with its position and reason. List pages covering the created
+     * transactions are evicted as they are committed.</p>
+     *
+     * @param request The HTTP request whose body contains the transactions.
+     * @return The outcome of the upload.
+     * @throws IOException If the request body cannot be opened.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkCreateResultDTO createTransactions(HttpServletRequest request) throws IOException {
+        return bulkUploader.upload(request.getInputStream());
+    }
+
+    /**
+     * Streams all transactions matching the filters.
+     *
+     * <p>Consumes the server-streaming gRPC {@code StreamTransactions} call and writes
+     * every transaction to the response as soon as it arrives, using chunked transfer
+     * encoding. Clients accepting {@code application/x-ndjson} (the default) receive one
+     * JSON document per line; clients accepting only {@code application/json} receive a
+     * single JSON array. At most {@value #STREAM_FLUSH_INTERVAL} transactions are
+     * buffered and nothing is cached, so gateway memory stays flat regardless of the
+     * collection size. If the client disconnects or the stream times out, the gRPC call
+     * is cancelled so the Domain Service stops reading its cursor.</p>
+     *
+     * @param accept The {@code Accept} header of the request.
+     * @param filter The filters bound from the query string; paging parameters are ignored.
+     * @return The emitter of the streamed response body.
+     * @throws ResponseStatusException If the maximum number of concurrent streams is reached.
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> streamTransactions(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_NDJSON_VALUE) String accept,
+            TransactionFilterDTO filter) {
+        boolean jsonArray = MediaType.parseMediaTypes(accept).stream()
+                .noneMatch(MediaType.APPLICATION_NDJSON::isCompatibleWith);
+        MediaType contentType = jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON;
+
+        TransactionsProto.TransactionListRequest request = TransactionMapper.toListRequest(filter);
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMs);
+        Context.CancellableContext context = Context.current().withCancellation();
+        emitter.onTimeout(() -> context.cancel(null));
+        emitter.onError(context::cancel);
+
+        Runnable stream = () -> {
+            Context previous = context.attach();
+            try {
+                Iterator<TransactionsProto.Transaction> transactions = stub.streamTransactions(request);
+
+                // Transactions are serialized into a buffer sent to the client every STREAM_FLUSH_INTERVAL items
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                try (SequenceWriter sequenceWriter = jsonArray
+                        ? writer.writeValuesAsArray(buffer)
+                        : writer.withRootValueSeparator("\n").writeValues(buffer)) {
+                    int written = 0;
+                    while (transactions.hasNext()) {
+                        sequenceWriter.write(TransactionMapper.toTransaction(transactions.next()));
+                        if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                            sequenceWriter.flush();
+                            emitter.send(buffer.toByteArray(), contentType);
+                            buffer.reset();
+                        }
+                    }
+                }
+                if (buffer.size() > 0) {
+                    emitter.send(buffer.toByteArray(), contentType);
+                }
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+            } finally {
+                context.detach(previous);
+                context.cancel(null);
+            }
+        };
+        try {
+            streamExecutor.execute(stream);
+        } catch (TaskRejectedException e) {
+            context.cancel(e);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent streams", e);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(emitter);
+    }
+}
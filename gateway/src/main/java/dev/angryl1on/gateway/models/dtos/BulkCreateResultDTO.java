@@ -0,0 +1,99 @@
+package dev.angryl1on.gateway.models.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a bulk upload.
+ *
+ * <p>The {@code BulkCreateResultDTO} class is returned by
+ * {@code POST api/transactions/batch}. It reports how many items were accepted and
+ * rejected, and lists every rejected item with its position and reason; every item
+ * whose index is not listed was accepted. Listing only the rejections keeps the
+ * response small even for uploads of millions of items.</p>
+ *
+ * <p>If the upload could not be read to the end (e.g., malformed JSON), {@code error}
+ * describes the problem and only the items before it were processed.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class BulkCreateResultDTO {
+
+    /**
+     * Number of items accepted for creation.
+     */
+    private long accepted;
+
+    /**
+     * Number of items rejected.
+     */
+    private long rejected;
+
+    /**
+     * The rejected items, in upload order.
+     */
+    private List<BulkItemErrorDTO> rejections = new ArrayList<>();
+
+    /**
+     * Reason the upload stopped early, or {@code null} if it was read completely.
+     */
+    private String error;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public BulkCreateResultDTO() {
+    }
+
+    /**
+     * Records an accepted item.
+     */
+    public void addAccepted() {
+        accepted++;
+    }
+
+    /**
+     * Records a rejected item.
+     *
+     * @param index The position of the rejected item.
+     * @param error The reason the item was rejected.
+     */
+    public void addRejected(int index, String error) {
+        rejected++;
+        rejections.add(new BulkItemErrorDTO(index, error));
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BulkItemErrorDTO> getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(List<BulkItemErrorDTO> rejections) {
+        this.rejections = rejections;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,54 @@
+package dev.angryl1on.gateway.models.dtos;
+
+/**
+ * Data Transfer Object (DTO) describing a rejected item of a bulk upload.
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class BulkItemErrorDTO {
+
+    /**
+     * Zero-based position of the item in the uploaded array or NDJSON stream.
+     */
+    private int index;
+
+    /**
+     * The reason the item was rejected.
+     */
+    private String error;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public BulkItemErrorDTO() {
+    }
+
+    /**
+     * Constructs a {@code BulkItemErrorDTO} with all fields initialized.
+     *
+     * @param index The position of the rejected item.
+     * @param error The reason the item was rejected.
+     */
+    public BulkItemErrorDTO(int index, String error) {
+        this.index = index;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,89 @@
+package dev.angryl1on.gateway.models.dtos;
+
+/**
+ * Data Transfer Object (DTO) for the number and total amount of a group of transactions.
+ *
+ * <p>The {@code TransactionAggregateDTO} class is returned by
+ * {@code GET api/transactions/aggregates}. Depending on the requested grouping, a group
+ * covers one date and type, one type, one date or all transactions; the dimensions not
+ * used for grouping are {@code null}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionAggregateDTO {
+
+    /**
+     * The date of the group (e.g., "YYYY-MM-DD"), or {@code null} if not grouped by date.
+     */
+    private String date;
+
+    /**
+     * The type of the group, or {@code null} if not grouped by type.
+     */
+    private String type;
+
+    /**
+     * The number of transactions in the group.
+     */
+    private long count;
+
+    /**
+     * The sum of the amounts of the transactions in the group.
+     */
+    private double total;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionAggregateDTO() {
+    }
+
+    /**
+     * Constructor for initializing all fields of the aggregate.
+     *
+     * @param date  The date of the group, or {@code null}.
+     * @param type  The type of the group, or {@code null}.
+     * @param count The number of transactions in the group.
+     * @param total The sum of their amounts.
+     */
+    public TransactionAggregateDTO(String date, String type, long count, double total) {
+        this.date = date;
+        this.type = type;
+        this.count = count;
+        this.total = total;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+}
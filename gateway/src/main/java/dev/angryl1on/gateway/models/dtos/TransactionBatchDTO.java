@@ -0,0 +1,61 @@
+package dev.angryl1on.gateway.models.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the result of a lookup of many transactions by ID.
+ *
+ * <p>The {@code TransactionBatchDTO} class is returned by
+ * {@code GET api/transactions?ids=...}. It holds the found transactions in the order of
+ * the requested IDs, and lists the requested IDs without a stored transaction.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionBatchDTO {
+
+    /**
+     * The found transactions, in request order.
+     */
+    private List<TransactionDTO> transactions = new ArrayList<>();
+
+    /**
+     * The requested IDs without a stored transaction.
+     */
+    private List<String> missingIds = new ArrayList<>();
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionBatchDTO() {
+    }
+
+    /**
+     * Constructs a {@code TransactionBatchDTO}.
+     *
+     * @param transactions The found transactions, in request order.
+     * @param missingIds   The requested IDs without a stored transaction.
+     */
+    public TransactionBatchDTO(List<TransactionDTO> transactions, List<String> missingIds) {
+        this.transactions = transactions;
+        this.missingIds = missingIds;
+    }
+
+    public List<TransactionDTO> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<TransactionDTO> transactions) {
+        this.transactions = transactions;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
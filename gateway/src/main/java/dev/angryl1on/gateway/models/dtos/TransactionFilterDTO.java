@@ -0,0 +1,184 @@
+package dev.angryl1on.gateway.models.dtos;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Data Transfer Object (DTO) for the query parameters of transaction list requests.
+ *
+ * <p>The {@code TransactionFilterDTO} class is bound from the query string of
+ * {@code GET api/transactions}, {@code GET api/transactions/page} and
+ * {@code GET api/transactions/stream}. It carries optional server-side filters and
+ * the keyset pagination parameters:
+ * <ul>
+ *   <li>{@code from}, {@code to} - Inclusive date range ("YYYY-MM-DD").</li>
+ *   <li>{@code type} - Exact transaction type.</li>
+ *   <li>{@code minAmount}, {@code maxAmount} - Inclusive amount range.</li>
+ *   <li>{@code after} - Cursor returned as {@code nextPageToken} by the previous page.</li>
+ *   <li>{@code limit} - Maximum number of transactions per page.</li>
+ * </ul>
+ * </p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionFilterDTO {
+
+    /**
+     * Inclusive lower bound of the transaction date.
+     */
+    private String from;
+
+    /**
+     * Inclusive upper bound of the transaction date.
+     */
+    private String to;
+
+    /**
+     * The exact transaction type to match.
+     */
+    private String type;
+
+    /**
+     * Inclusive lower bound of the transaction amount.
+     */
+    private Double minAmount;
+
+    /**
+     * Inclusive upper bound of the transaction amount.
+     */
+    private Double maxAmount;
+
+    /**
+     * Keyset cursor of the page to fetch.
+     */
+    private String after;
+
+    /**
+     * Maximum number of transactions per page.
+     */
+    private Integer limit;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionFilterDTO() {
+    }
+
+    /**
+     * Builds a deterministic cache key covering every filter and paging parameter.
+     *
+     * <p>Values are URL-encoded, so the key can be turned back into a filter with
+     * {@link #fromCacheKey(String)}.</p>
+     *
+     * @return The cache key of the page described by this filter.
+     */
+    public String toCacheKey() {
+        return "from=" + valueOf(from)
+                + "&to=" + valueOf(to)
+                + "&type=" + valueOf(type)
+                + "&minAmount=" + valueOf(minAmount)
+                + "&maxAmount=" + valueOf(maxAmount)
+                + "&after=" + valueOf(after)
+                + "&limit=" + valueOf(limit);
+    }
+
+    /**
+     * Rebuilds the filter described by a cache key.
+     *
+     * @param cacheKey A key built by {@link #toCacheKey()}.
+     * @return The corresponding filter.
+     * @throws IllegalArgumentException If a numeric parameter is malformed.
+     */
+    public static TransactionFilterDTO fromCacheKey(String cacheKey) {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        for (String parameter : cacheKey.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator < 0 || separator == parameter.length() - 1) {
+                continue;
+            }
+            String value = URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            switch (parameter.substring(0, separator)) {
+                case "from" -> filter.setFrom(value);
+                case "to" -> filter.setTo(value);
+                case "type" -> filter.setType(value);
+                case "minAmount" -> filter.setMinAmount(Double.valueOf(value));
+                case "maxAmount" -> filter.setMaxAmount(Double.valueOf(value));
+                case "after" -> filter.setAfter(value);
+                case "limit" -> filter.setLimit(Integer.valueOf(value));
+                default -> {
+                    // Unknown parameters are ignored
+                }
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Renders an optional parameter value for the cache key.
+     *
+     * @param value The parameter value, possibly {@code null}.
+     * @return The URL-encoded string form of the value, or an empty string if absent.
+     */
+    private static String valueOf(Object value) {
+        return value == null ? "" : URLEncoder.encode(value.toString(), StandardCharsets.UTF_8);
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Double getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(Double minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public Double getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(Double maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,62 @@
+package dev.angryl1on.gateway.models.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of transactions.
+ *
+ * <p>The {@code TransactionPageDTO} class is returned by {@code GET api/transactions/page}.
+ * It contains the transactions of the requested page and the cursor to pass as the
+ * {@code after} query parameter to fetch the next page. The cursor is {@code null}
+ * once the last page has been reached.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionPageDTO {
+
+    /**
+     * The transactions of this page, ordered by date and ID.
+     */
+    private List<TransactionDTO> transactions = new ArrayList<>();
+
+    /**
+     * Cursor of the next page, or {@code null} if this is the last page.
+     */
+    private String nextPageToken;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionPageDTO() {
+    }
+
+    /**
+     * Constructs a {@code TransactionPageDTO} with all fields initialized.
+     *
+     * @param transactions  The transactions of this page.
+     * @param nextPageToken The cursor of the next page, or {@code null}.
+     */
+    public TransactionPageDTO(List<TransactionDTO> transactions, String nextPageToken) {
+        this.transactions = transactions;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<TransactionDTO> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<TransactionDTO> transactions) {
+        this.transactions = transactions;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
@@ -0,0 +1,82 @@
+package dev.angryl1on.gateway.models.dtos;
+
+/**
+ * Data Transfer Object (DTO) for partial updates of a transaction.
+ *
+ * <p>The {@code TransactionPatchDTO} class is bound from the body of
+ * {@code PATCH api/transactions/{id}}. Only the fields present in the body are written;
+ * absent fields keep their stored value:
+ * <ul>
+ *   <li>{@code amount} - New amount.</li>
+ *   <li>{@code date} - New date ("YYYY-MM-DD").</li>
+ *   <li>{@code type} - New type.</li>
+ *   <li>{@code amountDelta} - Added atomically to the stored amount; cannot be combined
+ *       with {@code amount}.</li>
+ * </ul>
+ * </p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionPatchDTO {
+
+    /**
+     * The new amount of the transaction.
+     */
+    private Double amount;
+
+    /**
+     * The new date of the transaction.
+     * Expected format: "YYYY-MM-DD".
+     */
+    private String date;
+
+    /**
+     * The new type of the transaction.
+     */
+    private String type;
+
+    /**
+     * The amount to add to the stored amount.
+     */
+    private Double amountDelta;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public TransactionPatchDTO() {
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Double getAmountDelta() {
+        return amountDelta;
+    }
+
+    public void setAmountDelta(Double amountDelta) {
+        this.amountDelta = amountDelta;
+    }
+}
@@ -0,0 +1,129 @@
+package dev.angryl1on.gateway.services;
+
+import dev.angryl1on.gateway.caches.TwoTierCache;
+import dev.angryl1on.gateway.caches.TwoTierCacheManager;
+import dev.angryl1on.gateway.models.dtos.TransactionBatchDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import dev.angryl1on.grpc.TransactionsProto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks many transactions up by ID with a constant number of round trips.
+ *
+ * <p>The requested IDs are first resolved from the {@code transactions} cache: the near
+ * cache, then a single Redis {@code MGET} for the rest. Only the remaining misses are
+ * fetched from the Domain Service, with one {@code BatchGetTransactions} call served by a
+ * single MongoDB query, and the fetched transactions are written back to the cache in
+ * one Redis pipeline. A lookup therefore costs at most one Redis read, one gRPC call and
+ * one Redis write, however many IDs it names.</p>
+ *
+ * <p>Redis failures only disable caching for the lookup.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionBatchLookup {
+
+    /**
+     * Maximum number of distinct IDs of a lookup, as accepted by the Domain Service.
+     */
+    public static final int MAX_IDS = 1000;
+
+    /**
+     * Logger for logging cache failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchLookup.class);
+
+    /**
+     * The two-tier cache manager holding the {@code transactions} cache.
+     */
+    private final TwoTierCacheManager cacheManager;
+
+    /**
+     * gRPC blocking stub for the Domain Service.
+     */
+    private final DomainServiceGrpc.DomainServiceBlockingStub stub;
+
+    /**
+     * Constructs the {@code TransactionBatchLookup}.
+     *
+     * @param cacheManager The two-tier cache manager holding the {@code transactions} cache.
+     * @param stub         The blocking stub of the Domain Service.
+     */
+    @Autowired
+    public TransactionBatchLookup(TwoTierCacheManager cacheManager,
+                                  DomainServiceGrpc.DomainServiceBlockingStub stub) {
+        this.cacheManager = cacheManager;
+        this.stub = stub;
+    }
+
+    /**
+     * Looks transactions up by ID.
+     *
+     * @param ids The IDs to look up; duplicates are ignored.
+     * @return The found transactions in request order, and the IDs without a transaction.
+     */
+    public TransactionBatchDTO findByIds(Collection<String> ids) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(ids));
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache(TransactionChangeTracker.TRANSACTIONS_CACHE);
+
+        Map<String, Object> found = new HashMap<>();
+        try {
+            found.putAll(cache.getAll(keys));
+        } catch (DataAccessException e) {
+            logger.warn("Failed to read {} transactions from the cache: {}", keys.size(), e.getMessage());
+        }
+
+        List<String> misses = keys.stream().filter(key -> !found.containsKey(key)).toList();
+        List<String> missingIds = new ArrayList<>();
+        if (!misses.isEmpty()) {
+            Map<String, Object> loaded = new HashMap<>();
+            try {
+                TransactionsProto.BatchGetTransactionsResponse response = stub.batchGetTransactions(
+                        TransactionsProto.BatchGetTransactionsRequest.newBuilder().addAllIds(misses).build());
+
+                for (TransactionsProto.Transaction transaction : response.getTransactionsList()) {
+                    loaded.put(transaction.getId(), new TransactionDTO(
+                            transaction.getId(),
+                            transaction.getAmount(),
+                            transaction.getDate(),
+                            transaction.getType()
+                    ));
+                }
+                missingIds.addAll(response.getMissingIdsList());
+                found.putAll(loaded);
+
+                try {
+                    cache.putAll(loaded);
+                } catch (DataAccessException e) {
+                    logger.warn("Failed to cache {} transactions: {}", loaded.size(), e.getMessage());
+                }
+            } finally {
+                // Missing IDs and the keys of a failed call are never put
+                cache.abandonLoads(misses.stream().filter(key -> !loaded.containsKey(key)).toList());
+            }
+        }
+
+        List<TransactionDTO> transactions = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (found.get(key) instanceof TransactionDTO transaction) {
+                transactions.add(transaction);
+            }
+        }
+        return new TransactionBatchDTO(transactions, missingIds);
+    }
+}
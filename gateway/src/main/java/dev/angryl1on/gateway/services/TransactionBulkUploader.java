@@ -0,0 +1,259 @@
+package dev.angryl1on.gateway.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.angryl1on.gateway.models.dtos.BulkCreateResultDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import dev.angryl1on.grpc.TransactionsProto;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Uploads a stream of transactions to the Domain Service for bulk creation.
+ *
+ * <p>The uploaded body, either a JSON array or NDJSON, is parsed one item at a time
+ * while it is being received, and every item is immediately forwarded over a
+ * client-streaming {@code BulkCreateTransactions} call. The upload is split into calls
+ * of at most {@value #CHUNK_SIZE} items so that each per-item response stays small;
+ * up to {@value #MAX_CHUNKS_IN_FLIGHT} finished calls may await their response while
+ * the next one is being sent. Items are only written when the call is ready to accept
+ * them, so neither the request body nor the outgoing stream is ever buffered in full.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class TransactionBulkUploader {
+
+    /**
+     * Maximum number of items sent over a single client-streaming call.
+     */
+    private static final int CHUNK_SIZE = 10_000;
+
+    /**
+     * Maximum number of completed calls whose response has not been merged yet.
+     */
+    private static final int MAX_CHUNKS_IN_FLIGHT = 4;
+
+    /**
+     * Interval at which a sender blocked on flow control re-checks the call state.
+     */
+    private static final long READY_POLL_INTERVAL_MS = 100;
+
+    /**
+     * gRPC asynchronous stub for the client-streaming calls.
+     */
+    private final DomainServiceGrpc.DomainServiceStub asyncStub;
+
+    /**
+     * Object mapper used to parse the uploaded items.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the {@code TransactionBulkUploader}.
+     *
+     * @param asyncStub    The asynchronous stub of the Domain Service.
+     * @param objectMapper The object mapper used to parse the uploaded items.
+     */
+    @Autowired
+    public TransactionBulkUploader(DomainServiceGrpc.DomainServiceStub asyncStub, ObjectMapper objectMapper) {
+        this.asyncStub = asyncStub;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parses the uploaded transactions and sends them for bulk creation.
+     *
+     * @param body The request body, containing a JSON array or NDJSON of transactions.
+     * @return The accepted and rejected counts together with every rejected item.
+     */
+    public BulkCreateResultDTO upload(InputStream body) {
+        BulkCreateResultDTO result = new BulkCreateResultDTO();
+        Deque<ChunkCall> inFlight = new ArrayDeque<>();
+        ChunkCall current = null;
+        int index = 0;
+
+        try (MappingIterator<TransactionDTO> items = objectMapper.readerFor(TransactionDTO.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                TransactionDTO item = items.nextValue();
+                if (current == null) {
+                    current = start(index);
+                }
+                current.send(toRequest(item));
+                index++;
+
+                if (current.size() == CHUNK_SIZE) {
+                    inFlight.add(current.finish());
+                    current = null;
+                    while (inFlight.size() > MAX_CHUNKS_IN_FLIGHT) {
+                        merge(result, inFlight.poll());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            result.setError("Upload stopped at item " + index + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setError("Upload interrupted at item " + index);
+        }
+
+        if (current != null) {
+            inFlight.add(current.finish());
+        }
+        while (!inFlight.isEmpty()) {
+            merge(result, inFlight.poll());
+        }
+        return result;
+    }
+
+    /**
+     * Opens a new client-streaming call.
+     *
+     * @param baseIndex The upload position of the first item sent over the call.
+     * @return The started call.
+     */
+    private ChunkCall start(int baseIndex) {
+        ChunkCall call = new ChunkCall(baseIndex);
+        asyncStub.bulkCreateTransactions(call);
+        return call;
+    }
+
+    /**
+     * Waits for the response of a finished call and adds its per-item results.
+     *
+     * <p>If the call failed, every item sent over it is reported as rejected.</p>
+     *
+     * @param result The result being built.
+     * @param call   The finished call.
+     */
+    private static void merge(BulkCreateResultDTO result, ChunkCall call) {
+        try {
+            TransactionsProto.BulkCreateTransactionsResponse response = call.response.join();
+            for (TransactionsProto.BulkCreateItemResult item : response.getResultsList()) {
+                if (item.getAccepted()) {
+                    result.addAccepted();
+                } else {
+                    result.addRejected(call.baseIndex + item.getIndex(), item.getError());
+                }
+            }
+        } catch (CompletionException e) {
+            String error = "Domain service call failed: " + e.getCause().getMessage();
+            for (int i = 0; i < call.size(); i++) {
+                result.addRejected(call.baseIndex + i, error);
+            }
+        }
+    }
+
+    /**
+     * Builds the gRPC creation request for an uploaded item.
+     *
+     * <p>Missing fields are sent empty so that the Domain Service rejects the item
+     * with a proper reason.</p>
+     *
+     * @param item The uploaded item.
+     * @return The corresponding {@code CreateTransactionRequest}.
+     */
+    private static TransactionsProto.CreateTransactionRequest toRequest(TransactionDTO item) {
+        return TransactionsProto.CreateTransactionRequest.newBuilder()
+                .setAmount(item.getAmount())
+                .setDate(item.getDate() == null ? "" : item.getDate())
+                .setType(item.getType() == null ? "" : item.getType())
+                .build();
+    }
+
+    /**
+     * A single client-streaming {@code BulkCreateTransactions} call.
+     *
+     * <p>The call honours gRPC flow control: {@link #send} blocks the uploading thread
+     * until the transport is ready to accept another message.</p>
+     */
+    private static final class ChunkCall implements
+            ClientResponseObserver<TransactionsProto.CreateTransactionRequest, TransactionsProto.BulkCreateTransactionsResponse> {
+
+        private final int baseIndex;
+
+        private final CompletableFuture<TransactionsProto.BulkCreateTransactionsResponse> response = new CompletableFuture<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition ready = lock.newCondition();
+
+        private ClientCallStreamObserver<TransactionsProto.CreateTransactionRequest> requestStream;
+
+        private int size;
+
+        private ChunkCall(int baseIndex) {
+            this.baseIndex = baseIndex;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<TransactionsProto.CreateTransactionRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(() -> {
+                lock.lock();
+                try {
+                    ready.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(TransactionsProto.BulkCreateTransactionsResponse value) {
+            response.complete(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            response.completeExceptionally(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            // The single response has already been delivered to onNext
+        }
+
+        private void send(TransactionsProto.CreateTransactionRequest request) throws InterruptedException {
+            lock.lock();
+            try {
+                while (!requestStream.isReady() && !response.isDone()) {
+                    ready.await(READY_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Once the call has failed, remaining items are counted and reported as rejected
+            if (!response.isDone()) {
+                requestStream.onNext(request);
+            }
+            size++;
+        }
+
+        private ChunkCall finish() {
+            if (!response.isDone()) {
+                requestStream.onCompleted();
+            }
+            return this;
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
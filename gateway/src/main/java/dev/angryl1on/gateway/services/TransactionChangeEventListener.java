@@ -0,0 +1,117 @@
+package dev.angryl1on.gateway.services;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import dev.angryl1on.gateway.caches.TwoTierCacheManager;
+import dev.angryl1on.gateway.models.events.ChangeOperation;
+import dev.angryl1on.gateway.models.events.TransactionChangeEvent;
+import dev.angryl1on.gateway.models.events.TransactionChangeEventBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Listener invalidating the gateway caches from committed transaction changes.
+ *
+ * <p>Replaces the former eviction of whole caches at request time. The Domain Service
+ * publishes the changes of every bulk write once MongoDB has acknowledged it; for each
+ * batch of changes this listener:
+ * <ul>
+ *   <li>records the changes, so that loads racing with them are not cached;</li>
+ *   <li>evicts the changed transactions from the {@code transactions} cache;</li>
+ *   <li>evicts the list pages whose scope contains a changed transaction, as found in
+ *       the {@link TransactionListPageRegistry}; other pages stay cached.</li>
+ * </ul>
+ * Every instance receives every change and evicts single transactions by itself. A
+ * page is taken from the shared registry by the first instance only, which therefore
+ * broadcasts its eviction to the near caches of the other instances.</p>
+ *
+ * <p>Failures are logged and not retried: cache TTLs bound the resulting staleness.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionChangeEventListener {
+
+    /**
+     * Logger for logging invalidation failures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionChangeEventListener.class);
+
+    /**
+     * The two-tier cache manager holding the caches to invalidate.
+     */
+    private final TwoTierCacheManager cacheManager;
+
+    /**
+     * Tracker of the recent changes guarding cache writes.
+     */
+    private final TransactionChangeTracker changeTracker;
+
+    /**
+     * Registry of the cached list pages.
+     */
+    private final TransactionListPageRegistry pageRegistry;
+
+    /**
+     * Constructs the {@code TransactionChangeEventListener}.
+     *
+     * @param cacheManager  The two-tier cache manager holding the caches to invalidate.
+     * @param changeTracker The tracker of the recent changes.
+     * @param pageRegistry  The registry of the cached list pages.
+     */
+    @Autowired
+    public TransactionChangeEventListener(TwoTierCacheManager cacheManager,
+                                          TransactionChangeTracker changeTracker,
+                                          TransactionListPageRegistry pageRegistry) {
+        this.cacheManager = cacheManager;
+        this.changeTracker = changeTracker;
+        this.pageRegistry = pageRegistry;
+    }
+
+    /**
+     * Handles a batch of change events.
+     *
+     * @param message The AMQP message carrying a protobuf {@link TransactionChangeEventBatch}.
+     */
+    @RabbitListener(queues = "#{transactionEventsQueue.name}")
+    public void handleMessage(Message message) {
+        List<TransactionChangeEvent> events;
+        try {
+            events = TransactionChangeEventBatch.parseFrom(message.getBody()).getEventsList();
+        } catch (InvalidProtocolBufferException e) {
+            logger.warn("Skipping malformed transaction change message: {}", e.getMessage());
+            return;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        changeTracker.record(events);
+        try {
+            for (TransactionChangeEvent event : events) {
+                if (event.getOperation() != ChangeOperation.CREATED) {
+                    cacheManager.evictShared(TransactionChangeTracker.TRANSACTIONS_CACHE, event.getId());
+                }
+            }
+
+            List<String> pages = pageRegistry.takeAffected(events);
+            Cache lists = cacheManager.getCache(TransactionChangeTracker.TRANSACTION_LISTS_CACHE);
+            if (lists != null) {
+                for (String page : pages) {
+                    lists.evict(page);
+                }
+            }
+            logger.debug("Applied {} transaction changes: {} list pages evicted", events.size(), pages.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to invalidate caches for {} transaction changes: {}", events.size(), e.getMessage());
+        }
+    }
+}
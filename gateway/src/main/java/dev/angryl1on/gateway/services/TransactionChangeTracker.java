@@ -0,0 +1,201 @@
+package dev.angryl1on.gateway.services;
+
+import dev.angryl1on.gateway.caches.CacheWriteGuard;
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import dev.angryl1on.gateway.models.events.TransactionChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the recently received transaction changes and guards cache writes with them.
+ *
+ * <p>Every change event received by this gateway instance gets a sequence number and
+ * is retained for {@code cache.invalidation.guard-window-ms}. A value loaded after a
+ * cache miss is only cached if no change received since the start of the load affects
+ * it: for the {@value #TRANSACTIONS_CACHE} cache, a change of the same ID; for the
+ * {@value #TRANSACTION_LISTS_CACHE} cache, a change of a transaction dated within the
+ * page's date range, before or after the change. Pages are checked by date only, so a
+ * change outside the page's type, amount or ID bounds on one of its dates also rejects
+ * it; it is then loaded again on the next miss. A load older than the retained window
+ * is rejected, since it cannot be checked.</p>
+ *
+ * <p>Only the last sequence number is retained per ID and per date, in concurrent maps,
+ * so checking a write costs one lookup, or one range read of the changed dates for a
+ * page, and takes no lock shared with other cache writes.</p>
+ *
+ * <p>Cached list pages are recorded in the {@link TransactionListPageRegistry}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionChangeTracker implements CacheWriteGuard {
+
+    /**
+     * Name of the cache of single transactions, keyed by ID.
+     */
+    public static final String TRANSACTIONS_CACHE = "transactions";
+
+    /**
+     * Name of the cache of list pages, keyed by filter.
+     */
+    public static final String TRANSACTION_LISTS_CACHE = "transactionsList";
+
+    /**
+     * Registry of the cached list pages.
+     */
+    private final TransactionListPageRegistry pageRegistry;
+
+    /**
+     * Time in milliseconds during which received changes are retained.
+     */
+    @Value("${cache.invalidation.guard-window-ms:30000}")
+    private long guardWindowMs;
+
+    /**
+     * Sequence number of the last change received for each transaction ID.
+     */
+    private final Map<String, Long> changesById = new ConcurrentHashMap<>();
+
+    /**
+     * Sequence number of the last change received for each transaction date.
+     */
+    private final ConcurrentNavigableMap<String, Long> changesByDate = new ConcurrentSkipListMap<>();
+
+    /**
+     * The retained changes, oldest first, to be dropped from the maps once out of the window.
+     */
+    private final Queue<RecordedChange> changes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Sequence number of the last recorded change.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Sequence number of the last change dropped from the window.
+     */
+    private final AtomicLong forgotten = new AtomicLong();
+
+    /**
+     * Constructs the {@code TransactionChangeTracker}.
+     *
+     * @param pageRegistry The registry of the cached list pages.
+     */
+    @Autowired
+    public TransactionChangeTracker(TransactionListPageRegistry pageRegistry) {
+        this.pageRegistry = pageRegistry;
+    }
+
+    /**
+     * Records received changes.
+     *
+     * @param events The received change events.
+     */
+    public void record(List<TransactionChangeEvent> events) {
+        long now = System.currentTimeMillis();
+        for (TransactionChangeEvent event : events) {
+            long recorded = sequence.incrementAndGet();
+            changesById.merge(event.getId(), recorded, Math::max);
+            if (event.hasBefore()) {
+                changesByDate.merge(event.getBefore().getDate(), recorded, Math::max);
+            }
+            if (event.hasAfter()) {
+                changesByDate.merge(event.getAfter().getDate(), recorded, Math::max);
+            }
+            changes.add(new RecordedChange(recorded, now, event));
+        }
+
+        // Only serializes concurrent recorders; cache writes never take this lock
+        synchronized (changes) {
+            RecordedChange oldest;
+            while ((oldest = changes.peek()) != null && oldest.receivedAt() < now - guardWindowMs) {
+                forget(changes.poll());
+            }
+        }
+    }
+
+    @Override
+    public long begin(String cacheName, Object key) {
+        return sequence.get();
+    }
+
+    @Override
+    public boolean admits(String cacheName, Object key, Object value, long token) {
+        if (token < forgotten.get()) {
+            return false;
+        }
+        if (TRANSACTIONS_CACHE.equals(cacheName)) {
+            Long changed = changesById.get(String.valueOf(key));
+            return changed == null || changed <= token;
+        }
+        if (TRANSACTION_LISTS_CACHE.equals(cacheName) && value instanceof TransactionPageDTO page) {
+            TransactionPageScope scope = TransactionPageScope.of(String.valueOf(key), page);
+            for (long changed : datesWithin(scope.lowestDate(), scope.highestDate()).values()) {
+                if (changed > token) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void beforePut(String cacheName, Object key, Object value) {
+        if (TRANSACTION_LISTS_CACHE.equals(cacheName) && value instanceof TransactionPageDTO page) {
+            pageRegistry.register(String.valueOf(key), page);
+        }
+    }
+
+    /**
+     * Selects the changed dates within an inclusive range.
+     *
+     * @param from The lowest date, or {@code null} if the range is open downwards.
+     * @param to   The highest date, or {@code null} if the range is open upwards.
+     * @return The last change sequence of every date in the range.
+     */
+    private Map<String, Long> datesWithin(String from, String to) {
+        if (from != null && to != null) {
+            return from.compareTo(to) <= 0 ? changesByDate.subMap(from, true, to, true) : Map.of();
+        }
+        if (from != null) {
+            return changesByDate.tailMap(from, true);
+        }
+        return to != null ? changesByDate.headMap(to, true) : changesByDate;
+    }
+
+    /**
+     * Drops a change that left the window, unless a later change of the same ID or date
+     * has replaced it.
+     *
+     * @param change The change.
+     */
+    private void forget(RecordedChange change) {
+        forgotten.accumulateAndGet(change.sequence(), Math::max);
+        TransactionChangeEvent event = change.event();
+        changesById.remove(event.getId(), change.sequence());
+        if (event.hasBefore()) {
+            changesByDate.remove(event.getBefore().getDate(), change.sequence());
+        }
+        if (event.hasAfter()) {
+            changesByDate.remove(event.getAfter().getDate(), change.sequence());
+        }
+    }
+
+    /**
+     * A received change with its sequence number and reception time.
+     */
+    private record RecordedChange(long sequence, long receivedAt, TransactionChangeEvent event) {
+    }
+}
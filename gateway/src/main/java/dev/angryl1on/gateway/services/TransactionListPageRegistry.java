@@ -0,0 +1,202 @@
+package dev.angryl1on.gateway.services;
+
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import dev.angryl1on.gateway.models.events.TransactionChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the list pages currently held in the {@code transactionsList} cache.
+ *
+ * <p>Every cached page is recorded in Redis, mapping its cache key to the upper bound of
+ * its key range together with an expiry time. Because the registry lives in Redis, it
+ * covers the pages cached by every gateway instance and survives restarts. When
+ * transactions change, the registry tells which pages may contain them, so that only
+ * those pages are evicted instead of the whole cache.</p>
+ *
+ * <p>Registrations are indexed by month: a page is recorded in one small hash per month
+ * its date range spans, {@code <registry-key>:<yyyy-MM>}. A page whose range is open
+ * at either end, or spans more than {@value #MAX_MONTHS_PER_PAGE} months, is recorded in
+ * the {@code <registry-key>:open} hash instead. A batch of changes then reads only the
+ * hashes of the months of the changed transactions and the open one, rather than every
+ * registration. Hashes expire together with their last registration.</p>
+ *
+ * <p>Descriptor format: {@code <expiresAtMillis>|<lastDate>|<lastId>}, the last two
+ * fields being absent for the last page of a list.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class TransactionListPageRegistry {
+
+    /**
+     * Largest number of months a page is indexed under before it is recorded as open.
+     */
+    static final int MAX_MONTHS_PER_PAGE = 12;
+
+    /**
+     * Suffix of the hash of the pages without a bounded date range.
+     */
+    private static final String OPEN_BUCKET = "open";
+
+    /**
+     * Template used to access the registry hashes.
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Prefix of the Redis keys of the registry hashes.
+     */
+    @Value("${cache.invalidation.page-registry-key:gateway:transactionsList:pages}")
+    private String registryKey;
+
+    /**
+     * Lifetime in milliseconds of a registration; matches the TTL of cached list pages.
+     */
+    @Value("${cache.invalidation.page-ttl-ms:600000}")
+    private long pageTtlMs;
+
+    /**
+     * Constructs the {@code TransactionListPageRegistry}.
+     *
+     * @param redisTemplate The template used to access the registry hashes.
+     */
+    @Autowired
+    public TransactionListPageRegistry(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Records a page that has just been cached.
+     *
+     * @param cacheKey The cache key of the page.
+     * @param page     The cached page.
+     */
+    public void register(String cacheKey, TransactionPageDTO page) {
+        long expiresAt = System.currentTimeMillis() + pageTtlMs;
+        String descriptor = expiresAt + "|" + TransactionPageScope.describe(page);
+        for (String bucket : bucketsOf(TransactionPageScope.of(cacheKey, page))) {
+            redisTemplate.opsForHash().put(bucket, cacheKey, descriptor);
+            redisTemplate.expire(bucket, pageTtlMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Finds and unregisters the cached pages affected by a set of changes.
+     *
+     * <p>Registrations that have expired are dropped along the way.</p>
+     *
+     * @param events The transaction changes.
+     * @return The cache keys of the pages to evict.
+     */
+    public List<String> takeAffected(List<TransactionChangeEvent> events) {
+        Set<String> buckets = new LinkedHashSet<>();
+        buckets.add(bucketKey(OPEN_BUCKET));
+        for (TransactionChangeEvent event : events) {
+            if (event.hasBefore()) {
+                buckets.add(bucketKey(monthOf(event.getBefore().getDate())));
+            }
+            if (event.hasAfter()) {
+                buckets.add(bucketKey(monthOf(event.getAfter().getDate())));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        Set<String> affected = new LinkedHashSet<>();
+        for (String bucket : buckets) {
+            List<Object> removed = new ArrayList<>();
+            for (Map.Entry<Object, Object> registration : redisTemplate.opsForHash().entries(bucket).entrySet()) {
+                String cacheKey = (String) registration.getKey();
+                String descriptor = (String) registration.getValue();
+                int separator = descriptor.indexOf('|');
+                if (separator < 0 || Long.parseLong(descriptor.substring(0, separator)) < now) {
+                    removed.add(cacheKey);
+                    continue;
+                }
+                TransactionPageScope scope = TransactionPageScope.parse(cacheKey, descriptor.substring(separator + 1));
+                if (affected.contains(cacheKey) || isAffected(scope, events)) {
+                    affected.add(cacheKey);
+                    removed.add(cacheKey);
+                }
+            }
+            if (!removed.isEmpty()) {
+                redisTemplate.opsForHash().delete(bucket, removed.toArray());
+            }
+        }
+        return new ArrayList<>(affected);
+    }
+
+    /**
+     * Tells whether any change touches a page.
+     *
+     * @param scope  The page scope.
+     * @param events The transaction changes.
+     * @return {@code true} if the page may contain a changed transaction.
+     */
+    static boolean isAffected(TransactionPageScope scope, List<TransactionChangeEvent> events) {
+        for (TransactionChangeEvent event : events) {
+            if (event.hasBefore() && scope.contains(event.getId(), event.getBefore())) {
+                return true;
+            }
+            if (event.hasAfter() && scope.contains(event.getId(), event.getAfter())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists the hashes a page is recorded in.
+     *
+     * @param scope The page scope.
+     * @return The Redis keys of the hashes.
+     */
+    private List<String> bucketsOf(TransactionPageScope scope) {
+        String lowest = scope.lowestDate();
+        String highest = scope.highestDate();
+        if (lowest == null || highest == null) {
+            return List.of(bucketKey(OPEN_BUCKET));
+        }
+        try {
+            YearMonth from = YearMonth.parse(monthOf(lowest));
+            YearMonth to = YearMonth.parse(monthOf(highest));
+            List<String> buckets = new ArrayList<>();
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                if (buckets.size() == MAX_MONTHS_PER_PAGE) {
+                    return List.of(bucketKey(OPEN_BUCKET));
+                }
+                buckets.add(bucketKey(month.toString()));
+            }
+            return buckets;
+        } catch (DateTimeParseException e) {
+            return List.of(bucketKey(OPEN_BUCKET));
+        }
+    }
+
+    /**
+     * Extracts the month of a {@code YYYY-MM-DD} date.
+     *
+     * @param date The date.
+     * @return The {@code YYYY-MM} month, or the date itself if it is shorter.
+     */
+    private static String monthOf(String date) {
+        return date.length() >= 7 ? date.substring(0, 7) : date;
+    }
+
+    private String bucketKey(String bucket) {
+        return registryKey + ":" + bucket;
+    }
+}
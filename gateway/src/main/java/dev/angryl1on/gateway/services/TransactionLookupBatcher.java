@@ -0,0 +1,211 @@
+package dev.angryl1on.gateway.services;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.grpc.DomainServiceGrpc;
+import dev.angryl1on.grpc.TransactionsProto;
+import io.grpc.Status;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent lookups of single transactions into batched Domain Service calls.
+ *
+ * <p>Each lookup is queued and answered with a future. The queue is sent as one
+ * {@code BatchGetTransactions} call, served by a single MongoDB query, when
+ * {@code transaction.lookup.batching.max-batch-size} distinct IDs are queued or
+ * {@code transaction.lookup.batching.window-us} after the first lookup of the batch,
+ * whichever comes first. Lookups of the same ID within a batch share one slot.</p>
+ *
+ * <p>Under fan-in load this turns many concurrent {@code GetTransactionById} calls into a
+ * few batched calls, at the cost of at most one window of added latency when lookups are
+ * rare. A transaction that does not exist fails its lookup with {@code NOT_FOUND}.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.lookup.batching.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionLookupBatcher {
+
+    /**
+     * gRPC future stub sending the batched calls.
+     */
+    private final DomainServiceGrpc.DomainServiceFutureStub stub;
+
+    /**
+     * Time in microseconds a batch waits for more lookups after its first one.
+     */
+    @Value("${transaction.lookup.batching.window-us:300}")
+    private long windowUs;
+
+    /**
+     * Number of distinct IDs that sends a batch immediately.
+     */
+    @Value("${transaction.lookup.batching.max-batch-size:128}")
+    private int maxBatchSize;
+
+    /**
+     * Timer sending batches at the end of their window.
+     */
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-lookup-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Guards the batch being collected.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The lookups of the batch being collected, by ID.
+     */
+    private Map<String, CompletableFuture<TransactionDTO>> pending = new LinkedHashMap<>();
+
+    /**
+     * Timer task sending the batch being collected, if scheduled.
+     */
+    private ScheduledFuture<?> scheduledSend;
+
+    /**
+     * Constructs the {@code TransactionLookupBatcher}.
+     *
+     * @param stub The future stub of the Domain Service.
+     */
+    @Autowired
+    public TransactionLookupBatcher(DomainServiceGrpc.DomainServiceFutureStub stub) {
+        this.stub = stub;
+    }
+
+    /**
+     * Looks a transaction up.
+     *
+     * @param id The transaction ID.
+     * @return A future completed with the transaction, or failed with the call's error.
+     */
+    public CompletableFuture<TransactionDTO> load(String id) {
+        CompletableFuture<TransactionDTO> lookup;
+        Map<String, CompletableFuture<TransactionDTO>> full = null;
+        synchronized (lock) {
+            lookup = pending.computeIfAbsent(id, ignored -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (scheduledSend == null) {
+                scheduledSend = scheduler.schedule(this::sendPending, windowUs, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        // Callers of the same ID must not cancel each other's lookup
+        return lookup.copy();
+    }
+
+    /**
+     * Looks a transaction up and waits for it.
+     *
+     * @param id The transaction ID.
+     * @return The transaction.
+     */
+    public TransactionDTO get(String id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the timer; batches not sent yet are sent at once.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sendPending();
+    }
+
+    private void sendPending() {
+        Map<String, CompletableFuture<TransactionDTO>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Detaches the batch being collected. Must be called while holding {@link #lock}.
+     *
+     * @return The detached lookups, by ID.
+     */
+    private Map<String, CompletableFuture<TransactionDTO>> takePending() {
+        Map<String, CompletableFuture<TransactionDTO>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledSend != null) {
+            scheduledSend.cancel(false);
+            scheduledSend = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Sends a batch and completes its lookups with the response.
+     *
+     * @param batch The lookups, by ID.
+     */
+    private void send(Map<String, CompletableFuture<TransactionDTO>> batch) {
+        TransactionsProto.BatchGetTransactionsRequest request = TransactionsProto.BatchGetTransactionsRequest.newBuilder()
+                .addAllIds(batch.keySet())
+                .build();
+
+        Futures.addCallback(stub.batchGetTransactions(request), new FutureCallback<>() {
+            @Override
+            public void onSuccess(TransactionsProto.BatchGetTransactionsResponse response) {
+                for (TransactionsProto.Transaction transaction : response.getTransactionsList()) {
+                    CompletableFuture<TransactionDTO> lookup = batch.remove(transaction.getId());
+                    if (lookup != null) {
+                        lookup.complete(new TransactionDTO(
+                                transaction.getId(),
+                                transaction.getAmount(),
+                                transaction.getDate(),
+                                transaction.getType()
+                        ));
+                    }
+                }
+                for (Map.Entry<String, CompletableFuture<TransactionDTO>> missing : batch.entrySet()) {
+                    missing.getValue().completeExceptionally(Status.NOT_FOUND
+                            .withDescription("Transaction not found: " + missing.getKey())
+                            .asRuntimeException());
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                for (CompletableFuture<TransactionDTO> lookup : batch.values()) {
+                    lookup.completeExceptionally(t);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+}
@@ -0,0 +1,196 @@
+package dev.angryl1on.gateway.services;
+
+import dev.angryl1on.gateway.models.dtos.TransactionDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionFilterDTO;
+import dev.angryl1on.gateway.models.dtos.TransactionPageDTO;
+import dev.angryl1on.gateway.models.events.TransactionState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * The set of transactions a cached list page may contain.
+ *
+ * <p>List pages are keyset-paginated by {@code (date, id)}: a page holds the matching
+ * transactions after its cursor, up to its last transaction if there is a next page,
+ * and all remaining ones otherwise. A transaction change can only alter a page if the
+ * transaction, before or after the change, matches the page's filters and falls into
+ * that key range; inserting into one page never shifts the following pages, whose
+ * cursors are fixed.</p>
+ *
+ * <p>The lower bound is decoded from the page cursor ({@code base64url("date|id")}, as
+ * issued by the Domain Service). An unreadable cursor leaves the range open downwards,
+ * which can only cause extra evictions.</p>
+ *
+ * @author AngryL1on
+ * @version 1.0
+ * @since 1.0
+ */
+final class TransactionPageScope {
+
+    /**
+     * Separator of the fields of a cursor and of a page descriptor.
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * The filters of the page.
+     */
+    private final TransactionFilterDTO filter;
+
+    /**
+     * Date of the exclusive lower bound, or {@code null} if the range is open downwards.
+     */
+    private final String lowerDate;
+
+    /**
+     * ID of the exclusive lower bound.
+     */
+    private final String lowerId;
+
+    /**
+     * Date of the inclusive upper bound, or {@code null} for the last page.
+     */
+    private final String upperDate;
+
+    /**
+     * ID of the inclusive upper bound.
+     */
+    private final String upperId;
+
+    private TransactionPageScope(TransactionFilterDTO filter,
+                                 String lowerDate, String lowerId,
+                                 String upperDate, String upperId) {
+        this.filter = filter;
+        this.lowerDate = lowerDate;
+        this.lowerId = lowerId;
+        this.upperDate = upperDate;
+        this.upperId = upperId;
+    }
+
+    /**
+     * Computes the scope of a loaded page.
+     *
+     * @param cacheKey The cache key of the page.
+     * @param page     The page.
+     * @return The page scope.
+     */
+    static TransactionPageScope of(String cacheKey, TransactionPageDTO page) {
+        return parse(cacheKey, describe(page));
+    }
+
+    /**
+     * Describes the upper bound of a page, for storage next to its cache key.
+     *
+     * @param page The page.
+     * @return The descriptor, {@code "date|id"} of the last transaction or an empty string
+     *         if the page is the last one.
+     */
+    static String describe(TransactionPageDTO page) {
+        List<TransactionDTO> transactions = page.getTransactions();
+        if (page.getNextPageToken() == null || transactions.isEmpty()) {
+            return "";
+        }
+        TransactionDTO last = transactions.get(transactions.size() - 1);
+        return last.getDate() + SEPARATOR + last.getId();
+    }
+
+    /**
+     * Rebuilds the scope of a page from its cache key and descriptor.
+     *
+     * @param cacheKey   The cache key of the page.
+     * @param descriptor The descriptor built by {@link #describe(TransactionPageDTO)}.
+     * @return The page scope.
+     */
+    static TransactionPageScope parse(String cacheKey, String descriptor) {
+        TransactionFilterDTO filter = TransactionFilterDTO.fromCacheKey(cacheKey);
+
+        String[] lower = decodeCursor(filter.getAfter());
+        String[] upper = descriptor.isEmpty() ? null : descriptor.split("\\" + SEPARATOR, 2);
+        return new TransactionPageScope(filter,
+                lower != null ? lower[0] : null, lower != null ? lower[1] : null,
+                upper != null && upper.length == 2 ? upper[0] : null,
+                upper != null && upper.length == 2 ? upper[1] : null);
+    }
+
+    /**
+     * Tells whether a transaction in the given state belongs to this page.
+     *
+     * @param id    The transaction ID.
+     * @param state The transaction state.
+     * @return {@code true} if the page contains, or would contain, the transaction.
+     */
+    boolean contains(String id, TransactionState state) {
+        if (filter.getFrom() != null && state.getDate().compareTo(filter.getFrom()) < 0) {
+            return false;
+        }
+        if (filter.getTo() != null && state.getDate().compareTo(filter.getTo()) > 0) {
+            return false;
+        }
+        if (filter.getType() != null && !filter.getType().equals(state.getType())) {
+            return false;
+        }
+        if (filter.getMinAmount() != null && state.getAmount() < filter.getMinAmount()) {
+            return false;
+        }
+        if (filter.getMaxAmount() != null && state.getAmount() > filter.getMaxAmount()) {
+            return false;
+        }
+        if (lowerDate != null && compareKeys(state.getDate(), id, lowerDate, lowerId) <= 0) {
+            return false;
+        }
+        return upperDate == null || compareKeys(state.getDate(), id, upperDate, upperId) <= 0;
+    }
+
+    /**
+     * Gives the lowest date a transaction of this page may have.
+     *
+     * @return The date, or {@code null} if the page is open downwards.
+     */
+    String lowestDate() {
+        if (lowerDate == null || filter.getFrom() == null) {
+            return lowerDate != null ? lowerDate : filter.getFrom();
+        }
+        return lowerDate.compareTo(filter.getFrom()) > 0 ? lowerDate : filter.getFrom();
+    }
+
+    /**
+     * Gives the highest date a transaction of this page may have.
+     *
+     * @return The date, or {@code null} if the page is open upwards.
+     */
+    String highestDate() {
+        if (upperDate == null || filter.getTo() == null) {
+            return upperDate != null ? upperDate : filter.getTo();
+        }
+        return upperDate.compareTo(filter.getTo()) < 0 ? upperDate : filter.getTo();
+    }
+
+    /**
+     * Compares two keyset positions, ordered by date, then by ID.
+     */
+    private static int compareKeys(String date, String id, String otherDate, String otherId) {
+        int byDate = date.compareTo(otherDate);
+        return byDate != 0 ? byDate : id.compareTo(otherId);
+    }
+
+    /**
+     * Decodes a page cursor into its date and ID.
+     *
+     * @param cursor The cursor, possibly {@code null}.
+     * @return The date and ID, or {@code null} if there is no readable cursor.
+     */
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 2);
+            return parts.length == 2 ? parts : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package dev.angryl1on.gateway.controllers;
+
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests of the HTTP responses {@link GrpcExceptionHandler} builds from Domain Service errors.
+ */
+class GrpcExceptionHandlerTests {
+
+    private final GrpcExceptionHandler handler = new GrpcExceptionHandler();
+
+    @Test
+    void unknownTransactionIdIsNotFound() {
+        ResponseEntity<ProblemDetail> response = handler.handleStatus(Status.NOT_FOUND
+                .withDescription("Transaction not found: 65f1c0de0000000000000000")
+                .asRuntimeException());
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(404, response.getBody().getStatus());
+        assertEquals("Transaction not found: 65f1c0de0000000000000000", response.getBody().getDetail());
+    }
+
+    @Test
+    void invalidArgumentIsBadRequest() {
+        ResponseEntity<ProblemDetail> response = handler.handleStatus(Status.INVALID_ARGUMENT
+                .withDescription("Invalid page token")
+                .asRuntimeException());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid page token", response.getBody().getDetail());
+    }
+
+    @Test
+    void unknownStatusIsServerError() {
+        // What a plain exception thrown by a gRPC service arrives as
+        ResponseEntity<ProblemDetail> response = handler.handleStatus(Status.UNKNOWN.asRuntimeException());
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("UNKNOWN", response.getBody().getDetail());
+    }
+
+    @Test
+    void mapsEveryClientErrorCode() {
+        assertEquals(HttpStatus.BAD_REQUEST, GrpcExceptionHandler.toHttpStatus(Status.Code.OUT_OF_RANGE));
+        assertEquals(HttpStatus.BAD_REQUEST, GrpcExceptionHandler.toHttpStatus(Status.Code.FAILED_PRECONDITION));
+        assertEquals(HttpStatus.CONFLICT, GrpcExceptionHandler.toHttpStatus(Status.Code.ALREADY_EXISTS));
+        assertEquals(HttpStatus.CONFLICT, GrpcExceptionHandler.toHttpStatus(Status.Code.ABORTED));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, GrpcExceptionHandler.toHttpStatus(Status.Code.RESOURCE_EXHAUSTED));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, GrpcExceptionHandler.toHttpStatus(Status.Code.UNAVAILABLE));
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, GrpcExceptionHandler.toHttpStatus(Status.Code.DEADLINE_EXCEEDED));
+    }
+}